@@ -0,0 +1,301 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map that keeps a few members in one array of keys and values, in the
+ * order they were first put, and finds keys by searching the array. When it
+ * holds more than {@link #MAX_ENTRIES} members it moves them to a
+ * LinkedHashMap. It is made by {@link JSONMapFactory#COMPACT}. Keys can not
+ * be null.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+    /** The most members kept in the array. */
+    static final int MAX_ENTRIES = 8;
+
+    /** The keys and values, one after the other, or null once moved. */
+    private Object[] table;
+
+    /** The number of members in the table. */
+    private int size;
+
+    /** The map the members are moved to when there are too many. */
+    private Map<String, Object> map;
+
+    /** The view of the entries, made when it is first asked for. */
+    private Set<Entry<String, Object>> entries;
+
+    /**
+     * Construct a CompactMap.
+     *
+     * @param expectedSize The number of members the map is expected to hold,
+     *  or 0 if it is not known.
+     */
+    CompactMap(int expectedSize) {
+        if (expectedSize > MAX_ENTRIES) {
+            this.map = new LinkedHashMap<String, Object>(expectedSize);
+        } else {
+            this.table = new Object[2 * (expectedSize > 0 ? expectedSize : 4)];
+        }
+    }
+
+    /**
+     * Find a key in the table.
+     *
+     * @param key The key.
+     * @return The position of the key in the table, or -1.
+     */
+    private int indexOf(Object key) {
+        if (key != null) {
+            final Object[] t = this.table;
+            final int end = 2 * this.size;
+            for (int i = 0; i < end; i += 2) {
+                if (key.equals(t[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove the member at a position of the table, keeping the order of the
+     * others.
+     *
+     * @param i The position of the key in the table.
+     * @return The value of the member.
+     */
+    private Object removeAt(int i) {
+        final Object[] t = this.table;
+        final Object value = t[i + 1];
+        final int end = 2 * this.size;
+        System.arraycopy(t, i + 2, t, i, end - i - 2);
+        t[end - 2] = null;
+        t[end - 1] = null;
+        this.size--;
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return this.map != null ? this.map.size() : this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.map != null ? this.map.containsKey(key) : this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.map != null) {
+            return this.map.get(key);
+        }
+        int i = this.indexOf(key);
+        return i >= 0 ? this.table[i + 1] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (key == null) {
+            throw new NullPointerException("Null key.");
+        }
+        if (this.map != null) {
+            return this.map.put(key, value);
+        }
+        int i = this.indexOf(key);
+        if (i >= 0) {
+            Object old = this.table[i + 1];
+            this.table[i + 1] = value;
+            return old;
+        }
+        if (this.size == MAX_ENTRIES) {
+            Map<String, Object> moved = new LinkedHashMap<String, Object>(4 * MAX_ENTRIES);
+            for (int j = 0; j < 2 * this.size; j += 2) {
+                moved.put((String) this.table[j], this.table[j + 1]);
+            }
+            moved.put(key, value);
+            this.map = moved;
+            this.table = null;
+            this.size = 0;
+            return null;
+        }
+        i = 2 * this.size;
+        if (i == this.table.length) {
+            Object[] t = new Object[Math.min(2 * this.table.length, 2 * MAX_ENTRIES)];
+            System.arraycopy(this.table, 0, t, 0, i);
+            this.table = t;
+        }
+        this.table[i] = key;
+        this.table[i + 1] = value;
+        this.size++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (this.map != null) {
+            return this.map.remove(key);
+        }
+        int i = this.indexOf(key);
+        return i >= 0 ? this.removeAt(i) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (this.map != null) {
+            this.map.clear();
+        } else {
+            for (int i = 0; i < 2 * this.size; i++) {
+                this.table[i] = null;
+            }
+            this.size = 0;
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (this.entries == null) {
+            this.entries = new EntrySet();
+        }
+        return this.entries;
+    }
+
+    /**
+     * The entries of the map. Once the members have been moved, the entries
+     * are those of the map they were moved to.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            if (CompactMap.this.map != null) {
+                return CompactMap.this.map.entrySet().iterator();
+            }
+            return new TableIterator();
+        }
+    }
+
+    /**
+     * Iterates over the entries of the table.
+     */
+    private final class TableIterator implements Iterator<Entry<String, Object>> {
+
+        /** The position of the next key in the table. */
+        private int next;
+
+        /** The position of the last key returned, or -1. */
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < 2 * CompactMap.this.size;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            this.next += 2;
+            return new TableEntry(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            CompactMap.this.removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+        }
+    }
+
+    /**
+     * An entry of the table. Setting its value writes through to the table.
+     */
+    private final class TableEntry implements Entry<String, Object> {
+
+        /** The position of the key in the table. */
+        private final int index;
+
+        /**
+         * Construct a TableEntry.
+         *
+         * @param index The position of the key in the table.
+         */
+        TableEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return (String) CompactMap.this.table[this.index];
+        }
+
+        @Override
+        public Object getValue() {
+            return CompactMap.this.table[this.index + 1];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = CompactMap.this.table[this.index + 1];
+            CompactMap.this.table[this.index + 1] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) other;
+            Object value = this.getValue();
+            return this.getKey().equals(e.getKey())
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = this.getValue();
+            return this.getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return this.getKey() + "=" + this.getValue();
+        }
+    }
+}
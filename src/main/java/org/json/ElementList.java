@@ -0,0 +1,481 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The list where a {@link JSONArray} keeps its elements. While every element
+ * is an Integer, every element a Long, or every element a Double, the
+ * elements are kept in an array of the primitive type, and are only boxed
+ * when they are read as objects. The first element of any other kind moves
+ * the elements to an array of objects, where they stay.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class ElementList extends AbstractList<Object> implements RandomAccess {
+
+    /** The kind of an empty list, whose elements are not known yet. */
+    private static final int NONE = 0;
+
+    /** The kind of a list of Integers, kept in ints. */
+    private static final int INTS = 1;
+
+    /** The kind of a list of Longs, kept in longs. */
+    private static final int LONGS = 2;
+
+    /** The kind of a list of Doubles, kept in doubles. */
+    private static final int DOUBLES = 3;
+
+    /** The kind of a list of anything else, kept in objects. */
+    private static final int OBJECTS = 4;
+
+    /** The capacity of the first array of a list made without one. */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
+
+    /** The kind of the elements. */
+    private int kind;
+
+    /** The capacity to give the first array. */
+    private int initialCapacity;
+
+    /** The number of elements. */
+    private int size;
+
+    private int[] ints = NO_INTS;
+    private long[] longs = NO_LONGS;
+    private double[] doubles = NO_DOUBLES;
+    private Object[] objects = NO_OBJECTS;
+
+    /** true if the list can not be changed. */
+    private boolean frozen;
+
+    /**
+     * Construct an empty ElementList.
+     */
+    ElementList() {
+        this.initialCapacity = DEFAULT_CAPACITY;
+    }
+
+    /**
+     * Construct an empty ElementList with room for a number of elements.
+     *
+     * @param initialCapacity The number of elements.
+     */
+    ElementList(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Construct an ElementList holding the elements of another one, kept the
+     * same way.
+     *
+     * @param other The list to copy.
+     */
+    ElementList(ElementList other) {
+        this.kind = other.kind;
+        this.size = other.size;
+        this.initialCapacity = DEFAULT_CAPACITY;
+        switch (other.kind) {
+        case INTS:
+            this.ints = Arrays.copyOf(other.ints, other.size);
+            break;
+        case LONGS:
+            this.longs = Arrays.copyOf(other.longs, other.size);
+            break;
+        case DOUBLES:
+            this.doubles = Arrays.copyOf(other.doubles, other.size);
+            break;
+        case OBJECTS:
+            this.objects = Arrays.copyOf(other.objects, other.size);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Make a frozen copy of the list, holding frozen copies of its
+     * JSONObjects and JSONArrays, in arrays of exactly the right length.
+     *
+     * @return The frozen list.
+     */
+    ElementList frozenCopy() {
+        ElementList copy = new ElementList(this);
+        if (copy.kind == OBJECTS) {
+            for (int i = 0; i < copy.size; i++) {
+                copy.objects[i] = JSONObject.freezeValue(copy.objects[i]);
+            }
+        }
+        copy.frozen = true;
+        return copy;
+    }
+
+    /**
+     * Determine if the list can not be changed.
+     *
+     * @return true if the list is frozen.
+     */
+    boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Find the kind of list that can keep a value without boxing it.
+     *
+     * @param value The value.
+     * @return INTS, LONGS, DOUBLES or OBJECTS.
+     */
+    private static int kindOf(Object value) {
+        if (value != null) {
+            Class<?> type = value.getClass();
+            if (type == Integer.class) {
+                return INTS;
+            }
+            if (type == Long.class) {
+                return LONGS;
+            }
+            if (type == Double.class) {
+                return DOUBLES;
+            }
+        }
+        return OBJECTS;
+    }
+
+    /**
+     * Determine if the elements are kept in a primitive array, so that they
+     * can be read with {@link #intAt(int)}, {@link #longAt(int)} and
+     * {@link #doubleAt(int)}.
+     *
+     * @return true if the elements are all Integers, all Longs or all
+     *  Doubles.
+     */
+    boolean isPrimitive() {
+        return this.kind == INTS || this.kind == LONGS || this.kind == DOUBLES;
+    }
+
+    /**
+     * Read an element of a primitive list as an int, as
+     * <code>Number.intValue</code> would.
+     *
+     * @param index The index, which must be in the list.
+     * @return The value.
+     */
+    int intAt(int index) {
+        switch (this.kind) {
+        case INTS:
+            return this.ints[index];
+        case LONGS:
+            return (int) this.longs[index];
+        default:
+            return (int) this.doubles[index];
+        }
+    }
+
+    /**
+     * Read an element of a primitive list as a long, as
+     * <code>Number.longValue</code> would.
+     *
+     * @param index The index, which must be in the list.
+     * @return The value.
+     */
+    long longAt(int index) {
+        switch (this.kind) {
+        case INTS:
+            return this.ints[index];
+        case LONGS:
+            return this.longs[index];
+        default:
+            return (long) this.doubles[index];
+        }
+    }
+
+    /**
+     * Read an element of a primitive list as a double, as
+     * <code>Number.doubleValue</code> would.
+     *
+     * @param index The index, which must be in the list.
+     * @return The value.
+     */
+    double doubleAt(int index) {
+        switch (this.kind) {
+        case INTS:
+            return this.ints[index];
+        case LONGS:
+            return this.longs[index];
+        default:
+            return this.doubles[index];
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object get(int index) {
+        this.checkIndex(index, this.size);
+        switch (this.kind) {
+        case INTS:
+            return Integer.valueOf(this.ints[index]);
+        case LONGS:
+            return Long.valueOf(this.longs[index]);
+        case DOUBLES:
+            return Double.valueOf(this.doubles[index]);
+        default:
+            return this.objects[index];
+        }
+    }
+
+    @Override
+    public Object set(int index, Object value) {
+        this.checkNotFrozen();
+        this.checkIndex(index, this.size);
+        Object old = this.get(index);
+        if (kindOf(value) != this.kind) {
+            this.toObjects();
+        }
+        this.store(index, value);
+        return old;
+    }
+
+    @Override
+    public boolean add(Object value) {
+        this.add(this.size, value);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Object value) {
+        this.checkNotFrozen();
+        this.checkIndex(index, this.size + 1);
+        int valueKind = kindOf(value);
+        if (this.size == 0 && this.kind != valueKind) {
+            this.kind = valueKind;
+            this.release();
+        } else if (valueKind != this.kind) {
+            this.toObjects();
+        }
+        this.ensureCapacity(this.size + 1);
+        if (index < this.size) {
+            Object array = this.array();
+            System.arraycopy(array, index, array, index + 1, this.size - index);
+        }
+        this.size++;
+        this.modCount++;
+        this.store(index, value);
+    }
+
+    @Override
+    public boolean addAll(Collection<?> c) {
+        this.checkNotFrozen();
+        if (c instanceof ElementList) {
+            ElementList other = (ElementList) c;
+            if (other.size == 0) {
+                return false;
+            }
+            if (other.kind == this.kind) {
+                this.ensureCapacity(this.size + other.size);
+                System.arraycopy(other.array(), 0, this.array(), this.size, other.size);
+                this.size += other.size;
+                this.modCount++;
+                return true;
+            }
+        }
+        this.ensureCapacity(this.size + c.size());
+        return super.addAll(c);
+    }
+
+    @Override
+    public Object remove(int index) {
+        this.checkNotFrozen();
+        Object old = this.get(index);
+        int moved = this.size - index - 1;
+        if (moved > 0) {
+            Object array = this.array();
+            System.arraycopy(array, index + 1, array, index, moved);
+        }
+        this.size--;
+        if (this.kind == OBJECTS) {
+            this.objects[this.size] = null;
+        }
+        this.modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.checkNotFrozen();
+        if (this.kind == OBJECTS) {
+            for (int i = 0; i < this.size; i++) {
+                this.objects[i] = null;
+            }
+        }
+        this.size = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Make room for a number of elements.
+     *
+     * @param capacity The number of elements.
+     */
+    void ensureCapacity(int capacity) {
+        this.checkNotFrozen();
+        int length = this.capacity();
+        if (capacity <= length) {
+            return;
+        }
+        int newLength = length == 0 ? Math.max(capacity, this.initialCapacity) : length + (length >> 1);
+        if (newLength < capacity) {
+            newLength = capacity;
+        }
+        switch (this.kind) {
+        case INTS:
+            this.ints = Arrays.copyOf(this.ints, newLength);
+            break;
+        case LONGS:
+            this.longs = Arrays.copyOf(this.longs, newLength);
+            break;
+        case DOUBLES:
+            this.doubles = Arrays.copyOf(this.doubles, newLength);
+            break;
+        case OBJECTS:
+            this.objects = Arrays.copyOf(this.objects, newLength);
+            break;
+        default:
+            // the kind is chosen by the first element
+            this.initialCapacity = Math.max(this.initialCapacity, capacity);
+            break;
+        }
+    }
+
+    /**
+     * Store a value of the kind of the list at an index.
+     *
+     * @param index The index, which must be in the list.
+     * @param value The value.
+     */
+    private void store(int index, Object value) {
+        switch (this.kind) {
+        case INTS:
+            this.ints[index] = ((Integer) value).intValue();
+            break;
+        case LONGS:
+            this.longs[index] = ((Long) value).longValue();
+            break;
+        case DOUBLES:
+            this.doubles[index] = ((Double) value).doubleValue();
+            break;
+        default:
+            this.objects[index] = value;
+            break;
+        }
+    }
+
+    /**
+     * Move the elements of a primitive list to an array of objects.
+     */
+    private void toObjects() {
+        if (this.kind == OBJECTS) {
+            return;
+        }
+        Object[] boxed = new Object[Math.max(this.size + (this.size >> 1), DEFAULT_CAPACITY)];
+        for (int i = 0; i < this.size; i++) {
+            boxed[i] = this.get(i);
+        }
+        this.kind = OBJECTS;
+        this.release();
+        this.objects = boxed;
+    }
+
+    /**
+     * Drop the arrays of the kinds the list is not.
+     */
+    private void release() {
+        if (this.kind != INTS) {
+            this.ints = NO_INTS;
+        }
+        if (this.kind != LONGS) {
+            this.longs = NO_LONGS;
+        }
+        if (this.kind != DOUBLES) {
+            this.doubles = NO_DOUBLES;
+        }
+        if (this.kind != OBJECTS) {
+            this.objects = NO_OBJECTS;
+        }
+    }
+
+    /**
+     * Get the length of the array of the kind of the list.
+     *
+     * @return The number of elements the list can hold without growing.
+     */
+    private int capacity() {
+        switch (this.kind) {
+        case INTS:
+            return this.ints.length;
+        case LONGS:
+            return this.longs.length;
+        case DOUBLES:
+            return this.doubles.length;
+        default:
+            return this.objects.length;
+        }
+    }
+
+    /**
+     * Get the array of the kind of the list.
+     *
+     * @return The array the elements are kept in.
+     */
+    private Object array() {
+        switch (this.kind) {
+        case INTS:
+            return this.ints;
+        case LONGS:
+            return this.longs;
+        case DOUBLES:
+            return this.doubles;
+        default:
+            return this.objects;
+        }
+    }
+
+    /**
+     * Check that the list can be changed.
+     *
+     * @throws UnsupportedOperationException If the list is frozen.
+     */
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException("JSONArray is frozen.");
+        }
+    }
+
+    /**
+     * Check that an index is in a range.
+     *
+     * @param index The index.
+     * @param limit The first index past the range.
+     * @throws IndexOutOfBoundsException If the index is not in the range.
+     */
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+}
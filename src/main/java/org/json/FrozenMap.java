@@ -0,0 +1,200 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The immutable map of a frozen {@link JSONObject}. The keys and values are
+ * kept in two arrays of exactly the right length. A map of more than a few
+ * keys also has a table of the positions of the keys, found by their hash
+ * codes. Every method that would change the map throws an
+ * UnsupportedOperationException.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class FrozenMap extends AbstractMap<String, Object> {
+
+    /** Maps with more keys than this find them with the table. */
+    private static final int MAX_SCANNED_KEYS = 8;
+
+    /** The keys. */
+    private final String[] keys;
+
+    /** The values, in the order of the keys. */
+    private final Object[] values;
+
+    /**
+     * The positions of the keys plus one, placed by their hash codes, with 0
+     * for an empty place, or null if the keys are scanned.
+     */
+    private final int[] table;
+
+    /** The view of the entries. */
+    private final Set<Entry<String, Object>> entries;
+
+    /**
+     * Construct a FrozenMap. The arrays are kept, not copied.
+     *
+     * @param keys The keys, all different.
+     * @param values The values, in the order of the keys.
+     */
+    FrozenMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        if (keys.length > MAX_SCANNED_KEYS) {
+            int length = Integer.highestOneBit(keys.length) << 2;
+            int[] t = new int[length];
+            for (int i = 0; i < keys.length; i++) {
+                int h = spread(keys[i].hashCode()) & (length - 1);
+                while (t[h] != 0) {
+                    h = (h + 1) & (length - 1);
+                }
+                t[h] = i + 1;
+            }
+            this.table = t;
+        } else {
+            this.table = null;
+        }
+        this.entries = new EntrySet();
+    }
+
+    /**
+     * Mix the bits of a hash code, so that keys that differ in their high
+     * bits find different places in the table.
+     *
+     * @param h The hash code.
+     * @return The mixed hash code.
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the position of a key.
+     *
+     * @param key The key.
+     * @return The position, or -1 if the map does not have the key.
+     */
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        final String[] k = this.keys;
+        final int[] t = this.table;
+        if (t == null) {
+            for (int i = 0; i < k.length; i++) {
+                if (key.equals(k[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int h = spread(key.hashCode()) & (t.length - 1);
+        for (;;) {
+            int i = t[h] - 1;
+            if (i < 0) {
+                return -1;
+            }
+            if (key.equals(k[i])) {
+                return i;
+            }
+            h = (h + 1) & (t.length - 1);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = this.indexOf(key);
+        return i >= 0 ? this.values[i] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        throw frozen();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw frozen();
+    }
+
+    @Override
+    public void clear() {
+        throw frozen();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return this.entries;
+    }
+
+    /**
+     * Make the exception thrown by the methods that would change the map.
+     *
+     * @return An UnsupportedOperationException.
+     */
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("JSONObject is frozen.");
+    }
+
+    /**
+     * The entries of the map.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return FrozenMap.this.keys.length;
+        }
+
+        @Override
+        public void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < FrozenMap.this.keys.length;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = this.next++;
+                    return new SimpleImmutableEntry<String, Object>(FrozenMap.this.keys[i],
+                            FrozenMap.this.values[i]);
+                }
+
+                @Override
+                public void remove() {
+                    throw frozen();
+                }
+            };
+        }
+    }
+}
@@ -15,6 +15,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 /**
@@ -63,16 +67,20 @@ import java.util.Map;
  */
 public class JSONArray implements Iterable<Object> {
 
+    /** Fewest characters of elements given to one task by the parallel parser. */
+    private static final int MIN_PARALLEL_BATCH = 8192;
+
     /**
-     * The arrayList where the JSONArray's properties are kept.
+     * The list where the JSONArray's elements are kept. Arrays of only
+     * Integers, only Longs or only Doubles are kept unboxed.
      */
-    private final ArrayList<Object> myArrayList;
+    private final ElementList myArrayList;
 
     /**
      * Construct an empty JSONArray.
      */
     public JSONArray() {
-        this.myArrayList = new ArrayList<Object>();
+        this.myArrayList = new ElementList();
     }
 
     /**
@@ -88,44 +96,8 @@ public class JSONArray implements Iterable<Object> {
         if (x.nextClean() != '[') {
             throw x.syntaxError("A JSONArray text must start with '['");
         }
-        
-        char nextChar = x.nextClean();
-        if (nextChar == 0) {
-            // array is unclosed. No ']' found, instead EOF
-            throw x.syntaxError("Expected a ',' or ']'");
-        }
-        if (nextChar != ']') {
-            x.back();
-            for (;;) {
-                if (x.nextClean() == ',') {
-                    x.back();
-                    this.myArrayList.add(JSONObject.NULL);
-                } else {
-                    x.back();
-                    this.myArrayList.add(x.nextValue());
-                }
-                switch (x.nextClean()) {
-                case 0:
-                    // array is unclosed. No ']' found, instead EOF
-                    throw x.syntaxError("Expected a ',' or ']'");
-                case ',':
-                    nextChar = x.nextClean();
-                    if (nextChar == 0) {
-                        // array is unclosed. No ']' found, instead EOF
-                        throw x.syntaxError("Expected a ',' or ']'");
-                    }
-                    if (nextChar == ']') {
-                        return;
-                    }
-                    x.back();
-                    break;
-                case ']':
-                    return;
-                default:
-                    throw x.syntaxError("Expected a ',' or ']'");
-                }
-            }
-        }
+        x.back();
+        JSONTreeBuilder.parse(x, this, null);
     }
 
     /**
@@ -142,6 +114,216 @@ public class JSONArray implements Iterable<Object> {
         this(new JSONTokener(source));
     }
 
+    /**
+     * Construct a JSONArray from a source JSON text, using a parser
+     * configuration.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @param configuration
+     *            The parser configuration.
+     * @throws JSONException
+     *             If there is a syntax error.
+     */
+    public JSONArray(String source, JSONParserConfiguration configuration) throws JSONException {
+        this(new JSONTokener(source, configuration));
+    }
+
+    /**
+     * Construct a JSONArray from a source JSON text, parsing its elements on
+     * the threads of an ExecutorService. The result is the same as
+     * {@link #JSONArray(String, JSONParserConfiguration)}, but a large array
+     * is parsed several times faster.
+     * <p>
+     * A quick scan of the source finds where the elements of the array begin
+     * and end, keeping track only of strings and brackets. Runs of elements
+     * are then parsed by tasks of the executor, and put in the array in
+     * order. If the scan finds anything unusual, such as an empty element,
+     * or an element can not be parsed, the whole source is parsed again on
+     * the calling thread, so syntax errors are reported exactly as the
+     * sequential parser reports them.
+     *
+     * @param source
+     *            A string that begins with <code>[</code>&nbsp;<small>(left
+     *            bracket)</small> and ends with <code>]</code>
+     *            &nbsp;<small>(right bracket)</small>.
+     * @param configuration
+     *            The parser configuration.
+     * @param executor
+     *            The executor running the tasks.
+     * @throws JSONException
+     *             If there is a syntax error, or the thread is interrupted.
+     */
+    public JSONArray(CharSequence source, JSONParserConfiguration configuration,
+            ExecutorService executor) throws JSONException {
+        this();
+        List<Object> values = null;
+        int maxLength = configuration.getMaxSourceLength();
+        int[] bounds = maxLength > 0 && source.length() > maxLength ? null : elementBounds(source);
+        if (bounds != null) {
+            values = parseElements(source, bounds, configuration, executor);
+        }
+        if (values == null) {
+            values = new JSONArray(new JSONTokener(source, configuration)).myArrayList;
+        }
+        this.myArrayList.addAll(values);
+    }
+
+    /**
+     * Find the elements of the array that a JSON text begins with, without
+     * parsing them.
+     *
+     * @param source The JSON text.
+     * @return The start and end of each element, one after the other, or
+     *  null if the text is not an array of at least one element, or is in a
+     *  form the scan does not follow.
+     */
+    private static int[] elementBounds(CharSequence source) {
+        final int length = source.length();
+        int i = 0;
+        while (i < length && source.charAt(i) <= ' ' && source.charAt(i) != 0) {
+            i++;
+        }
+        if (i >= length || source.charAt(i) != '[') {
+            return null;
+        }
+        int[] bounds = new int[64];
+        int count = 0;
+        int start = ++i;
+        int depth = 0;
+        boolean blank = true;
+        for (; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == 0) {
+                return null;
+            }
+            if (c == '"' || c == '\'') {
+                // a string runs to its unescaped quote.
+                for (i++; i < length && source.charAt(i) != c; i++) {
+                    if (source.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+                blank = false;
+                continue;
+            }
+            if (depth == 0 && (c == ',' || c == ']')) {
+                if (blank) {
+                    return null;
+                }
+                if (count == bounds.length) {
+                    int[] grown = new int[count * 2];
+                    System.arraycopy(bounds, 0, grown, 0, count);
+                    bounds = grown;
+                }
+                bounds[count++] = start;
+                bounds[count++] = i;
+                if (c == ']') {
+                    int[] result = new int[count];
+                    System.arraycopy(bounds, 0, result, 0, count);
+                    return result;
+                }
+                start = i + 1;
+                blank = true;
+                continue;
+            }
+            switch (c) {
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+            case ']':
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+                break;
+            default:
+                if (c > ' ' && !JSONTokener.isUnquotedDelimiter(c)) {
+                    // unquoted text, in which quotes are not special.
+                    while (i + 1 < length && !JSONTokener.isUnquotedDelimiter(source.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+            }
+            if (c > ' ') {
+                blank = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse the elements of an array on the threads of an executor.
+     *
+     * @param source The JSON text.
+     * @param bounds The start and end of each element.
+     * @param configuration The parser configuration.
+     * @param executor The executor running the tasks.
+     * @return The elements, or null if an element can not be parsed.
+     * @throws JSONException If the thread is interrupted.
+     */
+    private static List<Object> parseElements(final CharSequence source, final int[] bounds,
+            final JSONParserConfiguration configuration, ExecutorService executor)
+            throws JSONException {
+        final int batch = Math.max(MIN_PARALLEL_BATCH,
+                source.length() / (4 * Runtime.getRuntime().availableProcessors()));
+        List<Future<Object[]>> futures = new ArrayList<Future<Object[]>>();
+        for (int first = 0; first < bounds.length;) {
+            final int from = first;
+            int to = from + 2;
+            while (to < bounds.length && bounds[to - 1] - bounds[from] < batch) {
+                to += 2;
+            }
+            final int until = to;
+            futures.add(executor.submit(new Callable<Object[]>() {
+                @Override
+                public Object[] call() {
+                    Object[] values = new Object[(until - from) / 2];
+                    // one tokener, and so one key cache, reads the whole
+                    // batch. The elements are nested in the array.
+                    JSONTokener x = new JSONTokener(source, bounds[from], bounds[from + 1], configuration, 1);
+                    for (int i = from; i < until; i += 2) {
+                        if (i > from) {
+                            x.reset(source, bounds[i], bounds[i + 1]);
+                        }
+                        values[(i - from) / 2] = x.nextValue();
+                        if (x.nextClean() != 0) {
+                            throw x.syntaxError("Expected a ',' or ']'");
+                        }
+                    }
+                    return values;
+                }
+            }));
+            first = until;
+        }
+        List<Object> values = new ArrayList<Object>(bounds.length / 2);
+        try {
+            for (Future<Object[]> future : futures) {
+                Object[] batchValues;
+                try {
+                    batchValues = future.get();
+                } catch (ExecutionException e) {
+                    return null;
+                }
+                for (Object value : batchValues) {
+                    values.add(value);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException(e);
+        } finally {
+            for (Future<Object[]> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return values;
+    }
+
     /**
      * Construct a JSONArray from a Collection.
      *
@@ -150,9 +332,9 @@ public class JSONArray implements Iterable<Object> {
      */
     public JSONArray(Collection<?> collection) {
         if (collection == null) {
-            this.myArrayList = new ArrayList<Object>();
+            this.myArrayList = new ElementList();
         } else {
-            this.myArrayList = new ArrayList<Object>(collection.size());
+            this.myArrayList = new ElementList(collection.size());
             this.addAll(collection, true);
         }
     }
@@ -179,11 +361,11 @@ public class JSONArray implements Iterable<Object> {
      */
     public JSONArray(JSONArray array) {
         if (array == null) {
-            this.myArrayList = new ArrayList<Object>();
+            this.myArrayList = new ElementList();
         } else {
             // shallow copy directly the internal array lists as any wrapping
             // should have been done already in the original JSONArray
-            this.myArrayList = new ArrayList<Object>(array.myArrayList);
+            this.myArrayList = new ElementList(array.myArrayList);
         }
     }
 
@@ -221,7 +403,17 @@ public class JSONArray implements Iterable<Object> {
             throw new JSONException(
                     "JSONArray initial capacity cannot be negative.");
     	}
-    	this.myArrayList = new ArrayList<Object>(initialCapacity);
+    	this.myArrayList = new ElementList(initialCapacity);
+    }
+
+    /**
+     * Construct a frozen JSONArray. The list is only reached through the
+     * final field, so that the JSONArray is safely published.
+     *
+     * @param elements The frozen list of the elements.
+     */
+    private JSONArray(ElementList elements) {
+        this.myArrayList = elements;
     }
 
     @Override
@@ -282,6 +474,9 @@ public class JSONArray implements Iterable<Object> {
      *             to a number.
      */
     public double getDouble(int index) throws JSONException {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.doubleAt(index);
+        }
         final Object object = this.get(index);
         if(object instanceof Number) {
             return ((Number)object).doubleValue();
@@ -414,6 +609,9 @@ public class JSONArray implements Iterable<Object> {
      *             If the key is not found or if the value is not a number.
      */
     public int getInt(int index) throws JSONException {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.intAt(index);
+        }
         final Object object = this.get(index);
         if(object instanceof Number) {
             return ((Number)object).intValue();
@@ -472,6 +670,9 @@ public class JSONArray implements Iterable<Object> {
      *             to a number.
      */
     public long getLong(int index) throws JSONException {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.longAt(index);
+        }
         final Object object = this.get(index);
         if(object instanceof Number) {
             return ((Number)object).longValue();
@@ -624,6 +825,9 @@ public class JSONArray implements Iterable<Object> {
      * @return The value.
      */
     public double optDouble(int index, double defaultValue) {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.doubleAt(index);
+        }
         final Number val = this.optNumber(index, null);
         if (val == null) {
             return defaultValue;
@@ -696,6 +900,9 @@ public class JSONArray implements Iterable<Object> {
      * @return The value.
      */
     public int optInt(int index, int defaultValue) {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.intAt(index);
+        }
         final Number val = this.optNumber(index, null);
         if (val == null) {
             return defaultValue;
@@ -839,6 +1046,9 @@ public class JSONArray implements Iterable<Object> {
      * @return The value.
      */
     public long optLong(int index, long defaultValue) {
+        if (this.myArrayList.isPrimitive() && index >= 0 && index < this.myArrayList.size()) {
+            return this.myArrayList.longAt(index);
+        }
         final Number val = this.optNumber(index, null);
         if (val == null) {
             return defaultValue;
@@ -1009,6 +1219,15 @@ public class JSONArray implements Iterable<Object> {
         return this.put(new JSONObject(value));
     }
 
+    /**
+     * Append a value read by a parser, without the checks of put.
+     *
+     * @param value The value.
+     */
+    void add(Object value) {
+        this.myArrayList.add(value);
+    }
+
     /**
      * Append an object value. This increases the array's length by one.
      *
@@ -1578,6 +1797,32 @@ public class JSONArray implements Iterable<Object> {
         return this.myArrayList.isEmpty();
     }
 
+    /**
+     * Make a frozen copy of this JSONArray. A frozen JSONArray, and every
+     * JSONObject and JSONArray in it, can not be changed: the methods that
+     * would change it throw an UnsupportedOperationException. It may be
+     * read by any number of threads at the same time, and can be handed to
+     * other threads in any way, even without synchronization, once it is
+     * made. See {@link JSONObject#freeze()}.
+     *
+     * @return A frozen JSONArray with the same elements.
+     */
+    public JSONArray freeze() {
+        if (this.isFrozen()) {
+            return this;
+        }
+        return new JSONArray(this.myArrayList.frozenCopy());
+    }
+
+    /**
+     * Check if this JSONArray is frozen.
+     *
+     * @return true if the JSONArray was made by {@link #freeze()}.
+     */
+    public boolean isFrozen() {
+        return this.myArrayList.isFrozen();
+    }
+
     /**
      * Add a collection's elements to the JSONArray.
      *
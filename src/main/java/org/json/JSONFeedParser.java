@@ -0,0 +1,385 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * A JSONFeedParser parses JSON text that arrives in pieces, as it does on a
+ * non-blocking channel. Each piece is given to {@link #feed(char[], int, int)}
+ * or {@link #feed(ByteBuffer)} as soon as it is received, and each value of
+ * the text is available from {@link #next()} as soon as its closing brace,
+ * bracket or quote has been fed. Nothing ever waits for more input.
+ * <p>
+ * The text may hold any number of values one after another, separated by
+ * whitespace, like the input of {@link JSONReader}. The parser keeps only
+ * the text of the value that is not complete yet. While it is fed, it
+ * follows strings, escapes and brackets so that it knows where the value
+ * ends; the value is then parsed by a {@link JSONTokener}, with the same
+ * results and syntax errors as parsing it from a String. A number or other
+ * unquoted value at the top level only ends when a delimiter is fed, or at
+ * {@link #close()}.
+ * <pre>
+ * JSONFeedParser parser = new JSONFeedParser();
+ * // on each read from the channel
+ * parser.feed(buffer);
+ * while (parser.hasNext()) {
+ *     handle(parser.next());
+ * }
+ * // at the end of the input
+ * parser.close();
+ * </pre>
+ * <p>
+ * Errors report their position in the value, followed by the position of
+ * the value in the whole text. After an error the parser can not be used.
+ * A JSONFeedParser is not thread-safe.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONFeedParser {
+
+    /** The parser configuration. */
+    private final JSONParserConfiguration configuration;
+
+    /** The values that are complete and not taken yet. */
+    private final LinkedList<Object> values;
+
+    /** The text of the value being read, and characters not scanned yet. */
+    private final StringBuilder pending;
+
+    /** The number of characters removed from the front of pending. */
+    private long consumed;
+
+    /** The position in pending of the value being read, or -1 between values. */
+    private int valueStart;
+
+    /** The number of open braces and brackets. */
+    private int depth;
+
+    /** The quote of the string being read, or 0 outside strings. */
+    private char quote;
+
+    /** true after a backslash in a string. */
+    private boolean escaped;
+
+    /** true inside unquoted text. */
+    private boolean unquoted;
+
+    /** The UTF-8 decoder, made by the first feed of bytes. */
+    private CharsetDecoder decoder;
+
+    /** The bytes of an incomplete UTF-8 sequence at the end of a feed. */
+    private ByteBuffer carry;
+
+    /** The characters decoded from a feed of bytes. */
+    private CharBuffer decoded;
+
+    /** true after close. */
+    private boolean closed;
+
+    /**
+     * Construct a JSONFeedParser.
+     */
+    public JSONFeedParser() {
+        this(JSONParserConfiguration.ORIGINAL);
+    }
+
+    /**
+     * Construct a JSONFeedParser, using a parser configuration. The
+     * maximum source length of the configuration limits the length of each
+     * value, and the maximum nesting depth is checked as the text is fed.
+     *
+     * @param configuration The parser configuration.
+     */
+    public JSONFeedParser(JSONParserConfiguration configuration) {
+        this.configuration = configuration;
+        this.values = new LinkedList<Object>();
+        this.pending = new StringBuilder();
+        this.valueStart = -1;
+    }
+
+    /**
+     * Feed characters of the text.
+     *
+     * @param chars The characters.
+     * @param offset The position of the first character to feed.
+     * @param length The number of characters to feed.
+     * @throws JSONException If a value that is complete has a syntax error,
+     *  or the parser is closed.
+     */
+    public void feed(char[] chars, int offset, int length) throws JSONException {
+        if (this.closed) {
+            throw new JSONException("JSONFeedParser is closed.");
+        }
+        int from = this.pending.length();
+        this.pending.append(chars, offset, length);
+        this.scan(from);
+    }
+
+    /**
+     * Feed characters of the text.
+     *
+     * @param chars The characters.
+     * @throws JSONException If a value that is complete has a syntax error,
+     *  or the parser is closed.
+     */
+    public void feed(CharSequence chars) throws JSONException {
+        if (this.closed) {
+            throw new JSONException("JSONFeedParser is closed.");
+        }
+        int from = this.pending.length();
+        this.pending.append(chars);
+        this.scan(from);
+    }
+
+    /**
+     * Feed bytes of the text, encoded in UTF-8. A character may be split
+     * between feeds. A byte order mark at the start of the text is skipped.
+     * All of the remaining bytes of the buffer are used.
+     *
+     * @param bytes The bytes.
+     * @throws JSONException If a value that is complete has a syntax error,
+     *  or the parser is closed.
+     */
+    public void feed(ByteBuffer bytes) throws JSONException {
+        if (this.closed) {
+            throw new JSONException("JSONFeedParser is closed.");
+        }
+        if (this.decoder == null) {
+            this.decoder = Charset.forName("UTF-8").newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.carry = ByteBuffer.allocate(4);
+        }
+        int from = this.pending.length();
+        if (this.carry.position() > 0) {
+            // Complete the character split by the last feed, one byte at a time.
+            while (this.carry.position() > 0 && bytes.hasRemaining()) {
+                this.carry.put(bytes.get());
+                this.carry.flip();
+                this.decode(this.carry, false);
+                this.carry.compact();
+            }
+        }
+        this.decode(bytes, false);
+        if (bytes.hasRemaining()) {
+            this.carry.put(bytes);
+        }
+        if (this.consumed == 0 && from == 0 && this.pending.length() > 0
+                && this.pending.charAt(0) == '\ufeff') {
+            this.pending.deleteCharAt(0);
+        }
+        this.scan(from);
+    }
+
+    /**
+     * Determine if a complete value is waiting.
+     *
+     * @return true if {@link #next()} can be called.
+     */
+    public boolean hasNext() {
+        return !this.values.isEmpty();
+    }
+
+    /**
+     * Take the next complete value.
+     *
+     * @return A JSONObject, JSONArray, String, Number, Boolean or
+     *  JSONObject.NULL.
+     * @throws NoSuchElementException If no value is complete.
+     */
+    public Object next() {
+        if (this.values.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return this.values.removeFirst();
+    }
+
+    /**
+     * End the text. An unquoted value at the end of the text is completed,
+     * and any other value that is not complete is a syntax error.
+     *
+     * @throws JSONException If the text ends inside a value.
+     */
+    public void close() throws JSONException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.carry != null && this.carry.position() > 0) {
+            int from = this.pending.length();
+            this.carry.flip();
+            this.decode(this.carry, true);
+            this.carry.clear();
+            this.scan(from);
+        }
+        if (this.valueStart >= 0) {
+            this.complete(this.pending.length());
+        }
+    }
+
+    /**
+     * Decode bytes into pending. An incomplete character at the end of the
+     * bytes is left in the buffer unless the input ends.
+     *
+     * @param bytes The bytes.
+     * @param endOfInput true if no more bytes will follow.
+     */
+    private void decode(ByteBuffer bytes, boolean endOfInput) {
+        int capacity = bytes.remaining() + 1;
+        if (this.decoded == null || this.decoded.capacity() < capacity) {
+            this.decoded = CharBuffer.allocate(Math.max(capacity, 1024));
+        }
+        this.decoded.clear();
+        this.decoder.decode(bytes, this.decoded, endOfInput);
+        if (endOfInput) {
+            this.decoder.flush(this.decoded);
+            this.decoder.reset();
+        }
+        this.decoded.flip();
+        this.pending.append(this.decoded);
+    }
+
+    /**
+     * Follow the characters of pending from a position, completing the
+     * values that end, and drop the text of the values that are complete.
+     *
+     * @param from The position of the first character not scanned yet.
+     * @throws JSONException If a complete value has a syntax error, or a
+     *  limit of the configuration is passed.
+     */
+    private void scan(int from) throws JSONException {
+        final StringBuilder text = this.pending;
+        final int maxDepth = this.configuration.getMaxNestingDepth();
+        int i = from;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (this.quote != 0) {
+                if (this.escaped) {
+                    this.escaped = false;
+                } else if (c == '\\') {
+                    this.escaped = true;
+                } else if (c == this.quote) {
+                    this.quote = 0;
+                    if (this.depth == 0) {
+                        i = this.complete(i + 1);
+                        continue;
+                    }
+                } else if (c == '\n' || c == '\r') {
+                    // Unterminated string: let the tokener report it.
+                    i = this.complete(i + 1);
+                    continue;
+                }
+                i++;
+                continue;
+            }
+            if (this.unquoted) {
+                if (!JSONTokener.isUnquotedDelimiter(c)) {
+                    i++;
+                    continue;
+                }
+                this.unquoted = false;
+                if (this.depth == 0) {
+                    i = this.complete(i);
+                    continue;
+                }
+            }
+            if (this.valueStart < 0) {
+                if (c > 0 && c <= ' ') {
+                    i++;
+                    continue;
+                }
+                this.valueStart = i;
+            }
+            switch (c) {
+            case '"':
+            case '\'':
+                this.quote = c;
+                break;
+            case '{':
+            case '[':
+                this.depth++;
+                if (maxDepth > 0 && this.depth > maxDepth) {
+                    throw new JSONException("JSON Array or Object depth exceeds the limit of " + maxDepth
+                            + " at " + (this.consumed + i));
+                }
+                break;
+            case '}':
+            case ']':
+                this.depth--;
+                if (this.depth <= 0) {
+                    this.depth = 0;
+                    i = this.complete(i + 1);
+                    continue;
+                }
+                break;
+            default:
+                if (c > ' ' && !JSONTokener.isUnquotedDelimiter(c)) {
+                    this.unquoted = true;
+                } else if (this.depth == 0) {
+                    // A delimiter can not start a value: let the tokener report it.
+                    i = this.complete(i + 1);
+                    continue;
+                }
+            }
+            i++;
+        }
+        final int maxLength = this.configuration.getMaxSourceLength();
+        if (this.valueStart >= 0) {
+            if (maxLength > 0 && text.length() - this.valueStart > maxLength) {
+                throw new JSONException("JSON text is longer than " + maxLength + " characters at "
+                        + (this.consumed + this.valueStart));
+            }
+            if (this.valueStart > 0) {
+                this.drop(this.valueStart);
+            }
+        } else {
+            this.drop(text.length());
+        }
+    }
+
+    /**
+     * Parse the value that ends at a position of pending, and queue it.
+     *
+     * @param end The position after the last character of the value.
+     * @return end.
+     * @throws JSONException If the value has a syntax error.
+     */
+    private int complete(int end) throws JSONException {
+        final int start = this.valueStart;
+        this.valueStart = -1;
+        this.depth = 0;
+        this.quote = 0;
+        this.escaped = false;
+        this.unquoted = false;
+        try {
+            JSONTokener x = new JSONTokener(CharBuffer.wrap(this.pending, start, end), this.configuration);
+            this.values.add(x.nextValue());
+        } catch (JSONException e) {
+            throw new JSONException(e.getMessage() + " in the value at character " + (this.consumed + start), e);
+        }
+        return end;
+    }
+
+    /**
+     * Remove characters from the front of pending.
+     *
+     * @param count The number of characters to remove.
+     */
+    private void drop(int count) {
+        this.pending.delete(0, count);
+        this.consumed += count;
+        if (this.valueStart >= 0) {
+            this.valueStart -= count;
+        }
+    }
+}
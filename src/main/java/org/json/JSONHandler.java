@@ -0,0 +1,59 @@
+package org.json;
+
+/*
+Public Domain.
+ */
+
+/**
+ * The <code>JSONHandler</code> interface receives the structure of a JSON text
+ * as it is parsed by {@link JSONReader#parse(JSONHandler)}, in the same order
+ * as the text. A handler decides what to keep: {@link JSONTreeBuilder} builds
+ * JSONObjects and JSONArrays, while a handler that counts, filters or
+ * projects values need not build anything for the data it discards.
+ */
+public interface JSONHandler {
+    /**
+     * Called at the start of an object.
+     *
+     * @throws JSONException to stop parsing.
+     */
+    public void startObject() throws JSONException;
+
+    /**
+     * Called at the end of an object.
+     *
+     * @throws JSONException to stop parsing.
+     */
+    public void endObject() throws JSONException;
+
+    /**
+     * Called at the start of an array.
+     *
+     * @throws JSONException to stop parsing.
+     */
+    public void startArray() throws JSONException;
+
+    /**
+     * Called at the end of an array.
+     *
+     * @throws JSONException to stop parsing.
+     */
+    public void endArray() throws JSONException;
+
+    /**
+     * Called for the key of an object member, before its value.
+     *
+     * @param key The key.
+     * @throws JSONException to stop parsing.
+     */
+    public void key(String key) throws JSONException;
+
+    /**
+     * Called for a value that is not an object or array, including the null
+     * elements left out of an array such as <code>[1,,2]</code>.
+     *
+     * @param value A String, Number, Boolean or JSONObject.NULL.
+     * @throws JSONException to stop parsing.
+     */
+    public void primitive(Object value) throws JSONException;
+}
@@ -0,0 +1,74 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JSONMapFactory makes the maps that JSONObjects keep their members in.
+ * The factory of a parse is set with
+ * {@link JSONParserConfiguration#withMapFactory(JSONMapFactory)}, and the
+ * factory of every other JSONObject with
+ * {@link JSONObject#setDefaultMapFactory(JSONMapFactory)}.
+ * <p>
+ * The map only ever holds String keys and non-null values. It must support
+ * <code>Entry.setValue</code> and the <code>remove</code> method of the
+ * iterators of its views.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public interface JSONMapFactory {
+
+    /**
+     * Makes a HashMap. The order of the members is unspecified. This is the
+     * default.
+     */
+    JSONMapFactory HASH_MAP = new JSONMapFactory() {
+        @Override
+        public Map<String, Object> newMap(int expectedSize) {
+            return expectedSize > 0 ? new HashMap<String, Object>(expectedSize) : new HashMap<String, Object>();
+        }
+    };
+
+    /**
+     * Makes a LinkedHashMap, which keeps the members in the order they were
+     * first put, so that a JSONObject is written out in the order it was
+     * read.
+     */
+    JSONMapFactory LINKED_HASH_MAP = new JSONMapFactory() {
+        @Override
+        public Map<String, Object> newMap(int expectedSize) {
+            return expectedSize > 0 ? new LinkedHashMap<String, Object>(expectedSize)
+                    : new LinkedHashMap<String, Object>();
+        }
+    };
+
+    /**
+     * Makes a map that keeps up to 8 members in a single array, and is
+     * searched from one end to the other. It takes a fraction of the memory
+     * of a HashMap, which makes an entry object for every member, and is as
+     * fast for so few keys. When a ninth member is put, the map moves its
+     * members to a LinkedHashMap. The members are kept in the order they
+     * were first put.
+     */
+    JSONMapFactory COMPACT = new JSONMapFactory() {
+        @Override
+        public Map<String, Object> newMap(int expectedSize) {
+            return new CompactMap(expectedSize);
+        }
+    };
+
+    /**
+     * Make an empty map.
+     *
+     * @param expectedSize The number of members the map is expected to hold,
+     *  or 0 if it is not known.
+     * @return A new map.
+     */
+    Map<String, Object> newMap(int expectedSize);
+}
@@ -21,6 +21,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -77,6 +78,16 @@ import java.util.regex.Pattern;
  * if they are not the reserved words <code>true</code>, <code>false</code>,
  * or <code>null</code>.</li>
  * </ul>
+ * <p>
+ * A JSONObject parsed with
+ * {@link JSONParserConfiguration#withLazyValues(boolean)} keeps the text of
+ * its member values, and parses each one when it is first read. The
+ * <code>opt</code> methods take a value that is not valid JSON as no value
+ * and return their default. The <code>get</code> methods, and the methods
+ * that read every member such as <code>toString</code>, <code>similar</code>
+ * and <code>toMap</code>, throw its syntax error. A parsed value replaces its
+ * text in the JSONObject, so reading such a JSONObject changes it, and it
+ * must not be read by several threads at once unless it is frozen first.
  *
  * @author JSON.org
  * @version 2016-08-15
@@ -145,10 +156,42 @@ public class JSONObject {
      */
     private final Map<String, Object> map;
 
+    /**
+     * true if the map may hold values kept as source text by a lazy parse.
+     * Only then does {@link #entrySet()} parse them.
+     */
+    private boolean lazyValues;
+
+    /**
+     * The factory of the maps of JSONObjects that are not made by a parser
+     * configuration with a map factory of its own.
+     */
+    private static volatile JSONMapFactory defaultMapFactory = JSONMapFactory.HASH_MAP;
+
     public Class<? extends Map> getMapType() {
         return map.getClass();
     }
 
+    /**
+     * Get the factory of the maps of new JSONObjects.
+     *
+     * @return The default map factory.
+     */
+    public static JSONMapFactory getDefaultMapFactory() {
+        return defaultMapFactory;
+    }
+
+    /**
+     * Set the factory of the maps of the JSONObjects made from now on, in all
+     * threads. A parse whose {@link JSONParserConfiguration} has a map factory
+     * uses that one instead. The default is {@link JSONMapFactory#HASH_MAP}.
+     *
+     * @param mapFactory The map factory, or null to go back to the default.
+     */
+    public static void setDefaultMapFactory(JSONMapFactory mapFactory) {
+        defaultMapFactory = mapFactory != null ? mapFactory : JSONMapFactory.HASH_MAP;
+    }
+
     /**
      * It is sometimes more convenient and less ambiguous to have a
      * <code>NULL</code> object than to use Java's <code>null</code> value.
@@ -161,13 +204,25 @@ public class JSONObject {
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        // HashMap is used on purpose to ensure that elements are unordered by
-        // the specification.
+        // HashMap is used by default on purpose to ensure that elements are
+        // unordered by the specification.
         // JSON tends to be a portable transfer format to allows the container
         // implementations to rearrange their items for a faster element
         // retrieval based on associative access.
-        // Therefore, an implementation mustn't rely on the order of the item.
-        this.map = new HashMap<String, Object>();
+        // Therefore, an implementation mustn't rely on the order of the item,
+        // unless it chose an ordered map with setDefaultMapFactory.
+        this.map = defaultMapFactory.newMap(0);
+    }
+
+    /**
+     * Construct an empty JSONObject whose members are kept in a map made by
+     * a factory.
+     *
+     * @param mapFactory The factory of the map, or null to use the default
+     *  map factory.
+     */
+    JSONObject(JSONMapFactory mapFactory) {
+        this.map = (mapFactory != null ? mapFactory : defaultMapFactory).newMap(0);
     }
 
     /**
@@ -200,70 +255,123 @@ public class JSONObject {
      *             duplicated key.
      */
     public JSONObject(JSONTokener x) throws JSONException {
-        this();
-        char c;
-        String key;
+        this(x, (Map<String, Object>) null);
+    }
+
+    /**
+     * Construct a JSONObject from a JSONTokener, keeping only the members
+     * with the given names. The values of the other members are skipped
+     * without being built, and are only checked for the errors that would
+     * hide where they end. Duplicates of skipped keys are not detected.
+     *
+     * @param x
+     *            A JSONTokener object containing the source string.
+     * @param names
+     *            The names of the members to keep.
+     * @throws JSONException
+     *             If there is a syntax error in the source string or a
+     *             duplicated key.
+     */
+    public JSONObject(JSONTokener x, Set<String> names) throws JSONException {
+        this(x, projectNames(names));
+    }
+
+    /**
+     * Construct a JSONObject from a JSONTokener, keeping only the values that
+     * the JSON Pointers refer to, along with the objects that contain them.
+     * Everything else is skipped without being built, as in
+     * {@link #JSONObject(JSONTokener, Set)}. The projection only descends
+     * through objects: an array on the path of a pointer is kept whole.
+     * <pre>
+     * // {"id":1,"user":{"name":"x"}}
+     * new JSONObject(x, new JSONPointer("/id"), new JSONPointer("/user/name"));
+     * </pre>
+     *
+     * @param x
+     *            A JSONTokener object containing the source string.
+     * @param pointers
+     *            The JSON Pointers of the values to keep.
+     * @throws JSONException
+     *             If there is a syntax error in the source string or a
+     *             duplicated key.
+     */
+    public JSONObject(JSONTokener x, JSONPointer... pointers) throws JSONException {
+        this(x, projectPointers(pointers));
+    }
 
+    /**
+     * Construct a JSONObject from a JSONTokener, keeping only the members
+     * selected by a projection.
+     *
+     * @param x
+     *            A JSONTokener object containing the source string.
+     * @param projection
+     *            Maps the names of the members to keep to Boolean.TRUE to
+     *            keep the whole value, or to the projection of the value.
+     *            null keeps every member.
+     * @throws JSONException
+     *             If there is a syntax error in the source string or a
+     *             duplicated key.
+     */
+    private JSONObject(JSONTokener x, Map<String, Object> projection) throws JSONException {
+        this(x.getParserConfiguration().getMapFactory());
         if (x.nextClean() != '{') {
             throw x.syntaxError("A JSONObject text must begin with '{'");
         }
-        for (;;) {
-            char prev = x.getPrevious();
-            c = x.nextClean();
-            switch (c) {
-            case 0:
-                throw x.syntaxError("A JSONObject text must end with '}'");
-            case '}':
-                return;
-            case '{':
-            case '[':
-                if(prev=='{') {
-                    throw x.syntaxError("A JSON Object can not directly nest another JSON Object or JSON Array.");
-                }
-                // fall through
-            default:
-                x.back();
-                key = x.nextValue().toString();
-            }
-
-            // The key is followed by ':'.
-
-            c = x.nextClean();
-            if (c != ':') {
-                throw x.syntaxError("Expected a ':' after a key");
-            }
+        x.back();
+        JSONTreeBuilder.parse(x, this, projection);
+    }
 
-            // Use syntaxError(..) to include error location
+    /**
+     * Make the projection that keeps the members with the given names.
+     *
+     * @param names
+     *            The names of the members to keep.
+     * @return The projection.
+     */
+    private static Map<String, Object> projectNames(Set<String> names) {
+        Map<String, Object> projection = new HashMap<String, Object>(names.size() * 2);
+        for (String name : names) {
+            projection.put(name, Boolean.TRUE);
+        }
+        return projection;
+    }
 
-            if (key != null) {
-                // Check if key exists
-                if (this.opt(key) != null) {
-                    // key already exists
-                    throw x.syntaxError("Duplicate key \"" + key + "\"");
-                }
-                // Only add value if non-null
-                Object value = x.nextValue();
-                if (value!=null) {
-                    this.put(key, value);
-                }
+    /**
+     * Make the projection that keeps the values the JSON Pointers refer to.
+     *
+     * @param pointers
+     *            The JSON Pointers.
+     * @return The projection, or null if a pointer refers to the whole
+     *         document.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> projectPointers(JSONPointer... pointers) {
+        Map<String, Object> projection = new HashMap<String, Object>();
+        for (JSONPointer pointer : pointers) {
+            List<String> tokens = pointer.getRefTokens();
+            if (tokens.isEmpty()) {
+                return null;
             }
-
-            // Pairs are separated by ','.
-
-            switch (x.nextClean()) {
-            case ';':
-            case ',':
-                if (x.nextClean() == '}') {
-                    return;
+            Map<String, Object> node = projection;
+            for (int i = 0; i < tokens.size(); i += 1) {
+                String token = tokens.get(i);
+                Object child = node.get(token);
+                if (i == tokens.size() - 1) {
+                    node.put(token, Boolean.TRUE);
+                } else if (child == Boolean.TRUE) {
+                    // an enclosing value is already kept whole
+                    break;
+                } else {
+                    if (child == null) {
+                        child = new HashMap<String, Object>();
+                        node.put(token, child);
+                    }
+                    node = (Map<String, Object>) child;
                 }
-                x.back();
-                break;
-            case '}':
-                return;
-            default:
-                throw x.syntaxError("Expected a ',' or '}'");
             }
         }
+        return projection;
     }
 
     /**
@@ -279,9 +387,9 @@ public class JSONObject {
      */
     public JSONObject(Map<?, ?> m) {
         if (m == null) {
-            this.map = new HashMap<String, Object>();
+            this.map = defaultMapFactory.newMap(0);
         } else {
-            this.map = new HashMap<String, Object>(m.size());
+            this.map = defaultMapFactory.newMap(m.size());
         	for (final Entry<?, ?> e : m.entrySet()) {
         	    if(e.getKey() == null) {
         	        throw new NullPointerException("Null key.");
@@ -404,6 +512,24 @@ public class JSONObject {
         this(new JSONTokener(source));
     }
 
+    /**
+     * Construct a JSONObject from a source JSON text string, using a parser
+     * configuration.
+     *
+     * @param source
+     *            A string beginning with <code>{</code>&nbsp;<small>(left
+     *            brace)</small> and ending with <code>}</code>
+     *            &nbsp;<small>(right brace)</small>.
+     * @param configuration
+     *            The parser configuration.
+     * @exception JSONException
+     *                If there is a syntax error in the source string or a
+     *                duplicated key.
+     */
+    public JSONObject(String source, JSONParserConfiguration configuration) throws JSONException {
+        this(new JSONTokener(source, configuration));
+    }
+
     /**
      * Construct a JSONObject from a ResourceBundle.
      *
@@ -455,7 +581,26 @@ public class JSONObject {
      * @param initialCapacity initial capacity of the internal map.
      */
     protected JSONObject(int initialCapacity){
-        this.map = new HashMap<String, Object>(initialCapacity);
+        this.map = defaultMapFactory.newMap(initialCapacity);
+    }
+
+    /**
+     * Construct a frozen JSONObject. The map is only reached through the
+     * final field, so that the JSONObject is safely published.
+     *
+     * @param map The frozen map of the members.
+     */
+    private JSONObject(FrozenMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Construct a persistent JSONObject.
+     *
+     * @param map The persistent map of the members.
+     */
+    private JSONObject(PersistentMap map) {
+        this.map = map;
     }
 
     /**
@@ -560,12 +705,16 @@ public class JSONObject {
      * @return The object associated with the key.
      * @throws JSONException
      *             if the key is not found.
+     *             Also thrown if the value was kept as source text by {@link
+     *             JSONParserConfiguration#withLazyValues(boolean)}, and is not
+     *             valid JSON. The position of the error is counted from the
+     *             start of the source.
      */
     public Object get(String key) throws JSONException {
         if (key == null) {
             throw new JSONException("Null key.");
         }
-        Object object = this.opt(key);
+        Object object = this.value(key);
         if (object == null) {
             throw new JSONException("JSONObject[" + quote(key) + "] not found.");
         }
@@ -606,6 +755,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the value is not a Boolean or the String "true" or
      *             "false".
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public boolean getBoolean(String key) throws JSONException {
         Object object = this.get(key);
@@ -630,6 +781,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value cannot
      *             be converted to BigInteger.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public BigInteger getBigInteger(String key) throws JSONException {
         Object object = this.get(key);
@@ -652,6 +805,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value
      *             cannot be converted to BigDecimal.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public BigDecimal getBigDecimal(String key) throws JSONException {
         Object object = this.get(key);
@@ -671,6 +826,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value is not a Number
      *             object and cannot be converted to a number.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public double getDouble(String key) throws JSONException {
         final Object object = this.get(key);
@@ -693,6 +850,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value is not a Number
      *             object and cannot be converted to a number.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public float getFloat(String key) throws JSONException {
         final Object object = this.get(key);
@@ -715,6 +874,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value is not a Number
      *             object and cannot be converted to a number.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public Number getNumber(String key) throws JSONException {
         Object object = this.get(key);
@@ -737,6 +898,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value cannot be converted
      *             to an integer.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public int getInt(String key) throws JSONException {
         final Object object = this.get(key);
@@ -758,6 +921,8 @@ public class JSONObject {
      * @return A JSONArray which is the value.
      * @throws JSONException
      *             if the key is not found or if the value is not a JSONArray.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public JSONArray getJSONArray(String key) throws JSONException {
         Object object = this.get(key);
@@ -775,6 +940,8 @@ public class JSONObject {
      * @return A JSONObject which is the value.
      * @throws JSONException
      *             if the key is not found or if the value is not a JSONObject.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public JSONObject getJSONObject(String key) throws JSONException {
         Object object = this.get(key);
@@ -793,6 +960,8 @@ public class JSONObject {
      * @throws JSONException
      *             if the key is not found or if the value cannot be converted
      *             to a long.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public long getLong(String key) throws JSONException {
         final Object object = this.get(key);
@@ -852,6 +1021,8 @@ public class JSONObject {
      * @return A string which is the value.
      * @throws JSONException
      *             if there is no string value for the key.
+     *             Also thrown if the value is a lazy value that is not valid
+     *             JSON. See {@link #get(String)}.
      */
     public String getString(String key) throws JSONException {
         Object object = this.get(key);
@@ -889,6 +1060,9 @@ public class JSONObject {
      */
     public JSONObject increment(String key) throws JSONException {
         Object value = this.opt(key);
+        if (value instanceof LazyNumber) {
+            value = ((LazyNumber) value).value();
+        }
         if (value == null) {
             this.put(key, 1);
         } else if (value instanceof Integer) {
@@ -959,6 +1133,14 @@ public class JSONObject {
      * @return An Entry Set
      */
     protected Set<Entry<String, Object>> entrySet() {
+        if (this.lazyValues) {
+            for (Entry<String, Object> entry : this.map.entrySet()) {
+                if (entry.getValue() instanceof LazyValue) {
+                    entry.setValue(((LazyValue) entry.getValue()).parse());
+                }
+            }
+            this.lazyValues = false;
+        }
         return this.map.entrySet();
     }
 
@@ -988,6 +1170,148 @@ public class JSONObject {
         return this.map.isEmpty();
     }
 
+    /**
+     * Make a frozen copy of this JSONObject. A frozen JSONObject, and every
+     * JSONObject and JSONArray in it, can not be changed: the methods that
+     * would change it throw an UnsupportedOperationException. It may be
+     * read by any number of threads at the same time, and can be handed to
+     * other threads in any way, even without synchronization, once it is
+     * made.
+     * <p>
+     * The members are copied once, into arrays of exactly the right size,
+     * and values that were kept as text by a lazy parse are parsed. Strings,
+     * numbers, booleans and JSONObject.NULL are shared with this JSONObject.
+     * Other values, such as beans that were put in it, are shared too, and
+     * should not be changed. Freezing a frozen JSONObject returns it.
+     *
+     * @return A frozen JSONObject with the same members.
+     */
+    public JSONObject freeze() {
+        if (this.isFrozen()) {
+            return this;
+        }
+        final String[] keys = new String[this.map.size()];
+        final Object[] values = new Object[keys.length];
+        int i = 0;
+        for (Entry<String, Object> entry : this.map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = freezeValue(entry.getValue());
+            i++;
+        }
+        return new JSONObject(new FrozenMap(keys, values));
+    }
+
+    /**
+     * Check if this JSONObject is frozen.
+     *
+     * @return true if the JSONObject was made by {@link #freeze()}.
+     */
+    public boolean isFrozen() {
+        return this.map instanceof FrozenMap;
+    }
+
+    /**
+     * Make a persistent copy of this JSONObject. A persistent JSONObject can
+     * not be changed in place: {@link #with(String, Object)} and
+     * {@link #without(String)} return a new JSONObject instead, which shares
+     * all but a few of its internal nodes with the old one, so that each
+     * takes time and memory in proportion to the logarithm of the number of
+     * members rather than to the number of members. The other methods that
+     * would change it throw an UnsupportedOperationException.
+     * <p>
+     * Only the members of this JSONObject are copied; its values, including
+     * JSONObjects and JSONArrays, are shared. Values that were kept as text
+     * by a lazy parse are parsed. The order of the members is unspecified.
+     *
+     * @return A persistent JSONObject with the same members, or this
+     *  JSONObject if it is persistent.
+     */
+    public JSONObject toPersistent() {
+        if (this.isPersistent()) {
+            return this;
+        }
+        return new JSONObject(PersistentMap.of(this.map));
+    }
+
+    /**
+     * Check if this JSONObject is persistent.
+     *
+     * @return true if the JSONObject was made by {@link #toPersistent()},
+     *  {@link #with(String, Object)} or {@link #without(String)}.
+     */
+    public boolean isPersistent() {
+        return this.map instanceof PersistentMap;
+    }
+
+    /**
+     * Make a persistent JSONObject with the members of this one, and a key
+     * set to a value. This JSONObject is not changed. See
+     * {@link #toPersistent()}.
+     * <pre>
+     * JSONObject base = new JSONObject(text).toPersistent();
+     * JSONObject request = base.with("id", id).with("user", user);
+     * </pre>
+     *
+     * @param key
+     *            A key string.
+     * @param value
+     *            An object which is the value. It should be of one of these
+     *            types: Boolean, Double, Integer, JSONArray, JSONObject, Long,
+     *            String, or the JSONObject.NULL object. null leaves the key
+     *            out, as {@link #without(String)} does.
+     * @return A persistent JSONObject, which is this one if it is persistent
+     *  and the key already has the value.
+     * @throws JSONException
+     *            If the value is non-finite number.
+     * @throws NullPointerException
+     *            If the key is <code>null</code>.
+     */
+    public JSONObject with(String key, Object value) throws JSONException {
+        if (key == null) {
+            throw new NullPointerException("Null key.");
+        }
+        if (value == null) {
+            return this.without(key);
+        }
+        testValidity(value);
+        final PersistentMap persistent = (PersistentMap) this.toPersistent().map;
+        final PersistentMap changed = persistent.with(key, value);
+        return changed == this.map ? this : new JSONObject(changed);
+    }
+
+    /**
+     * Make a persistent JSONObject with the members of this one except a
+     * key. This JSONObject is not changed. See {@link #toPersistent()}.
+     *
+     * @param key
+     *            The name to be left out.
+     * @return A persistent JSONObject, which is this one if it is persistent
+     *  and does not have the key.
+     */
+    public JSONObject without(String key) {
+        final PersistentMap persistent = (PersistentMap) this.toPersistent().map;
+        final PersistentMap changed = key == null ? persistent : persistent.without(key);
+        return changed == this.map ? this : new JSONObject(changed);
+    }
+
+    /**
+     * Freeze a value of a JSONObject or JSONArray being frozen.
+     *
+     * @param value The value.
+     * @return A frozen copy of a JSONObject or JSONArray, the parsed value of
+     *  a value kept as text, or the value itself.
+     */
+    static Object freezeValue(Object value) {
+        Object v = value instanceof LazyValue ? ((LazyValue) value).parse() : value;
+        if (v instanceof JSONObject) {
+            return ((JSONObject) v).freeze();
+        }
+        if (v instanceof JSONArray) {
+            return ((JSONArray) v).freeze();
+        }
+        return v;
+    }
+
     /**
      * Produce a JSONArray containing the names of the elements of this
      * JSONObject.
@@ -1038,9 +1362,52 @@ public class JSONObject {
      * @param key
      *            A key string.
      * @return An object which is the value, or null if there is no value.
+     *         A value kept as source text by {@link
+     *         JSONParserConfiguration#withLazyValues(boolean)} that is not
+     *         valid JSON is taken as no value; {@link #get(String)} throws
+     *         its syntax error.
      */
     public Object opt(String key) {
-        return key == null ? null : this.map.get(key);
+        if (key == null) {
+            return null;
+        }
+        try {
+            return this.value(key);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the value associated with a key. A value kept as source text is
+     * parsed, and replaces the text in the map.
+     *
+     * @param key
+     *            A key string.
+     * @return The value, or null if there is no value.
+     * @throws JSONException
+     *             If the value is kept as source text that is not valid JSON.
+     */
+    private Object value(String key) throws JSONException {
+        Object value = this.map.get(key);
+        if (value instanceof LazyValue) {
+            value = ((LazyValue) value).parse();
+            this.map.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Put a value kept as source text by a lazy parse.
+     *
+     * @param key
+     *            A key string.
+     * @param value
+     *            The LazyValue.
+     */
+    void putLazy(String key, LazyValue value) {
+        this.map.put(key, value);
+        this.lazyValues = true;
     }
 
     /**
@@ -1172,6 +1539,9 @@ public class JSONObject {
         if (NULL.equals(val)) {
             return defaultValue;
         }
+        if (val instanceof LazyNumber) {
+            val = ((LazyNumber) val).value();
+        }
         if (val instanceof BigDecimal){
             return (BigDecimal) val;
         }
@@ -1228,6 +1598,9 @@ public class JSONObject {
         if (NULL.equals(val)) {
             return defaultValue;
         }
+        if (val instanceof LazyNumber) {
+            val = ((LazyNumber) val).value();
+        }
         if (val instanceof BigInteger){
             return (BigInteger) val;
         }
@@ -2082,9 +2455,13 @@ public class JSONObject {
      *            The name to be removed.
      * @return The value that was associated with the name, or null if there was
      *         no value.
+     * @throws JSONException
+     *             If the value is a lazy value that is not valid JSON.
+     *             See {@link #get(String)}.
      */
     public Object remove(String key) {
-        return this.map.remove(key);
+        Object value = this.map.remove(key);
+        return value instanceof LazyValue ? ((LazyValue) value).parse() : value;
     }
 
     /**
@@ -2195,8 +2572,7 @@ public class JSONObject {
      * @return true if the string is "-0" or if it contains '.', 'e', or 'E', false otherwise.
      */
     protected static boolean isDecimalNotation(final String val) {
-        return val.indexOf('.') > -1 || val.indexOf('e') > -1
-                || val.indexOf('E') > -1 || "-0".equals(val);
+        return NumberConversionUtil.isDecimalNotation(val);
     }
 
     /**
@@ -2210,63 +2586,7 @@ public class JSONObject {
      *      caller should catch this and wrap it in a {@link JSONException} if applicable.
      */
     protected static Number stringToNumber(final String val) throws NumberFormatException {
-        char initial = val.charAt(0);
-        if ((initial >= '0' && initial <= '9') || initial == '-') {
-            // decimal representation
-            if (isDecimalNotation(val)) {
-                // Use a BigDecimal all the time so we keep the original
-                // representation. BigDecimal doesn't support -0.0, ensure we
-                // keep that by forcing a decimal.
-                try {
-                    BigDecimal bd = new BigDecimal(val);
-                    if(initial == '-' && BigDecimal.ZERO.compareTo(bd)==0) {
-                        return Double.valueOf(-0.0);
-                    }
-                    return bd;
-                } catch (NumberFormatException retryAsDouble) {
-                    // this is to support "Hex Floats" like this: 0x1.0P-1074
-                    try {
-                        Double d = Double.valueOf(val);
-                        if(d.isNaN() || d.isInfinite()) {
-                            throw new NumberFormatException("val ["+val+"] is not a valid number.");
-                        }
-                        return d;
-                    } catch (NumberFormatException ignore) {
-                        throw new NumberFormatException("val ["+val+"] is not a valid number.");
-                    }
-                }
-            }
-            // block items like 00 01 etc. Java number parsers treat these as Octal.
-            if(initial == '0' && val.length() > 1) {
-                char at1 = val.charAt(1);
-                if(at1 >= '0' && at1 <= '9') {
-                    throw new NumberFormatException("val ["+val+"] is not a valid number.");
-                }
-            } else if (initial == '-' && val.length() > 2) {
-                char at1 = val.charAt(1);
-                char at2 = val.charAt(2);
-                if(at1 == '0' && at2 >= '0' && at2 <= '9') {
-                    throw new NumberFormatException("val ["+val+"] is not a valid number.");
-                }
-            }
-            // integer representation.
-            // This will narrow any values to the smallest reasonable Object representation
-            // (Integer, Long, or BigInteger)
-
-            // BigInteger down conversion: We use a similar bitLength compare as
-            // BigInteger#intValueExact uses. Increases GC, but objects hold
-            // only what they need. i.e. Less runtime overhead if the value is
-            // long lived.
-            BigInteger bi = new BigInteger(val);
-            if(bi.bitLength() <= 31){
-                return Integer.valueOf(bi.intValue());
-            }
-            if(bi.bitLength() <= 63){
-                return Long.valueOf(bi.longValue());
-            }
-            return bi;
-        }
-        throw new NumberFormatException("val ["+val+"] is not a valid number.");
+        return NumberConversionUtil.stringToNumber(val, false);
     }
 
     /**
@@ -2279,37 +2599,8 @@ public class JSONObject {
      * @throws NullPointerException
      *             Thrown if the string is null.
      */
-    // Changes to this method must be copied to the corresponding method in
-    // the XML class to keep full support for Android
     public static Object stringToValue(String string) {
-        if ("".equals(string)) {
-            return string;
-        }
-
-        // check JSON key words true/false/null
-        if ("true".equalsIgnoreCase(string)) {
-            return Boolean.TRUE;
-        }
-        if ("false".equalsIgnoreCase(string)) {
-            return Boolean.FALSE;
-        }
-        if ("null".equalsIgnoreCase(string)) {
-            return JSONObject.NULL;
-        }
-
-        /*
-         * If it might be a number, try converting it. If a number cannot be
-         * produced, then the value will just be a string.
-         */
-
-        char initial = string.charAt(0);
-        if ((initial >= '0' && initial <= '9') || initial == '-') {
-            try {
-                return stringToNumber(string);
-            } catch (Exception ignore) {
-            }
-        }
-        return string;
+        return NumberConversionUtil.stringToValue(string, false);
     }
 
     /**
@@ -2464,7 +2755,8 @@ public class JSONObject {
                     || object instanceof Long || object instanceof Boolean
                     || object instanceof Float || object instanceof Double
                     || object instanceof String || object instanceof BigInteger
-                    || object instanceof BigDecimal || object instanceof Enum) {
+                    || object instanceof BigDecimal || object instanceof LazyNumber
+                    || object instanceof Enum) {
                 return object;
             }
 
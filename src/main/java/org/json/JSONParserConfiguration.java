@@ -0,0 +1,422 @@
+package org.json;
+/*
+Public Domain.
+*/
+
+/**
+ * Configuration object for the JSON parser. The configuration is immutable.
+ * It is given to a {@link JSONTokener}, and applies to the JSONObjects and
+ * JSONArrays parsed from it.
+ */
+public class JSONParserConfiguration {
+    /** Original configuration of the JSON parser. */
+    public static final JSONParserConfiguration ORIGINAL
+        = new JSONParserConfiguration();
+
+    /** The default maximum nesting depth of objects and arrays. */
+    public static final int DEFAULT_MAXIMUM_NESTING_DEPTH = 512;
+
+    /**
+     * When parsing, specifies if numbers should be kept as their text until
+     * they are used (<code>true</code>), or converted to Integer, Long,
+     * BigInteger, BigDecimal or Double as they are read (<code>false</code>).
+     */
+    private boolean lazyNumbers;
+
+    /**
+     * When parsing, specifies if decimal numbers should be converted to
+     * Double (<code>true</code>), or to BigDecimal (<code>false</code>).
+     */
+    private boolean decimalsAsDouble;
+
+    /**
+     * When parsing, the most object keys kept so that repeated keys share one
+     * String instance, or 0 to make a new String for every key.
+     */
+    private int keyCacheSize;
+
+    /**
+     * When parsing, specifies if the values of object members should be kept
+     * as their source text until they are used (<code>true</code>), or parsed
+     * as they are read (<code>false</code>).
+     */
+    private boolean lazyValues;
+
+    /**
+     * When parsing, the most objects and arrays that may be nested in each
+     * other, or 0 for no limit.
+     */
+    private int maxNestingDepth;
+
+    /**
+     * When parsing, the most characters that may be read from the source, or
+     * 0 for no limit.
+     */
+    private int maxSourceLength;
+
+    /**
+     * When parsing, the most characters in a quoted string or key, or 0 for no limit.
+     */
+    private int maxStringLength;
+
+    /**
+     * When parsing, the most characters in a number or other unquoted value, or 0
+     * for no limit.
+     */
+    private int maxNumberLength;
+
+    /**
+     * When parsing, the most keys in one JSONObject, or 0 for no limit.
+     */
+    private int maxObjectKeys;
+
+    /**
+     * When parsing, the factory of the maps of the JSONObjects, or null to
+     * use {@link JSONObject#getDefaultMapFactory()}.
+     */
+    private JSONMapFactory mapFactory;
+
+    /**
+     * Default parser configuration. Numbers are converted as they are read.
+     */
+    public JSONParserConfiguration() {
+        this.lazyNumbers = false;
+        this.decimalsAsDouble = false;
+        this.keyCacheSize = 0;
+        this.lazyValues = false;
+        this.maxNestingDepth = DEFAULT_MAXIMUM_NESTING_DEPTH;
+        this.maxSourceLength = 0;
+        this.maxStringLength = 0;
+        this.maxNumberLength = 0;
+        this.maxObjectKeys = 0;
+        this.mapFactory = null;
+    }
+
+    /**
+     * Provides a new instance of the same configuration.
+     */
+    @Override
+    protected JSONParserConfiguration clone() {
+        JSONParserConfiguration newConfig = new JSONParserConfiguration();
+        newConfig.lazyNumbers = this.lazyNumbers;
+        newConfig.decimalsAsDouble = this.decimalsAsDouble;
+        newConfig.keyCacheSize = this.keyCacheSize;
+        newConfig.lazyValues = this.lazyValues;
+        newConfig.maxNestingDepth = this.maxNestingDepth;
+        newConfig.maxSourceLength = this.maxSourceLength;
+        newConfig.maxStringLength = this.maxStringLength;
+        newConfig.maxNumberLength = this.maxNumberLength;
+        newConfig.maxObjectKeys = this.maxObjectKeys;
+        newConfig.mapFactory = this.mapFactory;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, specifies if numbers should be kept as their text until
+     * they are used (<code>true</code>), or converted to Integer, Long,
+     * BigInteger, BigDecimal or Double as they are read (<code>false</code>).
+     *
+     * @return The <code>lazyNumbers</code> configuration value.
+     */
+    public boolean isLazyNumbers() {
+        return this.lazyNumbers;
+    }
+
+    /**
+     * When parsing, specifies if numbers should be kept as their text until
+     * they are used (<code>true</code>), or converted to Integer, Long,
+     * BigInteger, BigDecimal or Double as they are read (<code>false</code>).
+     * <p>
+     * A lazy number is a <code>Number</code> that is not one of the usual
+     * classes. <code>intValue()</code>, <code>longValue()</code> and
+     * <code>doubleValue()</code> read it straight from its text, and the
+     * JSONObject and JSONArray getters, <code>similar</code> and the
+     * serializers treat it like the number it stands for. Code that tests
+     * values with <code>instanceof Integer</code> and the like should keep
+     * this option off.
+     *
+     * @param newVal
+     *      new value to use for the <code>lazyNumbers</code> configuration option.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withLazyNumbers(final boolean newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.lazyNumbers = newVal;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, specifies if decimal numbers should be converted to
+     * Double (<code>true</code>), or to BigDecimal (<code>false</code>).
+     *
+     * @return The <code>decimalsAsDouble</code> configuration value.
+     */
+    public boolean isDecimalsAsDouble() {
+        return this.decimalsAsDouble;
+    }
+
+    /**
+     * When parsing, specifies if decimal numbers should be converted to
+     * Double (<code>true</code>), or to BigDecimal (<code>false</code>).
+     * A Double is faster to make and smaller, but can not hold every decimal
+     * exactly. Decimals out of the range of a double are still converted to
+     * BigDecimal.
+     *
+     * @param newVal
+     *      new value to use for the <code>decimalsAsDouble</code> configuration option.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withDecimalsAsDouble(final boolean newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.decimalsAsDouble = newVal;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most object keys kept so that repeated keys share one
+     * String instance, or 0 to make a new String for every key.
+     *
+     * @return The <code>keyCacheSize</code> configuration value.
+     */
+    public int getKeyCacheSize() {
+        return this.keyCacheSize;
+    }
+
+    /**
+     * When parsing, the most object keys kept so that repeated keys share one
+     * String instance, or 0 to make a new String for every key.
+     * <p>
+     * Each {@link JSONTokener} has its own cache. A key found in the cache is
+     * not copied out of the input at all, which saves memory and garbage
+     * when many objects have the same keys, such as the records of a large
+     * array. Keys that collide in the cache replace each other, so a size a
+     * few times the number of distinct keys works best.
+     *
+     * @param newVal
+     *      new value to use for the <code>keyCacheSize</code> configuration option.
+     *      A value of 0 or less turns the cache off.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withKeyCacheSize(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.keyCacheSize = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, specifies if the values of object members should be kept
+     * as their source text until they are used (<code>true</code>), or parsed
+     * as they are read (<code>false</code>).
+     *
+     * @return The <code>lazyValues</code> configuration value.
+     */
+    public boolean isLazyValues() {
+        return this.lazyValues;
+    }
+
+    /**
+     * When parsing, specifies if the values of object members should be kept
+     * as their source text until they are used (<code>true</code>), or parsed
+     * as they are read (<code>false</code>).
+     * <p>
+     * A lazy JSONObject only finds where each of its values ends. A value is
+     * parsed the first time it is read with <code>get</code>,
+     * <code>opt</code> or <code>remove</code>, and all of them are parsed
+     * when the object is written, compared or iterated. An object value is
+     * itself lazy. Code that reads a few members of a large text saves the
+     * time and memory of parsing the rest. Only the errors that hide where a
+     * value ends are found while parsing; other syntax errors in a value,
+     * including duplicate keys, are thrown when the value is read by a
+     * <code>get</code> method, and give their position in the whole source
+     * text. The <code>opt</code> methods return their default for such a
+     * value instead. The JSONObject keeps the source text until all of its
+     * values are read.
+     * <p>
+     * This option only applies to a JSONTokener reading a String. A lazy
+     * JSONObject must not be read by more than one thread at a time.
+     *
+     * @param newVal
+     *      new value to use for the <code>lazyValues</code> configuration option.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withLazyValues(final boolean newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.lazyValues = newVal;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most objects and arrays that may be nested in each
+     * other, or 0 for no limit.
+     *
+     * @return The <code>maxNestingDepth</code> configuration value.
+     */
+    public int getMaxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * When parsing, the most objects and arrays that may be nested in each
+     * other. A text nested more deeply is rejected with a JSONException as
+     * soon as the limit is passed. The default is
+     * {@link #DEFAULT_MAXIMUM_NESTING_DEPTH}.
+     * <p>
+     * Nested objects and arrays are parsed without recursion, so any depth
+     * can be parsed on a small thread stack; the limit only bounds the
+     * memory and time spent on a hostile text. The non-standard object or
+     * array used as a key is the exception: it is parsed by recursion, and
+     * one nested too deeply for the stack is rejected with a JSONException.
+     * Writing a JSONObject or JSONArray is still recursive.
+     *
+     * @param newVal
+     *      new value to use for the <code>maxNestingDepth</code> configuration
+     *      option. 0 or less removes the limit.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMaxNestingDepth(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.maxNestingDepth = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most characters that may be read from the source, or
+     * 0 for no limit.
+     *
+     * @return The <code>maxSourceLength</code> configuration value.
+     */
+    public int getMaxSourceLength() {
+        return this.maxSourceLength;
+    }
+
+    /**
+     * When parsing, the most characters that may be read from the source. A
+     * longer String or other character sequence is rejected before parsing
+     * starts. A longer Reader or InputStream is rejected as soon as the
+     * characters past the limit are read. The count starts again when a
+     * tokener is reset.
+     *
+     * @param newVal
+     *      new value to use for the <code>maxSourceLength</code> configuration option.
+     *      0 or less removes the limit.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMaxSourceLength(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.maxSourceLength = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most characters in a quoted string or key, or 0 for no limit.
+     *
+     * @return The <code>maxStringLength</code> configuration value.
+     */
+    public int getMaxStringLength() {
+        return this.maxStringLength;
+    }
+
+    /**
+     * When parsing, the most characters in a quoted string or key.
+     * The length is counted after escapes are decoded. A longer string is
+     * rejected while it is being read, before all of it is copied.
+     *
+     * @param newVal
+     *      new value to use for the <code>maxStringLength</code> configuration option.
+     *      0 or less removes the limit.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMaxStringLength(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.maxStringLength = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most characters in a number or other unquoted value, or 0
+     * for no limit.
+     *
+     * @return The <code>maxNumberLength</code> configuration value.
+     */
+    public int getMaxNumberLength() {
+        return this.maxNumberLength;
+    }
+
+    /**
+     * When parsing, the most characters in a number or other unquoted value.
+     * A longer value is rejected while it is being read, before it is
+     * converted, which bounds the time spent converting a very long number.
+     *
+     * @param newVal
+     *      new value to use for the <code>maxNumberLength</code> configuration option.
+     *      0 or less removes the limit.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMaxNumberLength(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.maxNumberLength = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the most keys in one JSONObject, or 0 for no limit.
+     *
+     * @return The <code>maxObjectKeys</code> configuration value.
+     */
+    public int getMaxObjectKeys() {
+        return this.maxObjectKeys;
+    }
+
+    /**
+     * When parsing, the most keys in one JSONObject. A JSONObject with more
+     * keys is rejected when the first key past the limit is read, before its
+     * value is parsed.
+     *
+     * @param newVal
+     *      new value to use for the <code>maxObjectKeys</code> configuration option.
+     *      0 or less removes the limit.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMaxObjectKeys(final int newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.maxObjectKeys = newVal > 0 ? newVal : 0;
+        return newConfig;
+    }
+
+    /**
+     * When parsing, the factory of the maps of the JSONObjects, or null to
+     * use {@link JSONObject#getDefaultMapFactory()}.
+     *
+     * @return The <code>mapFactory</code> configuration value.
+     */
+    public JSONMapFactory getMapFactory() {
+        return this.mapFactory;
+    }
+
+    /**
+     * When parsing, the factory of the maps of the JSONObjects.
+     * {@link JSONMapFactory#LINKED_HASH_MAP} keeps the members in the order
+     * of the text, and {@link JSONMapFactory#COMPACT} saves memory when most
+     * objects have only a few members.
+     *
+     * @param newVal
+     *      new value to use for the <code>mapFactory</code> configuration option.
+     *      null uses the default map factory of JSONObject.
+     *
+     * @return The existing configuration will not be modified. A new configuration is returned.
+     */
+    public JSONParserConfiguration withMapFactory(final JSONMapFactory newVal) {
+        JSONParserConfiguration newConfig = this.clone();
+        newConfig.mapFactory = newVal;
+        return newConfig;
+    }
+}
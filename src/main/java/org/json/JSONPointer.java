@@ -174,6 +174,20 @@ public class JSONPointer {
         return token.replace("~1", "/").replace("~0", "~");
     }
 
+    /**
+     * Get the keys this JSON Pointer looks up, in order, as
+     * {@link #queryFrom(Object)} uses them for objects.
+     *
+     * @return The unescaped reference tokens.
+     */
+    List<String> getRefTokens() {
+        List<String> keys = new ArrayList<String>(this.refTokens.size());
+        for (String token : this.refTokens) {
+            keys.add(unescape(token));
+        }
+        return keys;
+    }
+
     /**
      * Evaluates this JSON Pointer on the given {@code document}. The {@code document}
      * is usually a {@link JSONObject} or a {@link JSONArray} instance, but the empty
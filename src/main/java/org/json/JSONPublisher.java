@@ -0,0 +1,355 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JSONPublisher hands the values of a stream, such as the records of an
+ * {@link NDJSONReader} or the elements of a large JSON array, to a
+ * subscriber with backpressure: a value is only parsed when the subscriber
+ * has asked for it with {@link Subscription#request(long)}. Nothing is
+ * buffered, so a payload of any length is processed one value at a time.
+ * <p>
+ * The {@link Subscriber} and {@link Subscription} interfaces have the same
+ * methods and rules as those of <code>java.util.concurrent.Flow</code>, which
+ * this package can not use because it is built for older versions of Java.
+ * Adapting a <code>Flow.Subscriber</code> takes one line per method.
+ * <pre>
+ * JSONPublisher&lt;JSONObject&gt; publisher =
+ *         new JSONPublisher&lt;JSONObject&gt;(new NDJSONReader(inputStream));
+ * publisher.subscribe(subscriber);
+ * </pre>
+ * <p>
+ * Values are parsed and delivered on the thread that calls
+ * <code>request</code>, or on the thread already delivering them if
+ * <code>request</code> is called from <code>onNext</code> or from another
+ * thread at the same time. A JSONPublisher accepts one subscriber, because it
+ * reads its source only once. A syntax error in the source is passed to
+ * <code>onError</code>.
+ *
+ * @param <T> The type of the values.
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONPublisher<T> {
+
+    /**
+     * Receives the values of a JSONPublisher. The methods are called in
+     * order, never at the same time: <code>onSubscribe</code> once, then
+     * <code>onNext</code> no more times than requested, then at most one of
+     * <code>onError</code> or <code>onComplete</code>.
+     *
+     * @param <T> The type of the values.
+     */
+    public interface Subscriber<T> {
+        /**
+         * Receive the subscription. No values are sent until some are
+         * requested.
+         *
+         * @param subscription The subscription.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Receive the next value.
+         *
+         * @param item The value.
+         */
+        void onNext(T item);
+
+        /**
+         * Receive the error that ends the values. The subscription is
+         * cancelled.
+         *
+         * @param throwable The error.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Learn that there are no more values.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Controls the flow of values to a subscriber.
+     */
+    public interface Subscription {
+        /**
+         * Ask for more values. The demand adds up, and stays at
+         * <code>Long.MAX_VALUE</code> once it reaches it.
+         *
+         * @param n The number of values, greater than 0. Anything else is
+         *  passed to <code>onError</code> as an IllegalArgumentException.
+         */
+        void request(long n);
+
+        /**
+         * Stop sending values. Values that are being delivered may still
+         * arrive.
+         */
+        void cancel();
+    }
+
+    /** The source of the values. */
+    private final Iterator<? extends T> source;
+
+    /** true once a subscriber has subscribed. */
+    private final AtomicBoolean subscribed;
+
+    /**
+     * Construct a JSONPublisher.
+     *
+     * @param source The source of the values, such as an NDJSONReader. Each
+     *  value is read with <code>next</code> when it is requested, and an
+     *  exception thrown by the source is passed to <code>onError</code>.
+     */
+    public JSONPublisher(Iterator<? extends T> source) {
+        this.source = source;
+        this.subscribed = new AtomicBoolean();
+    }
+
+    /**
+     * Make a JSONPublisher of the elements of the JSON array a tokener is
+     * positioned at. Each element is parsed when it is requested; an object
+     * or array element is parsed whole. An element left out, as in
+     * <code>[1,,2]</code>, is JSONObject.NULL.
+     *
+     * @param x A JSONTokener positioned at the start of an array.
+     * @return The JSONPublisher.
+     */
+    public static JSONPublisher<Object> elements(JSONTokener x) {
+        return new JSONPublisher<Object>(new Elements(x));
+    }
+
+    /**
+     * Subscribe to the values. A second subscriber receives an
+     * IllegalStateException in <code>onError</code>.
+     *
+     * @param subscriber The subscriber.
+     * @throws NullPointerException If the subscriber is null.
+     */
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    // nothing will be sent
+                }
+
+                @Override
+                public void cancel() {
+                    // nothing will be sent
+                }
+            });
+            subscriber.onError(new IllegalStateException("JSONPublisher accepts only one subscriber."));
+            return;
+        }
+        PublisherSubscription<T> subscription = new PublisherSubscription<T>(this.source, subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The subscription of the subscriber of a JSONPublisher. Values are
+     * delivered by whichever thread gets the count of pending signals from
+     * 0 to 1; other calls only add to the demand.
+     *
+     * @param <T> The type of the values.
+     */
+    private static final class PublisherSubscription<T> implements Subscription {
+
+        /** The source of the values. */
+        private final Iterator<? extends T> source;
+
+        /** The subscriber. */
+        private final Subscriber<? super T> subscriber;
+
+        /** The values requested and not sent yet. */
+        private final AtomicLong demand;
+
+        /** The signals not handled yet by the delivering thread. */
+        private final AtomicInteger pending;
+
+        /** true after cancel, an error or completion. */
+        private volatile boolean done;
+
+        /** An invalid request, to be passed to onError. */
+        private volatile Throwable invalid;
+
+        /**
+         * Construct a PublisherSubscription.
+         *
+         * @param source The source of the values.
+         * @param subscriber The subscriber.
+         */
+        PublisherSubscription(Iterator<? extends T> source, Subscriber<? super T> subscriber) {
+            this.source = source;
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong();
+            this.pending = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.invalid = new IllegalArgumentException("Requested " + n + " values, not a positive number.");
+            } else {
+                for (;;) {
+                    long current = this.demand.get();
+                    long next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                    if (this.demand.compareAndSet(current, next)) {
+                        break;
+                    }
+                }
+            }
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            this.done = true;
+        }
+
+        /**
+         * Send the requested values, unless another call is sending them.
+         */
+        private void drain() {
+            if (this.pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long requested = this.demand.get();
+                long sent = 0;
+                while (!this.done) {
+                    if (this.invalid != null) {
+                        this.fail(this.invalid);
+                        break;
+                    }
+                    boolean more;
+                    T item = null;
+                    try {
+                        more = this.source.hasNext();
+                        if (more && sent != requested) {
+                            item = this.source.next();
+                        }
+                    } catch (RuntimeException e) {
+                        this.fail(e);
+                        break;
+                    }
+                    if (!more) {
+                        this.done = true;
+                        this.subscriber.onComplete();
+                        break;
+                    }
+                    if (sent == requested) {
+                        break;
+                    }
+                    this.subscriber.onNext(item);
+                    sent++;
+                }
+                if (sent != 0 && requested != Long.MAX_VALUE) {
+                    this.demand.addAndGet(-sent);
+                }
+                missed = this.pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * End the values with an error.
+         *
+         * @param throwable The error.
+         */
+        private void fail(Throwable throwable) {
+            this.done = true;
+            this.subscriber.onError(throwable);
+        }
+    }
+
+    /**
+     * The elements of a JSON array, read by a JSONReader. hasNext only reads
+     * the start of the next element; next parses the rest of it.
+     */
+    private static final class Elements implements Iterator<Object> {
+
+        /** The tokener reading the array. */
+        private final JSONTokener x;
+
+        /** The reader of the array. */
+        private final JSONReader reader;
+
+        /** true if the event of the next element has been read. */
+        private boolean ready;
+
+        /** true once the start of the array has been read. */
+        private boolean started;
+
+        /** true once the end of the array has been read. */
+        private boolean ended;
+
+        /**
+         * Construct an Elements.
+         *
+         * @param x A JSONTokener positioned at the start of an array.
+         */
+        Elements(JSONTokener x) {
+            this.x = x;
+            this.reader = new JSONReader(x);
+        }
+
+        @Override
+        public boolean hasNext() throws JSONException {
+            if (this.ready) {
+                return true;
+            }
+            if (this.ended) {
+                return false;
+            }
+            if (!this.started) {
+                this.started = true;
+                if (this.x.nextClean() != '[') {
+                    this.ended = true;
+                    throw this.x.syntaxError("A JSONArray text must start with '['");
+                }
+                this.x.back();
+                this.reader.next();
+            }
+            if (this.reader.next() == JSONReader.Event.END_ARRAY && this.reader.getDepth() == 0) {
+                this.ended = true;
+                return false;
+            }
+            this.ready = true;
+            return true;
+        }
+
+        @Override
+        public Object next() throws JSONException {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.ready = false;
+            return this.reader.readValue();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
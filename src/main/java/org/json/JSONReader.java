@@ -0,0 +1,492 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.NoSuchElementException;
+
+/**
+ * A JSONReader reads JSON text as a sequence of parsing events, one token at a
+ * time, without building JSONObjects or JSONArrays. It only remembers the
+ * brackets that are still open, so very large texts can be processed in
+ * constant memory, and subtrees that are not needed can be passed over with
+ * {@link #skipChildren()}.
+ * <p>
+ * The reader accepts the same text as the {@link JSONObject} and
+ * {@link JSONArray} constructors, including their non-standard forms, and
+ * reports the same syntax errors. Duplicate keys are not detected because the
+ * keys of an object are not kept. A source may hold several JSON texts one
+ * after another; they are read in turn.
+ * <p>
+ * Events can also be pushed to a {@link JSONHandler} with
+ * {@link #parse(JSONHandler)}.
+ * <pre>
+ * JSONReader reader = new JSONReader(new JSONTokener(inputStream));
+ * while (reader.hasNext()) {
+ *     JSONReader.Event event = reader.next();
+ *     if (event == JSONReader.Event.KEY &amp;&amp; "payload".equals(reader.getString())) {
+ *         if (reader.next() == JSONReader.Event.START_OBJECT) {
+ *             reader.skipChildren();
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONReader {
+
+    /**
+     * The events reported by {@link JSONReader#next()}.
+     */
+    public enum Event {
+        /** The start of an object, <code>{</code>. */
+        START_OBJECT,
+        /** The end of an object, <code>}</code>. */
+        END_OBJECT,
+        /** The start of an array, <code>[</code>. */
+        START_ARRAY,
+        /** The end of an array, <code>]</code>. */
+        END_ARRAY,
+        /** The key of an object member. */
+        KEY,
+        /** A string value. */
+        VALUE_STRING,
+        /** A number value. */
+        VALUE_NUMBER,
+        /** The value <code>true</code>. */
+        VALUE_TRUE,
+        /** The value <code>false</code>. */
+        VALUE_FALSE,
+        /** The value <code>null</code>, or an element left out of an array. */
+        VALUE_NULL
+    }
+
+    /** Between JSON texts: the next value is a new text. */
+    private static final int TEXT = 0;
+
+    /** After a key: the member value comes next. */
+    private static final int VALUE = 1;
+
+    /** After <code>{</code> or a separator: a key or <code>}</code> comes next. */
+    private static final int KEY = 2;
+
+    /** After a member value: a separator or <code>}</code> comes next. */
+    private static final int OBJECT_SEPARATOR = 3;
+
+    /** After <code>[</code>: an element or <code>]</code> comes next. */
+    private static final int FIRST_ELEMENT = 4;
+
+    /** After a separator in an array: an element comes next. */
+    private static final int ELEMENT = 5;
+
+    /** After an element: a separator or <code>]</code> comes next. */
+    private static final int ARRAY_SEPARATOR = 6;
+
+    /** The tokener supplying the text. */
+    private final JSONTokener x;
+
+    /** The opening brackets of the containers that are still open. */
+    private char[] stack;
+
+    /** The number of containers that are still open. */
+    private int depth;
+
+    /** What the text may contain next. */
+    private int state;
+
+    /** The current event, or null before the first one. */
+    private Event event;
+
+    /** The key or value of the current event. */
+    private Object value;
+
+    /**
+     * Construct a JSONReader from a JSONTokener.
+     *
+     * @param x A JSONTokener positioned at the start of a JSON text.
+     */
+    public JSONReader(JSONTokener x) {
+        this.x = x;
+        this.stack = new char[16];
+        this.state = TEXT;
+    }
+
+    /**
+     * Determine if there are more events. Inside a JSON text this is always
+     * true; between texts it is true if anything other than whitespace is
+     * left in the source.
+     *
+     * @return true if {@link #next()} can be called.
+     * @throws JSONException If there is an error reading the source.
+     */
+    public boolean hasNext() throws JSONException {
+        if (this.state != TEXT) {
+            return true;
+        }
+        if (this.x.nextClean() == 0) {
+            return false;
+        }
+        this.x.back();
+        return true;
+    }
+
+    /**
+     * Read the next event.
+     *
+     * @return The event.
+     * @throws JSONException If the text is not valid JSON.
+     * @throws NoSuchElementException If there are no more events.
+     */
+    public Event next() throws JSONException {
+        for (;;) {
+            char c;
+            switch (this.state) {
+            case TEXT:
+                c = this.x.nextClean();
+                if (c == 0) {
+                    throw new NoSuchElementException();
+                }
+                return this.startValue(c);
+            case VALUE:
+                return this.startValue(this.x.nextClean());
+            case KEY:
+                return this.readKey();
+            case OBJECT_SEPARATOR:
+                switch (this.x.nextClean()) {
+                case ';':
+                case ',':
+                    if (this.x.nextClean() == '}') {
+                        return this.endContainer();
+                    }
+                    this.x.back();
+                    this.state = KEY;
+                    continue;
+                case '}':
+                    return this.endContainer();
+                default:
+                    throw this.x.syntaxError("Expected a ',' or '}'");
+                }
+            case FIRST_ELEMENT:
+                c = this.x.nextClean();
+                if (c == 0) {
+                    throw this.x.syntaxError("Expected a ',' or ']'");
+                }
+                if (c == ']') {
+                    return this.endContainer();
+                }
+                this.x.back();
+                this.state = ELEMENT;
+                continue;
+            case ELEMENT:
+                if (this.x.nextClean() == ',') {
+                    this.x.back();
+                    this.value = JSONObject.NULL;
+                    this.state = ARRAY_SEPARATOR;
+                    return this.event = Event.VALUE_NULL;
+                }
+                this.x.back();
+                return this.startValue(this.x.nextClean());
+            default:
+                switch (this.x.nextClean()) {
+                case 0:
+                    // array is unclosed. No ']' found, instead EOF
+                    throw this.x.syntaxError("Expected a ',' or ']'");
+                case ',':
+                    c = this.x.nextClean();
+                    if (c == 0) {
+                        // array is unclosed. No ']' found, instead EOF
+                        throw this.x.syntaxError("Expected a ',' or ']'");
+                    }
+                    if (c == ']') {
+                        return this.endContainer();
+                    }
+                    this.x.back();
+                    this.state = ELEMENT;
+                    continue;
+                case ']':
+                    return this.endContainer();
+                default:
+                    throw this.x.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Skip the members or elements of the object or array that the current
+     * event starts. The reader moves to the end of the container, and the
+     * current event becomes END_OBJECT or END_ARRAY. For any other event
+     * nothing is skipped.
+     * <p>
+     * Skipped text is only checked for unterminated strings, illegal escapes
+     * and unbalanced brackets.
+     *
+     * @throws JSONException If the skipped text is not valid JSON.
+     */
+    public void skipChildren() throws JSONException {
+        if (this.event == Event.START_OBJECT || this.event == Event.START_ARRAY) {
+            this.x.skipToEnd(this.stack[this.depth - 1]);
+            this.endContainer();
+        }
+    }
+
+    /**
+     * Read the next value and pass its events to a handler. Inside an object
+     * the next member is read, and the handler receives its key before its
+     * value. Inside an array the next element is read, and between texts the
+     * next JSON text.
+     * <pre>
+     * if (reader.next() == JSONReader.Event.START_ARRAY) {
+     *     while (reader.parse(handler)) {
+     *         // one element has been passed to the handler
+     *     }
+     * }
+     * </pre>
+     *
+     * @param handler The handler receiving the events.
+     * @return true if a value was read, or false if the enclosing object or
+     *  array ended instead, or no text is left. The handler is not called
+     *  in that case.
+     * @throws JSONException If the text is not valid JSON, or the handler
+     *  throws it.
+     */
+    public boolean parse(JSONHandler handler) throws JSONException {
+        if (!this.hasNext()) {
+            return false;
+        }
+        final int start = this.depth;
+        for (;;) {
+            Event e = this.next();
+            if (this.depth < start) {
+                return false;
+            }
+            switch (e) {
+            case START_OBJECT:
+                handler.startObject();
+                break;
+            case END_OBJECT:
+                handler.endObject();
+                break;
+            case START_ARRAY:
+                handler.startArray();
+                break;
+            case END_ARRAY:
+                handler.endArray();
+                break;
+            case KEY:
+                handler.key((String) this.value);
+                break;
+            default:
+                handler.primitive(this.value);
+            }
+            // a handler inside this package may skip the value of a member
+            if (this.depth == start && (e != Event.KEY || this.state != VALUE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Skip the value of the member whose key is the current event, as
+     * {@link JSONTokener#skipValue()} does. The reader moves past the member.
+     *
+     * @param lazy true to get a LazyValue holding the place of the value in
+     *  the source. The tokener must have
+     *  {@link JSONTokener#hasLazyValues()}.
+     * @return The LazyValue, or null if <code>lazy</code> is false.
+     * @throws JSONException If the skipped text is not valid JSON.
+     */
+    LazyValue skipMemberValue(boolean lazy) throws JSONException {
+        LazyValue skipped = null;
+        if (lazy) {
+            skipped = this.x.nextLazyValue(this.depth);
+        } else {
+            this.x.skipValue();
+        }
+        this.afterValue();
+        return skipped;
+    }
+
+    /**
+     * Get the value of the current event. When the current event is
+     * START_OBJECT or START_ARRAY, the rest of the container is parsed into a
+     * JSONObject or JSONArray, the reader moves to the end of the container,
+     * and the current event becomes END_OBJECT or END_ARRAY. For any other
+     * event this is the same as {@link #getValue()}.
+     *
+     * @return A JSONObject, JSONArray, String, Number, Boolean,
+     *  JSONObject.NULL or null.
+     * @throws JSONException If the text is not valid JSON.
+     */
+    public Object readValue() throws JSONException {
+        Object result;
+        if (this.event == Event.START_OBJECT) {
+            this.x.back();
+            result = new JSONObject(this.x);
+        } else if (this.event == Event.START_ARRAY) {
+            this.x.back();
+            result = new JSONArray(this.x);
+        } else {
+            return this.value;
+        }
+        this.endContainer();
+        return result;
+    }
+
+    /**
+     * Get the key or value of the current event.
+     *
+     * @return The key for KEY, a String, Number, Boolean or JSONObject.NULL
+     *  for the value events, or null for the other events.
+     */
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * Get the key or string value of the current event.
+     *
+     * @return The key for KEY or the string for VALUE_STRING.
+     * @throws JSONException If the current event is neither.
+     */
+    public String getString() throws JSONException {
+        if (this.event == Event.KEY || this.event == Event.VALUE_STRING) {
+            return (String) this.value;
+        }
+        throw new JSONException("JSONReader event " + this.event + " is not a string.");
+    }
+
+    /**
+     * Get the number value of the current event.
+     *
+     * @return The number for VALUE_NUMBER.
+     * @throws JSONException If the current event is not VALUE_NUMBER.
+     */
+    public Number getNumber() throws JSONException {
+        if (this.event == Event.VALUE_NUMBER) {
+            return (Number) this.value;
+        }
+        throw new JSONException("JSONReader event " + this.event + " is not a number.");
+    }
+
+    /**
+     * Get the current event.
+     *
+     * @return The event returned by the last call to {@link #next()}, or null.
+     */
+    public Event getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Get the number of objects and arrays that are open. A START event
+     * increases the depth, and an END event decreases it.
+     *
+     * @return The nesting depth.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Read a key, following the rules of the JSONObject constructor.
+     *
+     * @return KEY, or END_OBJECT for an empty object.
+     * @throws JSONException If syntax error.
+     */
+    private Event readKey() throws JSONException {
+        char prev = this.x.getPrevious();
+        char c = this.x.nextClean();
+        if ((c == '{' || c == '[') && prev == '{') {
+            throw this.x.syntaxError("A JSON Object can not directly nest another JSON Object or JSON Array.");
+        }
+        String key;
+        switch (c) {
+        case 0:
+            throw this.x.syntaxError("A JSONObject text must end with '}'");
+        case '}':
+            return this.endContainer();
+        default:
+            key = this.x.nextKey(c, this.depth);
+        }
+
+        // The key is followed by ':'.
+
+        c = this.x.nextClean();
+        if (c != ':') {
+            throw this.x.syntaxError("Expected a ':' after a key");
+        }
+        this.value = key;
+        this.state = VALUE;
+        return this.event = Event.KEY;
+    }
+
+    /**
+     * Start a value whose first character has been read.
+     *
+     * @param c The first character of the value.
+     * @return The event for the value.
+     * @throws JSONException If syntax error.
+     */
+    private Event startValue(char c) throws JSONException {
+        if (c == '{' || c == '[') {
+            if (this.depth == this.stack.length) {
+                char[] grown = new char[this.depth * 2];
+                System.arraycopy(this.stack, 0, grown, 0, this.depth);
+                this.stack = grown;
+            }
+            this.stack[this.depth++] = c;
+            this.value = null;
+            if (c == '{') {
+                this.state = KEY;
+                return this.event = Event.START_OBJECT;
+            }
+            this.state = FIRST_ELEMENT;
+            return this.event = Event.START_ARRAY;
+        }
+        Object v = this.x.nextSimpleValue(c);
+        this.value = v;
+        this.afterValue();
+        if (v instanceof String) {
+            return this.event = Event.VALUE_STRING;
+        }
+        if (v instanceof Number) {
+            return this.event = Event.VALUE_NUMBER;
+        }
+        if (v == Boolean.TRUE) {
+            return this.event = Event.VALUE_TRUE;
+        }
+        if (v == Boolean.FALSE) {
+            return this.event = Event.VALUE_FALSE;
+        }
+        return this.event = Event.VALUE_NULL;
+    }
+
+    /**
+     * Close the innermost container.
+     *
+     * @return END_OBJECT or END_ARRAY.
+     */
+    private Event endContainer() {
+        char open = this.stack[--this.depth];
+        this.value = null;
+        this.afterValue();
+        return this.event = open == '{' ? Event.END_OBJECT : Event.END_ARRAY;
+    }
+
+    /**
+     * Set the state that follows a complete value.
+     */
+    private void afterValue() {
+        if (this.depth == 0) {
+            this.state = TEXT;
+        } else if (this.stack[this.depth - 1] == '{') {
+            this.state = OBJECT_SEPARATOR;
+        } else {
+            this.state = ARRAY_SEPARATOR;
+        }
+    }
+}
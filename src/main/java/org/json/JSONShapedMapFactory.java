@@ -0,0 +1,67 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.Map;
+
+/**
+ * A JSONShapedMapFactory makes maps that share their keys. The maps that are
+ * given the same keys in the same order, such as the records of a large
+ * array, share one immutable description of their keys, their shape, and
+ * keep only their values, in an array. A JSONObject of five members then
+ * takes one small array instead of a HashMap with a table and five entry
+ * objects, and its keys are not kept once per object.
+ * <pre>
+ * JSONParserConfiguration configuration = new JSONParserConfiguration()
+ *         .withMapFactory(new JSONShapedMapFactory());
+ * JSONArray records = new JSONArray(new JSONTokener(text, configuration));
+ * </pre>
+ * <p>
+ * A factory remembers every shape it has made, so that later maps can share
+ * them, and may be used by many parses and threads at the same time. Its
+ * shapes keep a limited number of keys, so that texts with many different
+ * keys can not fill the memory with them: once the limit is reached, maps
+ * that need a new shape keep their members in a LinkedHashMap instead. Maps
+ * of more than 64 members, which are usually dictionaries rather than
+ * records, always keep them in a LinkedHashMap. Either way the members are
+ * kept in the order they were first put.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONShapedMapFactory implements JSONMapFactory {
+
+    /** The default most keys kept by the shapes of a factory. */
+    public static final int DEFAULT_MAXIMUM_KEYS = 65536;
+
+    /** The shape without keys that all the others are made from. */
+    private final ShapedMap.Shape root;
+
+    /**
+     * Construct a JSONShapedMapFactory whose shapes keep up to
+     * {@link #DEFAULT_MAXIMUM_KEYS} keys.
+     */
+    public JSONShapedMapFactory() {
+        this(DEFAULT_MAXIMUM_KEYS);
+    }
+
+    /**
+     * Construct a JSONShapedMapFactory.
+     *
+     * @param maxKeys The most keys kept by the shapes of the factory. A
+     *  shape is made for each distinct sequence of keys, and for each of its
+     *  beginnings. A shape made by adding a key to a shape that no other
+     *  shape has been made from keeps one key; any other keeps all of its
+     *  keys.
+     */
+    public JSONShapedMapFactory(int maxKeys) {
+        this.root = new ShapedMap.Shape(maxKeys > 0 ? maxKeys : 0);
+    }
+
+    @Override
+    public Map<String, Object> newMap(int expectedSize) {
+        return new ShapedMap(this.root, expectedSize);
+    }
+}
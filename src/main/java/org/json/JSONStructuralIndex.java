@@ -0,0 +1,726 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JSONStructuralIndex parses a large JSON text of UTF-8 bytes in two
+ * stages. The first stage finds the braces, brackets, colons and commas that
+ * are not inside strings, looking at eight bytes at a time with bit mask
+ * arithmetic on longs, and records their positions. The second stage builds
+ * JSONObjects and JSONArrays by walking the positions, decoding only the
+ * keys and values between them.
+ * <p>
+ * The index can also answer a {@link JSONPointer} query with
+ * {@link #query(JSONPointer)}, building only the value it points to. The
+ * objects and arrays on the way are passed over using the position of their
+ * closing bracket, so a value deep in a very large text is found quickly.
+ * <p>
+ * The result is the same as parsing the text with a {@link JSONTokener}.
+ * Texts the index does not follow, such as ones with single quoted strings
+ * or unbalanced brackets, and texts with syntax errors, are parsed by a
+ * JSONTokener instead, so errors are reported as the tokener reports them.
+ * <pre>
+ * JSONStructuralIndex index = new JSONStructuralIndex(bytes);
+ * Object name = index.query(new JSONPointer("/items/1000/name"));
+ * JSONObject document = (JSONObject) index.toValue();
+ * </pre>
+ * The index is not changed once it is built, so it can be queried by
+ * several threads at once.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONStructuralIndex {
+
+    /** Each byte holding 0x7F. */
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    /** Each byte holding 1. */
+    private static final long ONES = 0x0101010101010101L;
+
+    /** Multiplier gathering the high bit of each byte into the top byte. */
+    private static final long GATHER = 0x0102040810204080L;
+
+    /** Each byte holding a space, the padding after the end of the text. */
+    private static final long SPACES = ONES * ' ';
+
+    /** The UTF-8 text. */
+    private final byte[] bytes;
+
+    /** Position of the first byte of the text, after any byte order mark. */
+    private final int start;
+
+    /** The parser configuration. */
+    private final JSONParserConfiguration configuration;
+
+    /** Positions of the structural characters, in order. */
+    private int[] positions;
+
+    /** Number of structural characters. */
+    private int count;
+
+    /**
+     * For each opening brace or bracket, the index in the positions of the
+     * one that closes it.
+     */
+    private int[] closers;
+
+    /** true if the text can be read with the index. */
+    private boolean indexed;
+
+    /**
+     * Build the index of a JSON text.
+     *
+     * @param bytes The UTF-8 bytes of the text. They must not be changed
+     *  while the index is in use.
+     */
+    public JSONStructuralIndex(byte[] bytes) {
+        this(bytes, JSONParserConfiguration.ORIGINAL);
+    }
+
+    /**
+     * Build the index of a JSON text, using a parser configuration.
+     *
+     * @param bytes The UTF-8 bytes of the text. They must not be changed
+     *  while the index is in use.
+     * @param configuration The parser configuration.
+     */
+    public JSONStructuralIndex(byte[] bytes, JSONParserConfiguration configuration) {
+        this.bytes = bytes;
+        this.configuration = configuration;
+        this.start = bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB
+                && bytes[2] == (byte) 0xBF ? 3 : 0;
+        this.indexed = !hasLengthLimits(configuration) && this.findStructurals() && this.matchBrackets();
+    }
+
+    /**
+     * Check if a configuration limits the length of the text, its strings or
+     * numbers, or the keys of its objects. The index does not check those
+     * limits, so such a text is left to the tokener.
+     *
+     * @param configuration The parser configuration.
+     * @return true if there is such a limit.
+     */
+    private static boolean hasLengthLimits(JSONParserConfiguration configuration) {
+        return configuration.getMaxSourceLength() > 0 || configuration.getMaxStringLength() > 0
+                || configuration.getMaxNumberLength() > 0 || configuration.getMaxObjectKeys() > 0;
+    }
+
+    /**
+     * Get the value of the text: a JSONObject, JSONArray, or the value a
+     * {@link JSONTokener} would read with {@link JSONTokener#nextValue()}.
+     *
+     * @return The value.
+     * @throws JSONException If there is a syntax error.
+     */
+    public Object toValue() throws JSONException {
+        if (this.indexed && this.rootIsContainer()) {
+            Object value = this.build(0);
+            if (value != null) {
+                return value;
+            }
+        }
+        return this.parse();
+    }
+
+    /**
+     * Get the value a JSON Pointer points to, as
+     * {@link JSONPointer#queryFrom(Object)} would get it from the value of
+     * the text. Only the parts of the text on the way to the value are read,
+     * so errors elsewhere in the text, including duplicate keys, are not
+     * found. If the pointer can not be followed, the whole value is built to
+     * report the error as the pointer reports it.
+     *
+     * @param pointer A JSON Pointer.
+     * @return The value, or null if an object on the way does not have the
+     *  key.
+     * @throws JSONPointerException If the pointer can not be followed.
+     * @throws JSONException If there is a syntax error.
+     */
+    public Object query(JSONPointer pointer) throws JSONException {
+        List<String> tokens = pointer.getRefTokens();
+        if (tokens.isEmpty() || !this.indexed || !this.rootIsContainer()) {
+            return pointer.queryFrom(this.toValue());
+        }
+        final Decoder decoder = new Decoder();
+        int k = 0;
+        int valueStart = -1;
+        int valueEnd = -1;
+        for (int t = 0; t < tokens.size(); t++) {
+            int found = Integer.MIN_VALUE;
+            if (k < 0) {
+                // a value that is not an object or array has no keys.
+            } else if (this.charAt(k) == '{') {
+                found = this.findMember(k, tokens.get(t), decoder);
+                if (found == -1 && t == tokens.size() - 1) {
+                    return null;
+                }
+            } else {
+                found = this.findElement(k, tokens.get(t));
+            }
+            if (found < 0) {
+                // let the pointer report the error.
+                return pointer.queryFrom(this.toValue());
+            }
+            // found is the index of a container, or of the structural after a value.
+            char c = this.charAt(found);
+            if ((c == '{' || c == '[') && this.isBlank(found - 1, found)) {
+                k = found;
+            } else {
+                valueStart = this.positions[found - 1] + 1;
+                valueEnd = this.positions[found];
+                k = -1;
+            }
+        }
+        Object value = k >= 0 ? this.build(k) : decoder.value(valueStart, valueEnd);
+        return value != null ? value : pointer.queryFrom(this.toValue());
+    }
+
+    /**
+     * Find the value of a key in an object.
+     *
+     * @param k The index of the opening brace.
+     * @param key The key.
+     * @param decoder The decoder of keys and values.
+     * @return The index of the value if it is an object or array, the index
+     *  of the structural after the value otherwise, -1 if the key is not
+     *  found, or Integer.MIN_VALUE if the text is not what the index follows.
+     */
+    private int findMember(int k, String key, Decoder decoder) {
+        int i = k;
+        for (;;) {
+            int j = i + 1;
+            char c = this.charAt(j);
+            if (c == '}') {
+                return this.isBlank(i, j) ? -1 : Integer.MIN_VALUE;
+            }
+            if (c != ':') {
+                return Integer.MIN_VALUE;
+            }
+            String name = decoder.key(this.positions[i] + 1, this.positions[j]);
+            if (name == null) {
+                return Integer.MIN_VALUE;
+            }
+            int n = j + 1;
+            char cn = this.charAt(n);
+            int next;
+            if ((cn == '{' || cn == '[') && this.isBlank(j, n)) {
+                next = this.closers[n] + 1;
+                if (!this.isBlank(next - 1, next)) {
+                    return Integer.MIN_VALUE;
+                }
+            } else if (cn == ',' || cn == '}') {
+                next = n;
+            } else {
+                return Integer.MIN_VALUE;
+            }
+            if (name.equals(key)) {
+                return n;
+            }
+            if (this.charAt(next) == '}') {
+                return -1;
+            }
+            if (this.charAt(next) != ',') {
+                return Integer.MIN_VALUE;
+            }
+            i = next;
+        }
+    }
+
+    /**
+     * Find an element of an array.
+     *
+     * @param k The index of the opening bracket.
+     * @param token The token of the pointer giving the position of the
+     *  element.
+     * @return The index of the element if it is an object or array, the
+     *  index of the structural after the element otherwise, or
+     *  Integer.MIN_VALUE if there is no such element or the text is not
+     *  what the index follows.
+     */
+    private int findElement(int k, String token) {
+        int index;
+        try {
+            index = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE;
+        }
+        int i = k;
+        int length = 0;
+        for (;;) {
+            int j = i + 1;
+            char c = this.charAt(j);
+            int next;
+            if (c == ']' && this.isBlank(i, j)) {
+                // "[]", or a trailing comma.
+                break;
+            }
+            if ((c == '{' || c == '[') && this.isBlank(i, j)) {
+                next = this.closers[j] + 1;
+                if (!this.isBlank(next - 1, next)) {
+                    return Integer.MIN_VALUE;
+                }
+            } else if (c == ',' || c == ']') {
+                next = j;
+            } else {
+                return Integer.MIN_VALUE;
+            }
+            if (length == index) {
+                return c == '{' || c == '[' ? j : next;
+            }
+            length++;
+            if (this.charAt(next) == ']') {
+                break;
+            }
+            if (this.charAt(next) != ',') {
+                return Integer.MIN_VALUE;
+            }
+            i = next;
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Build the object or array that opens at a structural, without
+     * recursion.
+     *
+     * @param k The index of the opening brace or bracket.
+     * @return The JSONObject or JSONArray, or null if the text is not what
+     *  the index follows.
+     */
+    private Object build(int k) {
+        final Decoder decoder = new Decoder();
+        final JSONMapFactory mapFactory = this.configuration.getMapFactory();
+        final List<Object> stack = new ArrayList<Object>();
+        final Object root = this.charAt(k) == '{' ? new JSONObject(mapFactory) : new JSONArray();
+        stack.add(root);
+        Object container = root;
+        int i = k;
+        for (;;) {
+            int j = i + 1;
+            char c = this.charAt(j);
+            Object child = null;
+            boolean close = false;
+            if (container instanceof JSONObject) {
+                JSONObject jo = (JSONObject) container;
+                if (c == '}') {
+                    if (!this.isBlank(i, j)) {
+                        return null;
+                    }
+                    close = true;
+                } else if (c == ':') {
+                    String key = decoder.key(this.positions[i] + 1, this.positions[j]);
+                    if (key == null || jo.opt(key) != null) {
+                        return null;
+                    }
+                    j++;
+                    c = this.charAt(j);
+                    Object value;
+                    if ((c == '{' || c == '[') && this.isBlank(j - 1, j)) {
+                        child = c == '{' ? new JSONObject(mapFactory) : new JSONArray();
+                        value = child;
+                    } else if (c == ',' || c == '}') {
+                        value = decoder.value(this.positions[j - 1] + 1, this.positions[j]);
+                        if (value == null) {
+                            return null;
+                        }
+                        close = c == '}';
+                    } else {
+                        return null;
+                    }
+                    jo.put(key, value);
+                } else {
+                    return null;
+                }
+            } else {
+                JSONArray ja = (JSONArray) container;
+                if ((c == '{' || c == '[') && this.isBlank(i, j)) {
+                    child = c == '{' ? new JSONObject(mapFactory) : new JSONArray();
+                    ja.put(child);
+                } else if (c == ',' || c == ']') {
+                    if (this.isBlank(i, j)) {
+                        if (c == ',') {
+                            ja.put(JSONObject.NULL);
+                        }
+                    } else {
+                        Object value = decoder.value(this.positions[i] + 1, this.positions[j]);
+                        if (value == null) {
+                            return null;
+                        }
+                        ja.put(value);
+                    }
+                    close = c == ']';
+                } else {
+                    return null;
+                }
+            }
+            if (child != null) {
+                stack.add(child);
+                container = child;
+                i = j;
+                continue;
+            }
+            // j is a separator or the closer of the container.
+            while (close) {
+                stack.remove(stack.size() - 1);
+                if (stack.isEmpty()) {
+                    return root;
+                }
+                container = stack.get(stack.size() - 1);
+                int next = j + 1;
+                if (!this.isBlank(j, next)) {
+                    return null;
+                }
+                c = this.charAt(next);
+                if (c != ',' && c != (container instanceof JSONObject ? '}' : ']')) {
+                    return null;
+                }
+                j = next;
+                close = c != ',';
+            }
+            i = j;
+        }
+    }
+
+    /**
+     * Parse the text with a JSONTokener.
+     *
+     * @return The value.
+     * @throws JSONException If there is a syntax error.
+     */
+    private Object parse() throws JSONException {
+        return new JSONTokener(this.bytes, this.configuration).nextValue();
+    }
+
+    /**
+     * Checks if the text begins with the first structural, a brace or a
+     * bracket.
+     *
+     * @return true if the text is an object or array.
+     */
+    private boolean rootIsContainer() {
+        if (this.count == 0) {
+            return false;
+        }
+        char c = this.charAt(0);
+        return (c == '{' || c == '[') && this.isBlankText(this.start, this.positions[0]);
+    }
+
+    /**
+     * Get the character at a structural.
+     *
+     * @param k The index of the structural.
+     * @return The character.
+     */
+    private char charAt(int k) {
+        return (char) this.bytes[this.positions[k]];
+    }
+
+    /**
+     * Checks if there is only whitespace between two structurals.
+     *
+     * @param i The index of the first structural.
+     * @param j The index of the second structural.
+     * @return true if the bytes between them are all whitespace.
+     */
+    private boolean isBlank(int i, int j) {
+        return this.isBlankText(this.positions[i] + 1, this.positions[j]);
+    }
+
+    /**
+     * Checks if there is only whitespace in a range of the text.
+     *
+     * @param from The position of the first byte.
+     * @param to The position after the last byte.
+     * @return true if the bytes are all whitespace.
+     */
+    private boolean isBlankText(int from, int to) {
+        for (int p = from; p < to; p++) {
+            byte b = this.bytes[p];
+            if (b < 0 || b > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The first stage. Find the structural characters that are not in
+     * strings, 64 bytes at a time.
+     *
+     * @return false if the text has single quotes or NUL bytes outside of
+     *  strings, or an unterminated string.
+     */
+    private boolean findStructurals() {
+        final byte[] text = this.bytes;
+        final ByteBuffer words = ByteBuffer.wrap(text).order(ByteOrder.LITTLE_ENDIAN);
+        int[] found = new int[Math.max(16, (text.length - this.start) / 8)];
+        int n = 0;
+        long inStringCarry = 0;
+        boolean escapeCarry = false;
+        for (int base = this.start; base < text.length; base += 64) {
+            long quotes = 0;
+            long backslashes = 0;
+            long operators = 0;
+            long singleQuotes = 0;
+            long zeros = 0;
+            for (int w = 0; w < 8; w++) {
+                final int at = base + 8 * w;
+                final long word = at + 8 <= text.length ? words.getLong(at) : tail(text, at);
+                final int shift = 8 * w;
+                quotes |= gather(equal(word, '"')) << shift;
+                backslashes |= gather(equal(word, '\\')) << shift;
+                singleQuotes |= gather(equal(word, '\'')) << shift;
+                zeros |= gather(equal(word, 0)) << shift;
+                operators |= gather(equal(word, '{') | equal(word, '}') | equal(word, '[')
+                        | equal(word, ']') | equal(word, ':') | equal(word, ',')) << shift;
+            }
+            if (zeros != 0) {
+                return false;
+            }
+
+            // a backslash escapes the next byte, unless it is itself escaped.
+            long escaped = 0;
+            if (backslashes != 0 || escapeCarry) {
+                long pending = backslashes;
+                if (escapeCarry) {
+                    escaped = 1L;
+                    pending &= ~1L;
+                    escapeCarry = false;
+                }
+                while (pending != 0) {
+                    int bit = Long.numberOfTrailingZeros(pending);
+                    pending &= pending - 1;
+                    if ((escaped & (1L << bit)) == 0) {
+                        if (bit == 63) {
+                            escapeCarry = true;
+                        } else {
+                            escaped |= 1L << (bit + 1);
+                        }
+                    }
+                }
+            }
+
+            // bits from each opening quote up to, but not including, its closing quote.
+            final long inString = prefixXor(quotes & ~escaped) ^ inStringCarry;
+            inStringCarry = inString >> 63;
+            if ((singleQuotes & ~inString) != 0) {
+                return false;
+            }
+            long structurals = operators & ~inString;
+            if (n + Long.bitCount(structurals) > found.length) {
+                int[] grown = new int[Math.max(found.length * 2, n + 64)];
+                System.arraycopy(found, 0, grown, 0, n);
+                found = grown;
+            }
+            while (structurals != 0) {
+                found[n++] = base + Long.numberOfTrailingZeros(structurals);
+                structurals &= structurals - 1;
+            }
+        }
+        this.positions = found;
+        this.count = n;
+        return inStringCarry == 0;
+    }
+
+    /**
+     * The first stage, continued. Find the closer of each opening brace or
+     * bracket.
+     *
+     * @return false if the braces and brackets are not balanced, or are
+     *  nested more deeply than the configuration allows.
+     */
+    private boolean matchBrackets() {
+        final int maxDepth = this.configuration.getMaxNestingDepth();
+        this.closers = new int[this.count];
+        int[] open = new int[16];
+        int depth = 0;
+        for (int k = 0; k < this.count; k++) {
+            char c = this.charAt(k);
+            if (c == '{' || c == '[') {
+                if (maxDepth > 0 && depth == maxDepth) {
+                    return false;
+                }
+                if (depth == open.length) {
+                    int[] grown = new int[depth * 2];
+                    System.arraycopy(open, 0, grown, 0, depth);
+                    open = grown;
+                }
+                open[depth++] = k;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0 || this.charAt(open[depth - 1]) != (c == '}' ? '{' : '[')) {
+                    return false;
+                }
+                this.closers[open[--depth]] = k;
+            }
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Read the last, partial word of the text, padded with spaces.
+     *
+     * @param text The text.
+     * @param at The position of the word.
+     * @return The word, in little endian order.
+     */
+    private static long tail(byte[] text, int at) {
+        long word = SPACES;
+        for (int i = at; i < text.length && i < at + 8; i++) {
+            final int shift = 8 * (i - at);
+            word = (word & ~(0xFFL << shift)) | ((text[i] & 0xFFL) << shift);
+        }
+        return word;
+    }
+
+    /**
+     * Find the bytes of a word equal to a character.
+     *
+     * @param word Eight bytes.
+     * @param c An ASCII character.
+     * @return A word with the high bit of each equal byte set, and no other
+     *  bits set.
+     */
+    private static long equal(long word, int c) {
+        final long t = word ^ (ONES * c);
+        return ~(((t & LOW7) + LOW7) | t | LOW7);
+    }
+
+    /**
+     * Gather the high bits of the bytes of a word into the low byte.
+     *
+     * @param highBits A word with only the high bits of bytes set.
+     * @return Bit i is set if the high bit of byte i is set.
+     */
+    private static long gather(long highBits) {
+        return ((highBits >>> 7) * GATHER) >>> 56;
+    }
+
+    /**
+     * Set each bit to the exclusive or of it and all of the lower bits.
+     *
+     * @param bits The bits.
+     * @return The prefix exclusive or.
+     */
+    private static long prefixXor(long bits) {
+        long x = bits;
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+
+    /**
+     * The second stage. Decodes the keys and values between structurals.
+     */
+    private final class Decoder {
+
+        /** The reader decoding the UTF-8 bytes. */
+        private final UTF8Reader reader = new UTF8Reader(JSONStructuralIndex.this.bytes, 0, 0);
+
+        /** The decoded characters. */
+        private char[] chars = new char[64];
+
+        /**
+         * Decode the key between a structural and a colon.
+         *
+         * @param from The position of the first byte.
+         * @param to The position after the last byte.
+         * @return The key, or null if it is not a single value.
+         */
+        String key(int from, int to) {
+            Object value = this.value(from, to);
+            return value == null ? null : value.toString();
+        }
+
+        /**
+         * Decode the string, number, boolean or null between two
+         * structurals.
+         *
+         * @param from The position of the first byte.
+         * @param to The position after the last byte.
+         * @return The value, or null if it is not a single value.
+         */
+        Object value(int from, int to) {
+            final byte[] text = JSONStructuralIndex.this.bytes;
+            while (from < to && text[from] >= 0 && text[from] <= ' ') {
+                from++;
+            }
+            while (to > from && text[to - 1] >= 0 && text[to - 1] <= ' ') {
+                to--;
+            }
+            if (from == to) {
+                return null;
+            }
+            final int length = this.decode(from, to);
+            final char[] c = this.chars;
+            if (length >= 2 && c[0] == '"' && c[length - 1] == '"') {
+                int i = 1;
+                while (i < length - 1 && c[i] != '\\' && c[i] != '"' && c[i] != '\n' && c[i] != '\r') {
+                    i++;
+                }
+                if (i == length - 1) {
+                    return new String(c, 1, length - 2);
+                }
+            }
+            if (c[0] != '"' && c[0] != '\'') {
+                int i = 0;
+                while (i < length && !JSONTokener.isUnquotedDelimiter(c[i])) {
+                    i++;
+                }
+                if (i == length) {
+                    return JSONTokener.unquotedValue(new String(c, 0, length),
+                            JSONStructuralIndex.this.configuration);
+                }
+            }
+            try {
+                JSONTokener x = new JSONTokener(CharBuffer.wrap(c, 0, length),
+                        JSONStructuralIndex.this.configuration);
+                Object value = x.nextValue();
+                if (x.nextClean() != 0 || value instanceof JSONObject || value instanceof JSONArray) {
+                    return null;
+                }
+                return value;
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Decode a range of the text into the characters.
+         *
+         * @param from The position of the first byte.
+         * @param to The position after the last byte.
+         * @return The number of characters.
+         */
+        private int decode(int from, int to) {
+            if (this.chars.length < to - from) {
+                this.chars = new char[to - from];
+            }
+            this.reader.reset(JSONStructuralIndex.this.bytes, from, to - from, false);
+            int length = 0;
+            try {
+                int read;
+                while (length < this.chars.length
+                        && (read = this.reader.read(this.chars, length, this.chars.length - length)) > 0) {
+                    length += read;
+                }
+            } catch (IOException e) {
+                // the bytes are in memory.
+            }
+            return length;
+        }
+    }
+}
@@ -1,11 +1,9 @@
 package org.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
 
 /*
 Public Domain.
@@ -29,23 +27,293 @@ public class JSONTokener {
     private long line;
     /** previous character read from the input. */
     private char previous;
-    /** Reader for the input. */
-    private final Reader reader;
+    /** Reader for the input, or null when reading from a character sequence. */
+    private Reader reader;
     /** flag to indicate that a previous character was requested. */
     private boolean usePrevious;
     /** the number of characters read in the previous line. */
     private long characterPreviousLine;
+    /**
+     * Block of characters read ahead from the reader, or null when the reader
+     * is read one character at a time.
+     */
+    private char[] buffer;
+    /** block buffer kept for reuse while the buffer is not in use, or null. */
+    private char[] spareBuffer;
+    /**
+     * The whole input when it is already in memory, indexed directly in place
+     * of the buffer, or null when reading from a reader.
+     */
+    private CharSequence sequence;
+
+    /**
+     * The position in the sequence of the first character read. Positions
+     * in error messages count from the start of the sequence.
+     */
+    private int origin;
+    /** position of the next character to consume from the buffer or sequence. */
+    private int bufferPosition;
+    /** number of valid characters in the buffer or sequence. */
+    private int bufferLength;
+    /** buffer position that must survive a refill of the buffer, or -1. */
+    private int bufferMark;
+    /** the parser configuration. */
+    private final JSONParserConfiguration configuration;
+    /** the cache of object keys, or null if keys are not cached. */
+    private final KeyCache keyCache;
+
+    /**
+     * The number of objects and arrays enclosing the text, which count
+     * toward {@link JSONParserConfiguration#getMaxNestingDepth()}.
+     */
+    private int depth;
+    /** StringBuilder reused to collect strings and unquoted text, or null. */
+    private StringBuilder scratch;
+
+    /** Size of the block read from the reader when buffering. */
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** Largest scratch StringBuilder kept when the tokener is reset. */
+    private static final int MAX_SCRATCH_CAPACITY = 8 * DEFAULT_BUFFER_SIZE;
 
 
     /**
      * Construct a JSONTokener from a Reader. The caller must close the Reader.
+     * <p>
+     * A Reader that supports {@link Reader#mark(int)} is read one character at
+     * a time, so it is left positioned right after the last character consumed.
+     * Any other Reader is read in blocks into an internal buffer, and may be
+     * read past the end of the parsed text.
      *
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported()
-                ? reader
-                        : new BufferedReader(reader);
+        this(reader, JSONParserConfiguration.ORIGINAL);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a Reader, using a parser configuration.
+     * The caller must close the Reader. See {@link #JSONTokener(Reader)}.
+     *
+     * @param reader     A reader.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(Reader reader, JSONParserConfiguration configuration) {
+        this(reader, configuration, !reader.markSupported());
+    }
+
+
+    /**
+     * Construct a JSONTokener from a Reader that is read in blocks, or one
+     * character at a time. Reading in blocks is much faster, but may read past
+     * the end of the parsed text, so it is only right when the whole of the
+     * input is to be tokenized.
+     *
+     * @param reader     A reader.
+     * @param configuration The parser configuration.
+     * @param readAhead true to read the reader in blocks.
+     */
+    JSONTokener(Reader reader, JSONParserConfiguration configuration, boolean readAhead) {
+        this.configuration = configuration;
+        this.keyCache = configuration.getKeyCacheSize() > 0
+                ? new KeyCache(configuration.getKeyCacheSize()) : null;
+        this.start(reader, readAhead);
+    }
+
+
+    /**
+     * Construct a JSONTokener from an InputStream. The caller must close the input stream.
+     * The bytes are decoded as UTF-8, the encoding required for JSON text, as they are
+     * tokenized.
+     * @param inputStream The source.
+     */
+    public JSONTokener(InputStream inputStream) {
+        this(new UTF8Reader(inputStream));
+    }
+
+
+    /**
+     * Construct a JSONTokener from an InputStream of UTF-8 bytes, using a parser
+     * configuration. The caller must close the input stream.
+     * @param inputStream The source.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(InputStream inputStream, JSONParserConfiguration configuration) {
+        this(new UTF8Reader(inputStream), configuration);
+    }
+
+
+    /**
+     * Construct a JSONTokener from an array of UTF-8 bytes. The bytes are decoded
+     * in place as they are tokenized.
+     * @param bytes The source.
+     */
+    public JSONTokener(byte[] bytes) {
+        this(new UTF8Reader(bytes, 0, bytes.length));
+    }
+
+
+    /**
+     * Construct a JSONTokener from an array of UTF-8 bytes, using a parser
+     * configuration.
+     * @param bytes The source.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(byte[] bytes, JSONParserConfiguration configuration) {
+        this(new UTF8Reader(bytes, 0, bytes.length), configuration);
+    }
+
+
+    /**
+     * Construct a JSONTokener from the UTF-8 bytes between the position and the
+     * limit of a ByteBuffer. The bytes are decoded as they are tokenized, and the
+     * position of the buffer is not changed.
+     * @param byteBuffer The source.
+     */
+    public JSONTokener(ByteBuffer byteBuffer) {
+        this(new UTF8Reader(byteBuffer));
+    }
+
+
+    /**
+     * Construct a JSONTokener from the UTF-8 bytes of a ByteBuffer, using a
+     * parser configuration. The position of the buffer is not changed.
+     * @param byteBuffer The source.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(ByteBuffer byteBuffer, JSONParserConfiguration configuration) {
+        this(new UTF8Reader(byteBuffer), configuration);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a string.
+     *
+     * @param s     A source string.
+     */
+    public JSONTokener(String s) {
+        this((CharSequence) s);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a string, using a parser configuration.
+     *
+     * @param s     A source string.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(String s, JSONParserConfiguration configuration) {
+        this((CharSequence) s, configuration);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a character sequence. The characters are
+     * read in place, so the sequence must not be modified while the tokener
+     * is in use.
+     *
+     * @param s     A source character sequence.
+     */
+    public JSONTokener(CharSequence s) {
+        this(s, JSONParserConfiguration.ORIGINAL);
+    }
+
+
+    /**
+     * Construct a JSONTokener from a character sequence, using a parser
+     * configuration. The sequence must not be modified while the tokener is
+     * in use.
+     *
+     * @param s     A source character sequence.
+     * @param configuration The parser configuration.
+     */
+    public JSONTokener(CharSequence s, JSONParserConfiguration configuration) {
+        this.configuration = configuration;
+        this.keyCache = configuration.getKeyCacheSize() > 0
+                ? new KeyCache(configuration.getKeyCacheSize()) : null;
+        this.start(s, 0, s.length());
+    }
+
+
+    /**
+     * Construct a JSONTokener that reads a range of a character sequence.
+     * The end of the range is the end of the input. Positions in error
+     * messages count from the start of the sequence, as if all of it had
+     * been read.
+     *
+     * @param s     A source character sequence.
+     * @param start position of the first character to read.
+     * @param end position after the last character to read.
+     * @param configuration The parser configuration.
+     * @param depth The number of objects and arrays that enclose the range
+     *  in the source.
+     */
+    JSONTokener(CharSequence s, int start, int end, JSONParserConfiguration configuration, int depth) {
+        this.configuration = configuration;
+        this.keyCache = configuration.getKeyCacheSize() > 0
+                ? new KeyCache(configuration.getKeyCacheSize()) : null;
+        this.depth = depth;
+        this.start(s, start, end);
+    }
+
+
+    /**
+     * Start reading from a Reader.
+     *
+     * @param reader     A reader.
+     * @param readAhead true to read the reader in blocks.
+     */
+    private void start(Reader reader, boolean readAhead) {
+        this.reader = reader;
+        this.sequence = null;
+        if (!readAhead) {
+            if (this.buffer != null) {
+                this.spareBuffer = this.buffer;
+                this.buffer = null;
+            }
+        } else if (this.buffer == null) {
+            this.buffer = this.spareBuffer != null
+                    ? this.spareBuffer : new char[DEFAULT_BUFFER_SIZE];
+            this.spareBuffer = null;
+        }
+        this.bufferLength = 0;
+        this.startPosition();
+    }
+
+
+    /**
+     * Start reading a range of a character sequence.
+     *
+     * @param s     A source character sequence.
+     * @param start position of the first character to read.
+     * @param end position after the last character to read.
+     */
+    private void start(CharSequence s, int start, int end) {
+        final int maxLength = this.configuration.getMaxSourceLength();
+        if (maxLength > 0 && end - start > maxLength) {
+            throw new JSONException("JSON text is longer than " + maxLength + " characters");
+        }
+        if (this.buffer != null) {
+            this.spareBuffer = this.buffer;
+            this.buffer = null;
+        }
+        this.reader = null;
+        this.sequence = s;
+        this.startPosition();
+        this.origin = start;
+        this.bufferPosition = start;
+        this.bufferLength = end;
+    }
+
+
+    /**
+     * Reset the position and the lookahead to the start of the input.
+     */
+    private void startPosition() {
+        this.bufferPosition = 0;
+        this.origin = 0;
+        this.bufferMark = -1;
         this.eof = false;
         this.usePrevious = false;
         this.previous = 0;
@@ -53,25 +321,127 @@ public class JSONTokener {
         this.character = 1;
         this.characterPreviousLine = 0;
         this.line = 1;
+        if (this.scratch != null && this.scratch.capacity() > MAX_SCRATCH_CAPACITY) {
+            this.scratch = null;
+        }
     }
 
 
     /**
-     * Construct a JSONTokener from an InputStream. The caller must close the input stream.
+     * Start reading a new input from a Reader, as if this tokener had just
+     * been constructed with it. The caller must close the Reader.
+     * <p>
+     * The buffers of the tokener, and its key cache if the configuration
+     * has one, are reused. A tokener that reads many small texts, kept in a
+     * <code>ThreadLocal</code> or a pool and reset for each one, avoids
+     * allocating them every time. A tokener must not be used by more than
+     * one thread at a time.
+     *
+     * @param reader     A reader.
+     * @see #JSONTokener(Reader)
+     */
+    public void reset(Reader reader) {
+        this.start(reader, !reader.markSupported());
+    }
+
+
+    /**
+     * Start reading a new input from an InputStream of UTF-8 bytes, as if
+     * this tokener had just been constructed with it. The caller must close
+     * the input stream. See {@link #reset(Reader)}.
+     *
      * @param inputStream The source.
      */
-    public JSONTokener(InputStream inputStream) {
-        this(new InputStreamReader(inputStream));
+    public void reset(InputStream inputStream) {
+        if (this.reader instanceof UTF8Reader) {
+            ((UTF8Reader) this.reader).reset(inputStream);
+            this.start(this.reader, true);
+        } else {
+            this.start(new UTF8Reader(inputStream), true);
+        }
     }
 
 
     /**
-     * Construct a JSONTokener from a string.
+     * Start reading a new input from an array of UTF-8 bytes, as if this
+     * tokener had just been constructed with it. See {@link #reset(Reader)}.
      *
-     * @param s     A source string.
+     * @param bytes The source.
      */
-    public JSONTokener(String s) {
-        this(new StringReader(s));
+    public void reset(byte[] bytes) {
+        if (this.reader instanceof UTF8Reader) {
+            ((UTF8Reader) this.reader).reset(bytes, 0, bytes.length);
+            this.start(this.reader, true);
+        } else {
+            this.start(new UTF8Reader(bytes, 0, bytes.length), true);
+        }
+    }
+
+
+    /**
+     * Start reading a new input from a character sequence, as if this
+     * tokener had just been constructed with it. The sequence must not be
+     * modified while the tokener is in use. See {@link #reset(Reader)}.
+     *
+     * @param s     A source character sequence.
+     */
+    public void reset(CharSequence s) {
+        this.start(s, 0, s.length());
+    }
+
+
+    /**
+     * Start reading another range of a character sequence, as if this
+     * tokener had just been constructed with it. The buffers and the key
+     * cache of the tokener are reused, and the depth of the text is kept.
+     *
+     * @param s     A source character sequence.
+     * @param start position of the first character to read.
+     * @param end position after the last character to read.
+     * @see #JSONTokener(CharSequence, int, int, JSONParserConfiguration, int)
+     */
+    void reset(CharSequence s, int start, int end) {
+        this.start(s, start, end);
+    }
+
+
+    /**
+     * Get the scratch StringBuilder, emptied.
+     *
+     * @param capacity The capacity to give a new StringBuilder.
+     * @return The scratch StringBuilder.
+     */
+    private StringBuilder scratch(int capacity) {
+        StringBuilder sb = this.scratch;
+        if (sb == null) {
+            sb = new StringBuilder(capacity);
+            this.scratch = sb;
+        } else {
+            sb.setLength(0);
+        }
+        return sb;
+    }
+
+
+    /**
+     * Get the parser configuration of this tokener.
+     *
+     * @return The parser configuration.
+     */
+    public JSONParserConfiguration getParserConfiguration() {
+        return this.configuration;
+    }
+
+
+    /**
+     * Get the number of objects and arrays that enclose the text read by
+     * this tokener. It is 0 unless the tokener reads a value inside a
+     * larger text.
+     *
+     * @return The depth of the text.
+     */
+    int getDepth() {
+        return this.depth;
     }
 
 
@@ -144,6 +514,15 @@ public class JSONTokener {
         if(this.usePrevious) {
             return true;
         }
+        if (this.isIndexed()) {
+            // -1 is EOF, but next() can not consume the null character '\0'
+            if ((this.bufferPosition >= this.bufferLength && !this.fill())
+                    || this.charAt(this.bufferPosition) == 0) {
+                this.eof = true;
+                return false;
+            }
+            return true;
+        }
         try {
             this.reader.mark(1);
         } catch (IOException e) {
@@ -174,12 +553,21 @@ public class JSONTokener {
         if (this.usePrevious) {
             this.usePrevious = false;
             c = this.previous;
+        } else if (this.isIndexed()) {
+            if (this.bufferPosition < this.bufferLength || this.fill()) {
+                c = this.charAt(this.bufferPosition++);
+            } else {
+                c = -1;
+            }
         } else {
             try {
                 c = this.reader.read();
             } catch (IOException exception) {
                 throw new JSONException(exception);
             }
+            if (c > 0) {
+                this.checkSourceLength(1);
+            }
         }
         if (c <= 0) { // End of stream
             this.eof = true;
@@ -190,6 +578,254 @@ public class JSONTokener {
         return this.previous;
     }
     
+    /**
+     * Checks if characters are consumed by position from the buffer or the
+     * character sequence, rather than read one at a time from the reader.
+     *
+     * @return true if the buffer or the character sequence is in use.
+     */
+    private boolean isIndexed() {
+        return this.reader == null || this.buffer != null;
+    }
+
+    /**
+     * Get a character from the buffer or the character sequence.
+     *
+     * @param i position of the character.
+     * @return The character.
+     */
+    private char charAt(int i) {
+        return this.buffer != null ? this.buffer[i] : this.sequence.charAt(i);
+    }
+
+    /**
+     * Refill the buffer with the next block of characters from the reader.
+     * Characters from the buffer mark onward are kept, growing the buffer if
+     * needed. A character sequence can not be refilled.
+     *
+     * @return true if at least one character was read, false at the end of
+     *  the input.
+     * @throws JSONException Thrown if there is an error reading the source.
+     */
+    private boolean fill() throws JSONException {
+        if (this.buffer == null) {
+            return false;
+        }
+        int keep = 0;
+        if (this.bufferMark >= 0) {
+            keep = this.bufferLength - this.bufferMark;
+            char[] target = this.buffer;
+            if (keep == this.buffer.length) {
+                target = new char[this.buffer.length * 2];
+            }
+            System.arraycopy(this.buffer, this.bufferMark, target, 0, keep);
+            this.buffer = target;
+            this.bufferMark = 0;
+        }
+        this.bufferPosition = keep;
+        this.bufferLength = keep;
+        int count;
+        try {
+            count = this.reader.read(this.buffer, keep, this.buffer.length - keep);
+        } catch (IOException exception) {
+            throw new JSONException(exception);
+        }
+        if (count <= 0) {
+            return false;
+        }
+        this.checkSourceLength(count);
+        this.bufferLength = keep + count;
+        return true;
+    }
+
+    /**
+     * Check that the characters read from the reader so far, and the ones
+     * just read, are within the limit of the configuration.
+     *
+     * @param count The number of characters just read.
+     * @throws JSONException If there are too many characters.
+     */
+    private void checkSourceLength(int count) throws JSONException {
+        final int maxLength = this.configuration.getMaxSourceLength();
+        if (maxLength > 0 && this.index + count > maxLength) {
+            throw this.syntaxError("JSON text is longer than " + maxLength + " characters");
+        }
+    }
+
+    /**
+     * Check that a string is within the limit of the configuration.
+     *
+     * @param length The length of the string, or of its part read so far.
+     * @throws JSONException If the string is too long.
+     */
+    private void checkStringLength(int length) throws JSONException {
+        final int maxLength = this.configuration.getMaxStringLength();
+        if (maxLength > 0 && length > maxLength) {
+            throw this.syntaxError("String is longer than " + maxLength + " characters");
+        }
+    }
+
+    /**
+     * Consume the characters at the front of the buffer up to, but not
+     * including, the first character that can end or escape a string, and
+     * append them to the StringBuilder.
+     *
+     * @param quote The quoting character of the string.
+     * @param sb The StringBuilder receiving the characters, or null to skip
+     *  them.
+     * @throws JSONException Thrown if there is an error reading the source.
+     */
+    private void nextStringRun(char quote, StringBuilder sb) throws JSONException {
+        for (;;) {
+            if (this.bufferPosition >= this.bufferLength && !this.fill()) {
+                return;
+            }
+            final int end = this.scanString(quote, this.bufferPosition);
+            this.appendRun(sb, this.bufferPosition, end);
+            if (end < this.bufferLength) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the first character from a position of the buffer that can end or
+     * escape a string.
+     *
+     * @param quote The quoting character of the string.
+     * @param start position to start from.
+     * @return The position of the character, or the buffer length if there is
+     *  none.
+     */
+    private int scanString(char quote, int start) {
+        final int limit = this.bufferLength;
+        int i = start;
+        if (this.buffer != null) {
+            final char[] buf = this.buffer;
+            while (i < limit && !isStringDelimiter(buf[i], quote)) {
+                i++;
+            }
+        } else {
+            final CharSequence seq = this.sequence;
+            while (i < limit && !isStringDelimiter(seq.charAt(i), quote)) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Checks if a character ends or escapes a string read by
+     * {@link #nextString(char)}.
+     *
+     * @param c A character.
+     * @param quote The quoting character of the string.
+     * @return true if c is the quote, a backslash, a line break or the null
+     *  character.
+     */
+    private static boolean isStringDelimiter(char c, char quote) {
+        return c == quote || c == '\\' || c == '\n' || c == '\r' || c == 0;
+    }
+
+    /**
+     * Consume the characters at the front of the buffer that can be part of an
+     * unquoted value, and append them to the StringBuilder.
+     *
+     * @param sb The StringBuilder receiving the characters, or null to skip
+     *  them.
+     * @throws JSONException Thrown if there is an error reading the source.
+     */
+    private void nextUnquotedRun(StringBuilder sb) throws JSONException {
+        for (;;) {
+            if (this.bufferPosition >= this.bufferLength && !this.fill()) {
+                return;
+            }
+            final int start = this.bufferPosition;
+            final int limit = this.bufferLength;
+            int i = start;
+            if (this.buffer != null) {
+                final char[] buf = this.buffer;
+                while (i < limit && !isUnquotedDelimiter(buf[i])) {
+                    i++;
+                }
+            } else {
+                final CharSequence seq = this.sequence;
+                while (i < limit && !isUnquotedDelimiter(seq.charAt(i))) {
+                    i++;
+                }
+            }
+            this.appendRun(sb, start, i);
+            if (i < limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks if a character ends unquoted text read by {@link #nextValue()}.
+     *
+     * @param c A character.
+     * @return true if c is a control character or one of
+     *  <code>, : ] } / \ " [ { ; = #</code>.
+     */
+    static boolean isUnquotedDelimiter(char c) {
+        switch (c) {
+        case ',':
+        case ':':
+        case ']':
+        case '}':
+        case '/':
+        case '\\':
+        case '"':
+        case '[':
+        case '{':
+        case ';':
+        case '=':
+        case '#':
+            return true;
+        default:
+            return c < ' ';
+        }
+    }
+
+    /**
+     * Append the buffered characters from start up to, but not including, end
+     * to the StringBuilder and mark them as consumed. The characters must not
+     * contain line breaks.
+     *
+     * @param sb The StringBuilder receiving the characters, or null to skip
+     *  them.
+     * @param start position of the first character.
+     * @param end position after the last character.
+     */
+    private void appendRun(StringBuilder sb, int start, int end) {
+        if (sb != null) {
+            if (this.buffer != null) {
+                sb.append(this.buffer, start, end - start);
+            } else {
+                sb.append(this.sequence, start, end);
+            }
+        }
+        this.consumeRun(start, end);
+    }
+
+    /**
+     * Mark the buffered characters from start up to, but not including, end as
+     * consumed. The characters must not contain line breaks.
+     *
+     * @param start position of the first character.
+     * @param end position after the last character.
+     */
+    private void consumeRun(int start, int end) {
+        final int count = end - start;
+        if (count > 0) {
+            this.bufferPosition = end;
+            this.index += count;
+            this.character += count;
+            this.previous = this.charAt(end - 1);
+        }
+    }
+
     /**
      * Get the last character read from the input or '\0' if nothing has been read yet.
      * @return the last character read from the input.
@@ -274,6 +910,24 @@ public class JSONTokener {
      * @return  A character, or 0 if there are no more characters.
      */
     public char nextClean() throws JSONException {
+        if (this.isIndexed() && !this.usePrevious) {
+            for (;;) {
+                if (this.bufferPosition >= this.bufferLength && !this.fill()) {
+                    this.eof = true;
+                    return 0;
+                }
+                char c = this.charAt(this.bufferPosition++);
+                if (c == 0) {
+                    this.eof = true;
+                    return 0;
+                }
+                this.incrementIndexes(c);
+                this.previous = c;
+                if (c > ' ') {
+                    return c;
+                }
+            }
+        }
         for (;;) {
             char c = this.next();
             if (c == 0 || c > ' ') {
@@ -296,8 +950,30 @@ public class JSONTokener {
      */
     public String nextString(char quote) throws JSONException {
         char c;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb;
+        if (this.isIndexed() && !this.usePrevious
+                && (this.bufferPosition < this.bufferLength || this.fill())) {
+            final int start = this.bufferPosition;
+            final int end = this.scanString(quote, start);
+            this.checkStringLength(end - start);
+            if (end < this.bufferLength && this.charAt(end) == quote) {
+                // No escapes: take the string straight from the source.
+                final String string = this.buffer != null
+                        ? new String(this.buffer, start, end - start)
+                        : this.sequence.subSequence(start, end).toString();
+                this.consumeRun(start, end + 1);
+                return string;
+            }
+            sb = this.scratch(end - start + 16);
+            this.appendRun(sb, start, end);
+        } else {
+            sb = this.scratch(16);
+        }
         for (;;) {
+            if (this.isIndexed() && !this.usePrevious) {
+                this.nextStringRun(quote, sb);
+            }
+            this.checkStringLength(sb.length());
             c = this.next();
             switch (c) {
             case 0:
@@ -323,11 +999,7 @@ public class JSONTokener {
                     sb.append('\r');
                     break;
                 case 'u':
-                    try {
-                        sb.append((char)Integer.parseInt(this.next(4), 16));
-                    } catch (NumberFormatException e) {
-                        throw this.syntaxError("Illegal escape.", e);
-                    }
+                    sb.append(this.nextHexEscape());
                     break;
                 case '"':
                 case '\'':
@@ -349,6 +1021,42 @@ public class JSONTokener {
     }
 
 
+    /**
+     * Get the character of a <code>\\u</code> escape from the four hex
+     * digits that follow it. The digits are decoded arithmetically, straight
+     * from the buffer when it holds all four. Each escape is one UTF-16 unit,
+     * so the two escapes of a surrogate pair combine into one code point in
+     * the string.
+     *
+     * @return The character.
+     * @throws JSONException If the digits are not hex, or the input ends.
+     */
+    private char nextHexEscape() throws JSONException {
+        if (this.isIndexed() && !this.usePrevious && this.bufferPosition + 4 <= this.bufferLength) {
+            final int start = this.bufferPosition;
+            final int value = dehexchar(this.charAt(start)) << 12 | dehexchar(this.charAt(start + 1)) << 8
+                    | dehexchar(this.charAt(start + 2)) << 4 | dehexchar(this.charAt(start + 3));
+            if (value >= 0) {
+                this.consumeRun(start, start + 4);
+                return (char) value;
+            }
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            final char c = this.next();
+            if (this.end()) {
+                throw this.syntaxError("Substring bounds error");
+            }
+            final int digit = dehexchar(c);
+            value = value < 0 || digit < 0 ? -1 : value << 4 | digit;
+        }
+        if (value < 0) {
+            throw this.syntaxError("Illegal escape.");
+        }
+        return (char) value;
+    }
+
+
     /**
      * Get the text up but not including the specified character or the
      * end of line, whichever comes first.
@@ -406,27 +1114,127 @@ public class JSONTokener {
      */
     public Object nextValue() throws JSONException {
         char c = this.nextClean();
-        String string;
 
         switch (c) {
-        case '"':
-        case '\'':
-            return this.nextString(c);
         case '{':
             this.back();
-            try {
-                return new JSONObject(this);
-            } catch (StackOverflowError e) {
-                throw new JSONException("JSON Array or Object depth too large to process.", e);
-            }
+            return new JSONObject(this);
         case '[':
             this.back();
-            try {
-                return new JSONArray(this);
-            } catch (StackOverflowError e) {
-                throw new JSONException("JSON Array or Object depth too large to process.", e);
+            return new JSONArray(this);
+        }
+        return this.nextSimpleValue(c);
+    }
+
+
+    /**
+     * Determine if the values of object members are read as LazyValues. That
+     * is the case if the configuration has
+     * {@link JSONParserConfiguration#isLazyValues()} set and the source is a
+     * String.
+     *
+     * @return true if member values are read by {@link #nextLazyValue()}.
+     */
+    boolean hasLazyValues() {
+        return this.configuration.isLazyValues() && this.sequence instanceof String;
+    }
+
+
+    /**
+     * Skip the value of an object member, and get a LazyValue holding its
+     * place in the source. It must only be called if
+     * {@link #hasLazyValues()} is true.
+     *
+     * @param depth The number of objects and arrays read by this tokener
+     *  that enclose the value.
+     * @return The LazyValue.
+     * @throws JSONException If syntax error.
+     */
+    LazyValue nextLazyValue(int depth) throws JSONException {
+        final int start = this.usePrevious ? this.bufferPosition - 1 : this.bufferPosition;
+        this.skipValue();
+        final int end = this.usePrevious ? this.bufferPosition - 1 : this.bufferPosition;
+        return new LazyValue((String) this.sequence, start, end, this.configuration, this.depth + depth);
+    }
+
+
+    /**
+     * Get the key of an object member that starts with a character already
+     * read by {@link #nextClean()}. The key is the string form of the value
+     * there. If the configuration has a key cache, the key is taken from it.
+     *
+     * @param c The first character of the key.
+     * @param depth The number of objects and arrays read by this tokener
+     *  that enclose the key.
+     * @return The key.
+     * @throws JSONException If syntax error.
+     */
+    String nextKey(char c, int depth) throws JSONException {
+        if (this.keyCache == null || (c != '"' && c != '\'')) {
+            final String key;
+            if (c == '{' || c == '[') {
+                key = this.nextContainerKey(c, depth);
+            } else {
+                this.back();
+                key = this.nextValue().toString();
+            }
+            return this.keyCache == null ? key : this.keyCache.get(key);
+        }
+        if (this.isIndexed() && !this.usePrevious
+                && (this.bufferPosition < this.bufferLength || this.fill())) {
+            final int start = this.bufferPosition;
+            final int end = this.scanString(c, start);
+            this.checkStringLength(end - start);
+            if (end < this.bufferLength && this.charAt(end) == c) {
+                // No escapes: look the key up without copying it.
+                final String key = this.buffer != null
+                        ? this.keyCache.get(this.buffer, start, end)
+                        : this.keyCache.get(this.sequence, start, end);
+                this.consumeRun(start, end + 1);
+                return key;
             }
         }
+        return this.keyCache.get(this.nextString(c));
+    }
+
+
+    /**
+     * Get the key of an object member that is an object or array. The key is
+     * the string form of the container. The containers around the key count
+     * toward the maximum nesting depth of the configuration.
+     *
+     * @param c The first character of the key, '{' or '['.
+     * @param depth The number of objects and arrays read by this tokener
+     *  that enclose the key.
+     * @return The key.
+     * @throws JSONException If syntax error.
+     */
+    private String nextContainerKey(char c, int depth) throws JSONException {
+        final int outer = this.depth;
+        this.depth = outer + depth;
+        this.back();
+        try {
+            return (c == '{' ? new JSONObject(this) : new JSONArray(this)).toString();
+        } catch (StackOverflowError e) {
+            throw new JSONException("JSON Array or Object depth too large to process.", e);
+        } finally {
+            this.depth = outer;
+        }
+    }
+
+
+    /**
+     * Get the string, Boolean, number or JSONObject.NULL value that starts
+     * with a character already read by {@link #nextClean()}.
+     *
+     * @param c The first character of the value.
+     * @return A String, Boolean, Number or JSONObject.NULL.
+     * @throws JSONException If syntax error.
+     */
+    Object nextSimpleValue(char c) throws JSONException {
+        if (c == '"' || c == '\'') {
+            return this.nextString(c);
+        }
 
         /*
          * Handle unquoted text. This could be the values true, false, or
@@ -437,20 +1245,202 @@ public class JSONTokener {
          * formatting character.
          */
 
-        StringBuilder sb = new StringBuilder();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
+        final int maxLength = this.configuration.getMaxNumberLength();
+        StringBuilder sb = this.scratch(16);
+        while (!isUnquotedDelimiter(c)) {
             sb.append(c);
+            if (this.isIndexed()) {
+                this.nextUnquotedRun(sb);
+            }
+            if (maxLength > 0 && sb.length() > maxLength) {
+                throw this.syntaxError("Unquoted value is longer than " + maxLength + " characters");
+            }
             c = this.next();
         }
         if (!this.eof) {
             this.back();
         }
 
-        string = sb.toString().trim();
+        String string = sb.toString().trim();
         if ("".equals(string)) {
             throw this.syntaxError("Missing value");
         }
-        return JSONObject.stringToValue(string);
+        return unquotedValue(string, this.configuration);
+    }
+
+
+    /**
+     * Convert unquoted text into a Boolean, number, JSONObject.NULL or
+     * String, as the configuration asks.
+     *
+     * @param string The trimmed text, not empty.
+     * @param configuration The parser configuration.
+     * @return The value.
+     */
+    static Object unquotedValue(String string, JSONParserConfiguration configuration) {
+        final boolean decimalsAsDouble = configuration.isDecimalsAsDouble();
+        if (configuration.isLazyNumbers()) {
+            Number number = LazyNumber.parse(string, decimalsAsDouble);
+            if (number != null) {
+                return number;
+            }
+        }
+        return NumberConversionUtil.stringToValue(string, decimalsAsDouble);
+    }
+
+
+    /**
+     * Skip over the next value without building it. Only the errors that
+     * would hide where the value ends are reported: unterminated strings,
+     * illegal escapes, missing values and unbalanced brackets.
+     *
+     * @throws JSONException If syntax error.
+     */
+    void skipValue() throws JSONException {
+        char c = this.nextClean();
+        switch (c) {
+        case '{':
+        case '[':
+            this.skipToEnd(c);
+            return;
+        case '"':
+        case '\'':
+            this.skipString(c);
+            return;
+        default:
+            this.skipUnquoted(c);
+        }
+    }
+
+
+    /**
+     * Skip the rest of an object or array whose opening bracket has already
+     * been read, up to and including its closing bracket. Nested values are
+     * skipped the same way as by {@link #skipValue()}.
+     *
+     * @param open The opening bracket, either <code>{</code> or <code>[</code>.
+     * @throws JSONException If syntax error.
+     */
+    void skipToEnd(char open) throws JSONException {
+        char[] enclosing = null;
+        int depth = 0;
+        char close = open == '{' ? '}' : ']';
+        for (;;) {
+            char c = this.nextClean();
+            switch (c) {
+            case 0:
+                throw this.syntaxError(close == '}'
+                        ? "A JSONObject text must end with '}'"
+                        : "Expected a ',' or ']'");
+            case '"':
+            case '\'':
+                this.skipString(c);
+                break;
+            case '{':
+            case '[':
+                if (enclosing == null) {
+                    enclosing = new char[16];
+                } else if (depth == enclosing.length) {
+                    char[] grown = new char[depth * 2];
+                    System.arraycopy(enclosing, 0, grown, 0, depth);
+                    enclosing = grown;
+                }
+                enclosing[depth++] = close;
+                close = c == '{' ? '}' : ']';
+                break;
+            case '}':
+            case ']':
+                if (c != close) {
+                    throw this.syntaxError(close == '}'
+                            ? "Expected a ',' or '}'"
+                            : "Expected a ',' or ']'");
+                }
+                if (depth == 0) {
+                    return;
+                }
+                close = enclosing[--depth];
+                break;
+            case ',':
+            case ':':
+            case ';':
+                break;
+            default:
+                this.skipUnquoted(c);
+            }
+        }
+    }
+
+
+    /**
+     * Skip the rest of a quoted string, checking its escapes the same way as
+     * {@link #nextString(char)}.
+     *
+     * @param quote The quoting character of the string.
+     * @throws JSONException Unterminated string or illegal escape.
+     */
+    private void skipString(char quote) throws JSONException {
+        for (;;) {
+            if (this.isIndexed() && !this.usePrevious) {
+                this.nextStringRun(quote, null);
+            }
+            char c = this.next();
+            switch (c) {
+            case 0:
+            case '\n':
+            case '\r':
+                throw this.syntaxError("Unterminated string");
+            case '\\':
+                c = this.next();
+                switch (c) {
+                case 'b':
+                case 't':
+                case 'n':
+                case 'f':
+                case 'r':
+                case '"':
+                case '\'':
+                case '\\':
+                case '/':
+                    break;
+                case 'u':
+                    this.nextHexEscape();
+                    break;
+                default:
+                    throw this.syntaxError("Illegal escape.");
+                }
+                break;
+            default:
+                if (c == quote) {
+                    return;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Skip the rest of unquoted text that starts with a character already read
+     * by {@link #nextClean()}.
+     *
+     * @param c The first character of the text.
+     * @throws JSONException If the text is empty.
+     */
+    private void skipUnquoted(char c) throws JSONException {
+        if (isUnquotedDelimiter(c)) {
+            if (!this.eof) {
+                this.back();
+            }
+            throw this.syntaxError("Missing value");
+        }
+        do {
+            if (this.isIndexed()) {
+                this.nextUnquotedRun(null);
+            }
+            c = this.next();
+        } while (!isUnquotedDelimiter(c));
+        if (!this.eof) {
+            this.back();
+        }
     }
 
 
@@ -465,6 +1455,28 @@ public class JSONTokener {
      */
     public char skipTo(char to) throws JSONException {
         char c;
+        if (this.isIndexed()) {
+            long startIndex = this.index;
+            long startCharacter = this.character;
+            long startLine = this.line;
+            boolean startUsePrevious = this.usePrevious;
+            this.bufferMark = this.bufferPosition;
+            do {
+                c = this.next();
+                if (c == 0) {
+                    this.bufferPosition = this.bufferMark;
+                    this.bufferMark = -1;
+                    this.usePrevious = startUsePrevious;
+                    this.index = startIndex;
+                    this.character = startCharacter;
+                    this.line = startLine;
+                    return 0;
+                }
+            } while (c != to);
+            this.bufferMark = -1;
+            this.back();
+            return c;
+        }
         try {
             long startIndex = this.index;
             long startCharacter = this.character;
@@ -519,6 +1531,15 @@ public class JSONTokener {
      */
     @Override
     public String toString() {
+        if (this.origin > 0 && this.sequence != null) {
+            // count the characters before the range as well
+            JSONTokener whole = new JSONTokener(this.sequence, 0, this.origin + (int) this.index,
+                    new JSONParserConfiguration().withMaxSourceLength(0), 0);
+            while (whole.next() != 0) {
+                // only the position is wanted
+            }
+            return whole.toString();
+        }
         return " at " + this.index + " [character " + this.character + " line " +
                 this.line + "]";
     }
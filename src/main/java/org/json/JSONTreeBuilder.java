@@ -0,0 +1,260 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * A JSONTreeBuilder is the {@link JSONHandler} that builds JSONObjects and
+ * JSONArrays. The JSONObject and JSONArray constructors that take a
+ * JSONTokener parse with it, so it gives the same results, and the same
+ * errors for duplicate keys and for the limits of the configuration of the
+ * tokener.
+ * <pre>
+ * JSONTokener x = new JSONTokener(source);
+ * JSONTreeBuilder builder = new JSONTreeBuilder(x);
+ * new JSONReader(x).parse(builder);
+ * Object value = builder.getResult();
+ * </pre>
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class JSONTreeBuilder implements JSONHandler {
+
+    /** The tokener the events come from, for error positions. */
+    private final JSONTokener x;
+
+    /**
+     * The reader pushing the events, used to skip member values, or null if
+     * no values are skipped.
+     */
+    private final JSONReader reader;
+
+    /** The most nested objects and arrays, or 0 for no limit. */
+    private final int maxDepth;
+
+    /** The number of objects and arrays enclosing the text of the tokener. */
+    private final int depth;
+
+    /** The most members of an object, or 0 for no limit. */
+    private final int maxKeys;
+
+    /** The factory of the maps of the objects. */
+    private final JSONMapFactory mapFactory;
+
+    /** true if member values are kept as LazyValues. */
+    private final boolean lazy;
+
+    /** The containers that are being built, innermost last. */
+    private final ArrayList<Object> containers;
+
+    /** The keys the open containers will be stored under in their parents. */
+    private final ArrayList<String> keys;
+
+    /**
+     * The projections of the open containers, innermost last, or null if
+     * every member is kept.
+     */
+    private final ArrayList<Map<String, Object>> projections;
+
+    /** The empty container to fill with the first value, or null. */
+    private Object root;
+
+    /** The projection of the next container that is started. */
+    private Map<String, Object> projection;
+
+    /** The key of the member whose value comes next. */
+    private String key;
+
+    /** The last complete value at the top level. */
+    private Object result;
+
+    /**
+     * Construct a JSONTreeBuilder.
+     *
+     * @param x The JSONTokener the events are read from. It is used to give
+     *  the position of errors, and its configuration limits the nesting
+     *  depth and the number of keys.
+     */
+    public JSONTreeBuilder(JSONTokener x) {
+        this(x, null, null, null);
+    }
+
+    /**
+     * Construct a JSONTreeBuilder that may skip member values.
+     *
+     * @param x The JSONTokener the events are read from.
+     * @param reader The JSONReader pushing the events, or null.
+     * @param root The empty JSONObject or JSONArray to fill with the first
+     *  value, or null to make one.
+     * @param projection The projection of the first value, or null to keep
+     *  every member. It maps the names of the members to keep to
+     *  Boolean.TRUE to keep the whole value, or to the projection of the
+     *  value.
+     */
+    private JSONTreeBuilder(JSONTokener x, JSONReader reader, Object root, Map<String, Object> projection) {
+        JSONParserConfiguration configuration = x.getParserConfiguration();
+        this.x = x;
+        this.reader = reader;
+        this.maxDepth = configuration.getMaxNestingDepth();
+        this.depth = x.getDepth();
+        this.maxKeys = configuration.getMaxObjectKeys();
+        this.mapFactory = configuration.getMapFactory();
+        this.lazy = reader != null && x.hasLazyValues();
+        this.containers = new ArrayList<Object>();
+        this.keys = new ArrayList<String>();
+        this.projections = projection != null ? new ArrayList<Map<String, Object>>() : null;
+        this.root = root;
+        this.projection = projection;
+    }
+
+    /**
+     * Parse the object or array at the next character of a tokener into an
+     * empty container. This is how the JSONObject and JSONArray constructors
+     * that take a JSONTokener parse.
+     *
+     * @param x The JSONTokener.
+     * @param root The empty JSONObject or JSONArray.
+     * @param projection The projection of the members to keep, or null to
+     *  keep every member.
+     * @throws JSONException If the text is not valid JSON, has a duplicated
+     *  key, or is beyond the limits of the configuration of the tokener.
+     */
+    static void parse(JSONTokener x, Object root, Map<String, Object> projection) throws JSONException {
+        JSONReader reader = new JSONReader(x);
+        reader.parse(new JSONTreeBuilder(x, reader, root, projection));
+    }
+
+    /**
+     * Get the last value built at the top level.
+     *
+     * @return A JSONObject, JSONArray, String, Number, Boolean,
+     *  JSONObject.NULL, or null if no value has been completed.
+     */
+    public Object getResult() {
+        return this.result;
+    }
+
+    @Override
+    public void startObject() throws JSONException {
+        this.start(this.root != null ? this.root : new JSONObject(this.mapFactory));
+    }
+
+    @Override
+    public void endObject() {
+        this.end();
+    }
+
+    @Override
+    public void startArray() throws JSONException {
+        this.start(this.root != null ? this.root : new JSONArray());
+    }
+
+    @Override
+    public void endArray() {
+        this.end();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void key(String key) throws JSONException {
+        final int last = this.containers.size() - 1;
+        JSONObject object = (JSONObject) this.containers.get(last);
+        Object selected = this.projections != null ? this.projections.get(last) : null;
+        if (selected != null) {
+            selected = ((Map<String, Object>) selected).get(key);
+            if (selected == null) {
+                // duplicates of skipped keys are not detected
+                this.reader.skipMemberValue(false);
+                return;
+            }
+        }
+        if (object.has(key)) {
+            // key already exists
+            throw this.x.syntaxError("Duplicate key \"" + key + "\"");
+        }
+        if (this.maxKeys > 0 && object.length() == this.maxKeys) {
+            throw this.x.syntaxError("JSONObject has more than " + this.maxKeys + " keys");
+        }
+        if (selected == null || selected == Boolean.TRUE) {
+            if (this.lazy) {
+                object.putLazy(key, this.reader.skipMemberValue(true));
+                return;
+            }
+        } else {
+            // an object is projected, an array is kept whole, and any other
+            // value is skipped because a pointer can not reach into it
+            char c = this.x.nextClean();
+            this.x.back();
+            if (c == '{') {
+                this.projection = (Map<String, Object>) selected;
+            } else if (c != '[') {
+                this.reader.skipMemberValue(false);
+                return;
+            }
+        }
+        this.key = key;
+    }
+
+    @Override
+    public void primitive(Object value) {
+        this.add(value);
+    }
+
+    /**
+     * Open a container.
+     *
+     * @param container The new JSONObject or JSONArray.
+     * @throws JSONException If the container is nested too deeply.
+     */
+    private void start(Object container) throws JSONException {
+        if (this.maxDepth > 0 && this.depth + this.containers.size() >= this.maxDepth) {
+            throw this.x.syntaxError("JSON Array or Object depth exceeds the limit of " + this.maxDepth);
+        }
+        this.containers.add(container);
+        this.keys.add(this.key);
+        if (this.projections != null) {
+            this.projections.add(this.projection);
+        }
+        this.key = null;
+        this.root = null;
+        this.projection = null;
+    }
+
+    /**
+     * Close the innermost container and add it to its parent.
+     */
+    private void end() {
+        int last = this.containers.size() - 1;
+        Object container = this.containers.remove(last);
+        this.key = this.keys.remove(last);
+        if (this.projections != null) {
+            this.projections.remove(last);
+        }
+        this.add(container);
+    }
+
+    /**
+     * Add a complete value to the innermost container, or make it the result
+     * at the top level.
+     *
+     * @param value The value.
+     */
+    private void add(Object value) {
+        if (this.containers.isEmpty()) {
+            this.result = value;
+            return;
+        }
+        Object parent = this.containers.get(this.containers.size() - 1);
+        if (parent instanceof JSONObject) {
+            ((JSONObject) parent).put(this.key, value);
+            this.key = null;
+        } else {
+            ((JSONArray) parent).add(value);
+        }
+    }
+}
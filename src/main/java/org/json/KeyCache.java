@@ -0,0 +1,131 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+/**
+ * A bounded table of the object keys read by a {@link JSONTokener}, so that a
+ * key repeated in many objects is one String instance. It is made by a
+ * JSONTokener whose configuration has
+ * {@link JSONParserConfiguration#getKeyCacheSize()} set.
+ * <p>
+ * Each key has one slot, chosen by its hash code. A key found in its slot is
+ * returned without making a new String. Otherwise a new String replaces the
+ * one in the slot, so the table never holds more than its size. The table is
+ * not thread safe; each tokener has its own.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class KeyCache {
+
+    /** Largest number of slots. */
+    private static final int MAX_SIZE = 1 << 20;
+
+    /** The cached keys, indexed by hash code. */
+    private final String[] table;
+
+    /** Mask giving the slot of a hash code. */
+    private final int mask;
+
+    /**
+     * Construct a KeyCache.
+     *
+     * @param size The most keys to hold. It is rounded up to a power of two.
+     */
+    KeyCache(int size) {
+        int slots = 1;
+        while (slots < size && slots < MAX_SIZE) {
+            slots <<= 1;
+        }
+        this.table = new String[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Get the cached key with the characters of a range of an array.
+     *
+     * @param chars The characters.
+     * @param start position of the first character.
+     * @param end position after the last character.
+     * @return A String with those characters.
+     */
+    String get(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        final int slot = this.slot(hash);
+        final String cached = this.table[slot];
+        if (cached != null && cached.length() == end - start) {
+            int i = 0;
+            while (i < cached.length() && cached.charAt(i) == chars[start + i]) {
+                i++;
+            }
+            if (i == cached.length()) {
+                return cached;
+            }
+        }
+        final String key = new String(chars, start, end - start);
+        this.table[slot] = key;
+        return key;
+    }
+
+    /**
+     * Get the cached key with the characters of a range of a sequence.
+     *
+     * @param sequence The characters.
+     * @param start position of the first character.
+     * @param end position after the last character.
+     * @return A String with those characters.
+     */
+    String get(CharSequence sequence, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + sequence.charAt(i);
+        }
+        final int slot = this.slot(hash);
+        final String cached = this.table[slot];
+        if (cached != null && cached.length() == end - start) {
+            int i = 0;
+            while (i < cached.length() && cached.charAt(i) == sequence.charAt(start + i)) {
+                i++;
+            }
+            if (i == cached.length()) {
+                return cached;
+            }
+        }
+        final String key = sequence.subSequence(start, end).toString();
+        this.table[slot] = key;
+        return key;
+    }
+
+    /**
+     * Get the cached key equal to a string, caching the string if there is
+     * none.
+     *
+     * @param key A key.
+     * @return The cached String equal to the key.
+     */
+    String get(String key) {
+        final int slot = this.slot(key.hashCode());
+        final String cached = this.table[slot];
+        if (key.equals(cached)) {
+            return cached;
+        }
+        this.table[slot] = key;
+        return key;
+    }
+
+    /**
+     * Get the slot of a hash code. The hash codes are computed the same way
+     * as {@link String#hashCode()}, so all the get methods agree.
+     *
+     * @param hash The hash code.
+     * @return The slot.
+     */
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+}
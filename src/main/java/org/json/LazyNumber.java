@@ -0,0 +1,230 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+/**
+ * A number kept as its JSON text until it is used. It is made by a
+ * {@link JSONTokener} whose configuration has
+ * {@link JSONParserConfiguration#isLazyNumbers()} set.
+ * <p>
+ * Integers of up to 18 digits are read straight from the text by
+ * {@link #intValue()} and {@link #longValue()}, and {@link #doubleValue()}
+ * parses the text as a double. Anything else converts the text once, giving
+ * the same Integer, Long, BigInteger, BigDecimal or Double the parser makes
+ * when numbers are not lazy.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class LazyNumber extends Number {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Most digits of an integer that always fit in a long. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Most digits of an exponent that BigDecimal is sure to accept. */
+    private static final int MAX_EXPONENT_DIGITS = 9;
+
+    /** The text of the number. */
+    private final String text;
+
+    /** true if the text is an integer other than "-0". */
+    private final boolean integral;
+
+    /** true to convert a decimal to Double instead of BigDecimal. */
+    private final boolean decimalsAsDouble;
+
+    /**
+     * The converted number, or null until it is needed. Each method reads it
+     * only once, so that threads sharing a frozen document may convert the
+     * same number at the same time.
+     */
+    private Number value;
+
+    /**
+     * Construct a LazyNumber.
+     *
+     * @param text The text of the number, in the strict JSON number form.
+     * @param integral true if the text is an integer other than "-0".
+     * @param decimalsAsDouble true to convert a decimal to Double instead of
+     *  BigDecimal.
+     */
+    private LazyNumber(String text, boolean integral, boolean decimalsAsDouble) {
+        this.text = text;
+        this.integral = integral;
+        this.decimalsAsDouble = decimalsAsDouble;
+    }
+
+    /**
+     * Make a LazyNumber if the text is in the strict JSON number form,
+     * <code>-?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?</code>.
+     *
+     * @param text The trimmed text of a value.
+     * @param decimalsAsDouble true to convert a decimal to Double instead of
+     *  BigDecimal when it is used.
+     * @return A LazyNumber, or null if the text is not in that form and must
+     *  be converted with {@link JSONObject#stringToValue(String)}.
+     */
+    static LazyNumber parse(String text, boolean decimalsAsDouble) {
+        final int length = text.length();
+        int i = 0;
+        if (i < length && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i >= length) {
+            return null;
+        }
+        char c = text.charAt(i);
+        if (c == '0') {
+            i++;
+        } else if (c >= '1' && c <= '9') {
+            i = skipDigits(text, i + 1);
+        } else {
+            return null;
+        }
+        boolean integral = true;
+        if (i < length && text.charAt(i) == '.') {
+            int start = i + 1;
+            i = skipDigits(text, start);
+            if (i == start) {
+                return null;
+            }
+            integral = false;
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            i = skipDigits(text, start);
+            if (i == start || i - start > MAX_EXPONENT_DIGITS) {
+                return null;
+            }
+            integral = false;
+        }
+        if (i != length) {
+            return null;
+        }
+        if (integral && length == 2 && text.charAt(0) == '-' && text.charAt(1) == '0') {
+            // "-0" is kept as the Double -0.0
+            integral = false;
+        }
+        return new LazyNumber(text, integral, decimalsAsDouble);
+    }
+
+    /**
+     * Find the end of a run of digits.
+     *
+     * @param text The text.
+     * @param i Position to start from.
+     * @return The position of the first character that is not a digit.
+     */
+    private static int skipDigits(String text, int i) {
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Get the number the text stands for, converting it the first time.
+     *
+     * @return An Integer, Long, BigInteger, BigDecimal or Double.
+     */
+    Number value() {
+        Number v = this.value;
+        if (v == null) {
+            v = NumberConversionUtil.stringToNumber(this.text, this.decimalsAsDouble);
+            this.value = v;
+        }
+        return v;
+    }
+
+    /**
+     * Checks if the number is an integer that can be read into a long
+     * straight from its text.
+     *
+     * @return true if the text is a short enough integer.
+     */
+    private boolean isShortIntegral() {
+        if (!this.integral) {
+            return false;
+        }
+        int digits = this.text.charAt(0) == '-' ? this.text.length() - 1 : this.text.length();
+        return digits <= MAX_LONG_DIGITS;
+    }
+
+    /**
+     * Read a short integer from the text.
+     *
+     * @return The value.
+     */
+    private long parseLong() {
+        final boolean negative = this.text.charAt(0) == '-';
+        long result = 0;
+        for (int i = negative ? 1 : 0; i < this.text.length(); i++) {
+            result = result * 10 + (this.text.charAt(i) - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    @Override
+    public int intValue() {
+        if (this.value == null && this.isShortIntegral()) {
+            return (int) this.parseLong();
+        }
+        return this.value().intValue();
+    }
+
+    @Override
+    public long longValue() {
+        if (this.value == null && this.isShortIntegral()) {
+            return this.parseLong();
+        }
+        return this.value().longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        final Number v = this.value;
+        if (v == null) {
+            return Float.parseFloat(this.text);
+        }
+        return v.floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        final Number v = this.value;
+        if (v == null) {
+            return Double.parseDouble(this.text);
+        }
+        return v.doubleValue();
+    }
+
+    /**
+     * Get the text of the converted number. An integer is its own text, so it
+     * is not converted.
+     *
+     * @return The same string the converted number gives.
+     */
+    @Override
+    public String toString() {
+        return this.integral ? this.text : this.value().toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LazyNumber
+                && this.value().equals(((LazyNumber) other).value());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.value().hashCode();
+    }
+}
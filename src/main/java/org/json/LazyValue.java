@@ -0,0 +1,72 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+/**
+ * The value of an object member kept as its source text until it is used.
+ * It is put in a {@link JSONObject} by a {@link JSONTokener} whose
+ * configuration has {@link JSONParserConfiguration#isLazyValues()} set, and
+ * is replaced by the value it stands for the first time the member is read.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class LazyValue {
+
+    /** The source text. */
+    private final String source;
+
+    /** Position of the first character of the value. */
+    private final int start;
+
+    /** Position after the last character of the value. */
+    private final int end;
+
+    /** The parser configuration. */
+    private final JSONParserConfiguration configuration;
+
+    /** The number of objects and arrays that enclose the value. */
+    private final int depth;
+
+    /**
+     * Construct a LazyValue.
+     *
+     * @param source The source text.
+     * @param start Position of the first character of the value.
+     * @param end Position after the last character of the value.
+     * @param configuration The parser configuration.
+     * @param depth The number of objects and arrays that enclose the value.
+     */
+    LazyValue(String source, int start, int end, JSONParserConfiguration configuration, int depth) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.configuration = configuration;
+        this.depth = depth;
+    }
+
+    /**
+     * Parse the value.
+     *
+     * @return The value.
+     * @throws JSONException If the value has a syntax error, or is nested
+     *  more deeply than the configuration allows, counting the objects and
+     *  arrays that enclose it. The position is counted from the start of the
+     *  source text.
+     */
+    Object parse() throws JSONException {
+        return new JSONTokener(this.source, this.start, this.end, this.configuration, this.depth).nextValue();
+    }
+
+    /**
+     * Get the source text of the value.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        return this.source.substring(this.start, this.end).trim();
+    }
+}
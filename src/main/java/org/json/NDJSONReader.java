@@ -0,0 +1,545 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An NDJSONReader reads newline-delimited JSON, also known as JSON Lines: a
+ * text holding one JSONObject per line. The records are returned one at a
+ * time by {@link #next()}, all read by the same {@link JSONTokener}, so only
+ * the record being read is held in memory.
+ * <p>
+ * Blank lines are ignored. A record must end at the end of its line, but may
+ * be followed by spaces. Syntax errors report the line of the source they
+ * were found on.
+ * <pre>
+ * NDJSONReader records = new NDJSONReader(new FileInputStream(file));
+ * while (records.hasNext()) {
+ *     JSONObject record = records.next();
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * Large sources can be read on several threads with the <code>parallel</code>
+ * methods. The bytes are cut into chunks that end at newlines, each chunk is
+ * parsed by a task of an ExecutorService, and the records are returned in
+ * the order of the source, or in the order the chunks are finished.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class NDJSONReader implements Iterator<JSONObject> {
+
+    /** Default number of bytes in a chunk read by one task. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /** Size of the block read from a file to find the end of a line. */
+    private static final int LINE_SCAN_SIZE = 4096;
+
+    /** The tokener reading the records. */
+    private final JSONTokener x;
+
+    /**
+     * Construct an NDJSONReader from a Reader. The Reader is read in blocks
+     * to its end. The caller must close the Reader.
+     *
+     * @param reader A reader.
+     */
+    public NDJSONReader(Reader reader) {
+        this(reader, JSONParserConfiguration.ORIGINAL);
+    }
+
+    /**
+     * Construct an NDJSONReader from a Reader, using a parser configuration.
+     * The Reader is read in blocks to its end. The caller must close the
+     * Reader.
+     *
+     * @param reader A reader.
+     * @param configuration The parser configuration.
+     */
+    public NDJSONReader(Reader reader, JSONParserConfiguration configuration) {
+        this(new JSONTokener(reader, configuration, true));
+    }
+
+    /**
+     * Construct an NDJSONReader from an InputStream of UTF-8 bytes. The caller
+     * must close the input stream.
+     *
+     * @param inputStream The source.
+     */
+    public NDJSONReader(InputStream inputStream) {
+        this(new JSONTokener(inputStream));
+    }
+
+    /**
+     * Construct an NDJSONReader from an InputStream of UTF-8 bytes, using a
+     * parser configuration. The caller must close the input stream.
+     *
+     * @param inputStream The source.
+     * @param configuration The parser configuration.
+     */
+    public NDJSONReader(InputStream inputStream, JSONParserConfiguration configuration) {
+        this(new JSONTokener(inputStream, configuration));
+    }
+
+    /**
+     * Construct an NDJSONReader that reads the records from a JSONTokener.
+     *
+     * @param x A tokener.
+     */
+    public NDJSONReader(JSONTokener x) {
+        this.x = x;
+    }
+
+    /**
+     * Checks if there is another record.
+     *
+     * @return true if a record follows.
+     * @throws JSONException If the source can not be read.
+     */
+    @Override
+    public boolean hasNext() throws JSONException {
+        if (this.x.nextClean() == 0) {
+            return false;
+        }
+        this.x.back();
+        return true;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The JSONObject on the next line that is not blank.
+     * @throws JSONException If the record is not a JSONObject, has a syntax
+     *  error, or is followed by more text on its line.
+     * @throws NoSuchElementException If there are no more records.
+     */
+    @Override
+    public JSONObject next() throws JSONException {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JSONObject record = new JSONObject(this.x);
+        for (;;) {
+            char c = this.x.next();
+            if (c == 0 || c == '\n') {
+                return record;
+            }
+            if (c > ' ') {
+                throw this.x.syntaxError("Expected a newline after a record");
+            }
+        }
+    }
+
+    /**
+     * Records can not be removed.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read the records of UTF-8 newline-delimited JSON on the threads of an
+     * ExecutorService. See {@link #parallel(ByteBuffer, ExecutorService,
+     * boolean, int, JSONParserConfiguration)}.
+     *
+     * @param bytes The UTF-8 bytes between the position and the limit.
+     * @param executor The executor running the chunk tasks.
+     * @param ordered true to return the records in the order of the source.
+     * @return An iterator over the records.
+     */
+    public static Iterator<JSONObject> parallel(ByteBuffer bytes, ExecutorService executor,
+            boolean ordered) {
+        return parallel(bytes, executor, ordered, DEFAULT_CHUNK_SIZE, JSONParserConfiguration.ORIGINAL);
+    }
+
+    /**
+     * Read the records of UTF-8 newline-delimited JSON on the threads of an
+     * ExecutorService. The bytes are cut into chunks of about
+     * <code>chunkSize</code> bytes, each ending at a newline, so every record
+     * must be on a single line. The position of the buffer is not changed. A
+     * MappedByteBuffer of a file is read without loading all of it into the
+     * heap.
+     * <p>
+     * Only a few chunks are parsed ahead of the records being returned, so
+     * the memory used does not grow with the size of the source. A syntax
+     * error is thrown by <code>hasNext()</code> or <code>next()</code> when
+     * its chunk is reached, giving the position of the chunk in the source.
+     * The tasks of the other chunks are then cancelled, and no more records
+     * are returned.
+     *
+     * @param bytes The UTF-8 bytes between the position and the limit.
+     * @param executor The executor running the chunk tasks.
+     * @param ordered true to return the records in the order of the source,
+     *  false to return the records of each chunk as soon as it is parsed.
+     * @param chunkSize The number of bytes to give each task, at least 1.
+     * @param configuration The parser configuration.
+     * @return An iterator over the records.
+     * @throws IllegalArgumentException If chunkSize is less than 1.
+     */
+    public static Iterator<JSONObject> parallel(ByteBuffer bytes, ExecutorService executor,
+            boolean ordered, int chunkSize, JSONParserConfiguration configuration) {
+        checkChunkSize(chunkSize);
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        final int limit = bytes.limit();
+        int start = bytes.position();
+        while (start < limit) {
+            int end = start + Math.min(chunkSize, limit - start);
+            while (end < limit && bytes.get(end - 1) != '\n') {
+                end++;
+            }
+            ByteBuffer chunk = bytes.duplicate();
+            chunk.limit(end);
+            chunk.position(start);
+            chunks.add(new Chunk(chunk, start - bytes.position()));
+            start = end;
+        }
+        return new ParallelRecords(chunks.iterator(), executor, ordered, configuration);
+    }
+
+    /**
+     * Check the size of the chunks given to the tasks of a parallel read.
+     *
+     * @param chunkSize The number of bytes to give each task.
+     * @throws IllegalArgumentException If chunkSize is less than 1.
+     */
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size " + chunkSize + " is not a positive number.");
+        }
+    }
+
+    /**
+     * Read the records of a file of UTF-8 newline-delimited JSON on the
+     * threads of an ExecutorService. See {@link #parallel(File,
+     * ExecutorService, boolean, int, JSONParserConfiguration)}.
+     *
+     * @param file The file.
+     * @param executor The executor running the chunk tasks.
+     * @param ordered true to return the records in the order of the file.
+     * @return An iterator over the records.
+     * @throws JSONException If the file can not be read.
+     */
+    public static Iterator<JSONObject> parallel(File file, ExecutorService executor,
+            boolean ordered) throws JSONException {
+        return parallel(file, executor, ordered, DEFAULT_CHUNK_SIZE, JSONParserConfiguration.ORIGINAL);
+    }
+
+    /**
+     * Read the records of a file of UTF-8 newline-delimited JSON on the
+     * threads of an ExecutorService. Each chunk of the file is memory mapped
+     * on its own when its task is submitted, so files larger than 2 GB can be
+     * read, and only the chunks being parsed are mapped. See
+     * {@link #parallel(ByteBuffer, ExecutorService, boolean, int,
+     * JSONParserConfiguration)}.
+     *
+     * @param file The file.
+     * @param executor The executor running the chunk tasks.
+     * @param ordered true to return the records in the order of the file,
+     *  false to return the records of each chunk as soon as it is parsed.
+     * @param chunkSize The number of bytes to give each task, at least 1.
+     * @param configuration The parser configuration.
+     * @return An iterator over the records.
+     * @throws JSONException If the file can not be read.
+     * @throws IllegalArgumentException If chunkSize is less than 1.
+     */
+    public static Iterator<JSONObject> parallel(File file, ExecutorService executor,
+            boolean ordered, int chunkSize, JSONParserConfiguration configuration)
+            throws JSONException {
+        checkChunkSize(chunkSize);
+        final long size;
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                size = randomAccessFile.length();
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return new ParallelRecords(new FileChunks(file, size, chunkSize), executor, ordered, configuration);
+    }
+
+    /**
+     * A part of the source, parsed by one task.
+     */
+    private static final class Chunk {
+
+        /** The UTF-8 bytes of the chunk. */
+        final ByteBuffer bytes;
+
+        /** The position of the chunk in the source. */
+        final long offset;
+
+        Chunk(ByteBuffer bytes, long offset) {
+            this.bytes = bytes;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * The chunks of a file, each memory mapped when it is asked for. The
+     * file is opened again for each chunk, so it is not left open by an
+     * iteration that is not finished.
+     */
+    private static final class FileChunks implements Iterator<Chunk> {
+
+        /** The file. */
+        private final File file;
+
+        /** The size of the file when it was first opened. */
+        private final long size;
+
+        /** The number of bytes to give each task. */
+        private final int chunkSize;
+
+        /** The position of the next chunk. */
+        private long start;
+
+        FileChunks(File file, long size, int chunkSize) {
+            this.file = file;
+            this.size = size;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.start < this.size;
+        }
+
+        @Override
+        public Chunk next() throws JSONException {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final long chunkStart = this.start;
+            try {
+                RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "r");
+                try {
+                    // mapped buffers stay valid after the channel is closed.
+                    FileChannel channel = randomAccessFile.getChannel();
+                    long end = chunkStart + Math.min(this.chunkSize, this.size - chunkStart);
+                    if (end < this.size) {
+                        end = lineEnd(channel, end - 1, this.size);
+                    }
+                    ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, end - chunkStart);
+                    this.start = end;
+                    return new Chunk(bytes, chunkStart);
+                } finally {
+                    randomAccessFile.close();
+                }
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Find the end of the line holding a position of a file.
+     *
+     * @param channel The channel of the file.
+     * @param position A position in the file.
+     * @param size The size of the file.
+     * @return The position after the next newline, or the size of the file.
+     * @throws IOException If the file can not be read.
+     */
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(LINE_SCAN_SIZE);
+        while (position < size) {
+            block.clear();
+            int count = channel.read(block, position);
+            if (count <= 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                if (block.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += count;
+        }
+        return size;
+    }
+
+    /**
+     * The records of chunks parsed by tasks of an ExecutorService.
+     */
+    private static final class ParallelRecords implements Iterator<JSONObject> {
+
+        /** The chunks not yet given to a task. */
+        private final Iterator<Chunk> chunks;
+
+        /** The parser configuration. */
+        private final JSONParserConfiguration configuration;
+
+        /** The executor running the chunk tasks. */
+        private final ExecutorService executor;
+
+        /** Most chunks parsed ahead of the records being returned. */
+        private final int window;
+
+        /** The submitted tasks not yet taken, in the order of the source. */
+        private final LinkedList<Future<List<JSONObject>>> pending;
+
+        /** The tasks in the order they finish, or null if ordered. */
+        private final CompletionService<List<JSONObject>> completion;
+
+        /** The number of submitted tasks not yet taken. */
+        private int running;
+
+        /** true once a chunk has failed, and the other tasks are cancelled. */
+        private boolean failed;
+
+        /** The records of the chunk being returned. */
+        private Iterator<JSONObject> current;
+
+        ParallelRecords(Iterator<Chunk> chunks, ExecutorService executor, boolean ordered,
+                JSONParserConfiguration configuration) {
+            this.chunks = chunks;
+            this.configuration = configuration;
+            this.executor = executor;
+            this.window = 2 * Runtime.getRuntime().availableProcessors();
+            this.pending = new LinkedList<Future<List<JSONObject>>>();
+            this.completion = ordered ? null : new ExecutorCompletionService<List<JSONObject>>(executor);
+            this.fill();
+        }
+
+        /**
+         * Submit chunks until the window is full or there are none left. A
+         * chunk is only taken from the source when it is submitted.
+         *
+         * @throws JSONException If a chunk can not be read.
+         */
+        private void fill() throws JSONException {
+            while (this.running < this.window && this.chunks.hasNext()) {
+                final Chunk chunk;
+                try {
+                    chunk = this.chunks.next();
+                } catch (JSONException e) {
+                    this.cancel();
+                    throw e;
+                }
+                final JSONParserConfiguration config = this.configuration;
+                Callable<List<JSONObject>> task = new Callable<List<JSONObject>>() {
+                    @Override
+                    public List<JSONObject> call() {
+                        return parseChunk(chunk.bytes, chunk.offset, config);
+                    }
+                };
+                this.pending.add(this.completion != null
+                        ? this.completion.submit(task) : this.executor.submit(task));
+                this.running++;
+            }
+        }
+
+        /**
+         * Cancel the tasks not yet taken, and submit no more.
+         */
+        private void cancel() {
+            this.failed = true;
+            for (Future<List<JSONObject>> future : this.pending) {
+                future.cancel(true);
+            }
+            this.pending.clear();
+            this.running = 0;
+            this.current = null;
+        }
+
+        @Override
+        public boolean hasNext() throws JSONException {
+            while (this.current == null || !this.current.hasNext()) {
+                if (this.running == 0 || this.failed) {
+                    return false;
+                }
+                try {
+                    Future<List<JSONObject>> future;
+                    if (this.completion == null) {
+                        future = this.pending.removeFirst();
+                    } else {
+                        future = this.completion.take();
+                        this.pending.remove(future);
+                    }
+                    this.running--;
+                    this.current = future.get().iterator();
+                } catch (InterruptedException e) {
+                    this.cancel();
+                    Thread.currentThread().interrupt();
+                    throw new JSONException(e);
+                } catch (ExecutionException e) {
+                    this.cancel();
+                    if (e.getCause() instanceof JSONException) {
+                        throw (JSONException) e.getCause();
+                    }
+                    throw new JSONException(e.getCause());
+                }
+                this.fill();
+            }
+            return true;
+        }
+
+        @Override
+        public JSONObject next() throws JSONException {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Parse the records of a chunk.
+     *
+     * @param chunk The UTF-8 bytes of the chunk.
+     * @param offset The position of the chunk in the source.
+     * @param configuration The parser configuration.
+     * @return The records.
+     * @throws JSONException If a record has a syntax error.
+     */
+    static List<JSONObject> parseChunk(ByteBuffer chunk, long offset,
+            JSONParserConfiguration configuration) throws JSONException {
+        List<JSONObject> records = new ArrayList<JSONObject>();
+        NDJSONReader reader = new NDJSONReader(new JSONTokener(chunk, configuration));
+        try {
+            while (reader.hasNext()) {
+                records.add(reader.next());
+            }
+        } catch (JSONException e) {
+            throw new JSONException(e.getMessage() + " in the chunk at byte " + offset, e);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,72 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * An NDJSONWriter writes newline-delimited JSON, also known as JSON Lines:
+ * each JSONObject is written compactly on a line of its own. The text goes
+ * straight to the Writer, without making a String of each record.
+ * <pre>
+ * NDJSONWriter records = new NDJSONWriter(writer);
+ * for (JSONObject record : list) {
+ *     records.write(record);
+ * }
+ * records.flush();
+ * </pre>
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+public class NDJSONWriter {
+
+    /** The writer receiving the text. */
+    private final Writer writer;
+
+    /**
+     * Construct an NDJSONWriter. The caller must close the Writer. A
+     * BufferedWriter is best when the writer writes to a file or a socket.
+     *
+     * @param writer The writer receiving the records.
+     */
+    public NDJSONWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write a record and the newline that ends it.
+     * <p><b>
+     * Warning: This method assumes that the data structure is acyclical.
+     * </b>
+     *
+     * @param record The record.
+     * @return this.
+     * @throws JSONException If the record can not be written.
+     */
+    public NDJSONWriter write(JSONObject record) throws JSONException {
+        record.write(this.writer);
+        try {
+            this.writer.write('\n');
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Flush the writer.
+     *
+     * @throws JSONException If the writer can not be flushed.
+     */
+    public void flush() throws JSONException {
+        try {
+            this.writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+}
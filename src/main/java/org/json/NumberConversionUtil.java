@@ -0,0 +1,289 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The conversion of text to numbers shared by {@link JSONObject},
+ * {@link JSONTokener} and {@link XML}.
+ * <p>
+ * Integers and decimals of up to 18 digits are accumulated into a long
+ * straight from the text. Longer ones, and text in any form other than plain
+ * ASCII digits, go through BigInteger and BigDecimal as before, so the result
+ * is always the same.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class NumberConversionUtil {
+
+    /** Most digits that always fit in a long. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Most digits of an exponent that is read directly. */
+    private static final int MAX_EXPONENT_DIGITS = 9;
+
+    private NumberConversionUtil() {
+    }
+
+    /**
+     * Try to convert a string into a number, boolean, or null. If the string
+     * can't be converted, return the string.
+     *
+     * @param string
+     *            A String. can not be null.
+     * @param decimalsAsDouble
+     *            true to convert decimals to Double instead of BigDecimal.
+     * @return A simple JSON value.
+     * @throws NullPointerException
+     *             Thrown if the string is null.
+     */
+    static Object stringToValue(String string, boolean decimalsAsDouble) {
+        if ("".equals(string)) {
+            return string;
+        }
+
+        // check JSON key words true/false/null
+        if ("true".equalsIgnoreCase(string)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(string)) {
+            return Boolean.FALSE;
+        }
+        if ("null".equalsIgnoreCase(string)) {
+            return JSONObject.NULL;
+        }
+
+        /*
+         * If it might be a number, try converting it. If a number cannot be
+         * produced, then the value will just be a string.
+         */
+
+        char initial = string.charAt(0);
+        if ((initial >= '0' && initial <= '9') || initial == '-') {
+            try {
+                return stringToNumber(string, decimalsAsDouble);
+            } catch (Exception ignore) {
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Converts a string to a number using the narrowest possible type. Possible
+     * returns for this function are BigDecimal, Double, BigInteger, Long, and Integer.
+     * When a Double is returned, it should always be a valid Double and not NaN or +-infinity.
+     *
+     * @param val value to convert
+     * @param decimalsAsDouble true to convert decimals to Double instead of
+     *      BigDecimal. Decimals out of the range of a double are still
+     *      converted to BigDecimal.
+     * @return Number representation of the value.
+     * @throws NumberFormatException thrown if the value is not a valid number.
+     */
+    static Number stringToNumber(final String val, boolean decimalsAsDouble) throws NumberFormatException {
+        char initial = val.charAt(0);
+        if ((initial >= '0' && initial <= '9') || initial == '-') {
+            // decimal representation
+            if (isDecimalNotation(val)) {
+                if (decimalsAsDouble) {
+                    try {
+                        Double d = Double.valueOf(val);
+                        if (!d.isNaN() && !d.isInfinite()) {
+                            return d;
+                        }
+                    } catch (NumberFormatException ignore) {
+                        // fall through to the BigDecimal conversion
+                    }
+                }
+                Number number = parseDecimal(val);
+                if (number != null) {
+                    return number;
+                }
+                // Use a BigDecimal all the time so we keep the original
+                // representation. BigDecimal doesn't support -0.0, ensure we
+                // keep that by forcing a decimal.
+                try {
+                    BigDecimal bd = new BigDecimal(val);
+                    if(initial == '-' && BigDecimal.ZERO.compareTo(bd)==0) {
+                        return Double.valueOf(-0.0);
+                    }
+                    return bd;
+                } catch (NumberFormatException retryAsDouble) {
+                    // this is to support "Hex Floats" like this: 0x1.0P-1074
+                    try {
+                        Double d = Double.valueOf(val);
+                        if(d.isNaN() || d.isInfinite()) {
+                            throw new NumberFormatException("val ["+val+"] is not a valid number.");
+                        }
+                        return d;
+                    } catch (NumberFormatException ignore) {
+                        throw new NumberFormatException("val ["+val+"] is not a valid number.");
+                    }
+                }
+            }
+            // block items like 00 01 etc. Java number parsers treat these as Octal.
+            if(initial == '0' && val.length() > 1) {
+                char at1 = val.charAt(1);
+                if(at1 >= '0' && at1 <= '9') {
+                    throw new NumberFormatException("val ["+val+"] is not a valid number.");
+                }
+            } else if (initial == '-' && val.length() > 2) {
+                char at1 = val.charAt(1);
+                char at2 = val.charAt(2);
+                if(at1 == '0' && at2 >= '0' && at2 <= '9') {
+                    throw new NumberFormatException("val ["+val+"] is not a valid number.");
+                }
+            }
+            // integer representation.
+            // This will narrow any values to the smallest reasonable Object representation
+            // (Integer, Long, or BigInteger)
+            Number number = parseInteger(val);
+            if (number != null) {
+                return number;
+            }
+
+            // BigInteger down conversion: We use a similar bitLength compare as
+            // BigInteger#intValueExact uses. Increases GC, but objects hold
+            // only what they need. i.e. Less runtime overhead if the value is
+            // long lived.
+            BigInteger bi = new BigInteger(val);
+            if(bi.bitLength() <= 31){
+                return Integer.valueOf(bi.intValue());
+            }
+            if(bi.bitLength() <= 63){
+                return Long.valueOf(bi.longValue());
+            }
+            return bi;
+        }
+        throw new NumberFormatException("val ["+val+"] is not a valid number.");
+    }
+
+    /**
+     * Tests if the value should be tried as a decimal. It makes no test if there are actual digits.
+     *
+     * @param val value to test
+     * @return true if the string is "-0" or if it contains '.', 'e', or 'E', false otherwise.
+     */
+    static boolean isDecimalNotation(final String val) {
+        return val.indexOf('.') > -1 || val.indexOf('e') > -1
+                || val.indexOf('E') > -1 || "-0".equals(val);
+    }
+
+    /**
+     * Accumulate an integer of ASCII digits into a long.
+     *
+     * @param val The text, an optional minus sign followed by digits.
+     * @return An Integer or Long, or null if the text is in another form or
+     *  does not fit in a long.
+     */
+    private static Number parseInteger(String val) {
+        final int length = val.length();
+        final boolean negative = val.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        if (i == length) {
+            return null;
+        }
+        // accumulate negatively, as the range of negative longs is larger.
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multmin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = val.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multmin) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        if (!negative) {
+            result = -result;
+        }
+        if (result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+            return Integer.valueOf((int) result);
+        }
+        return Long.valueOf(result);
+    }
+
+    /**
+     * Accumulate a decimal of up to 18 ASCII digits into the unscaled value of
+     * a BigDecimal.
+     *
+     * @param val The text, in the form
+     *  <code>-?[0-9]+(\.[0-9]+)?([eE][+-]?[0-9]+)?</code>.
+     * @return The same BigDecimal as <code>new BigDecimal(val)</code>, the
+     *  Double -0.0 for a negative zero, or null if the text is in another
+     *  form or has too many digits.
+     */
+    private static Number parseDecimal(String val) {
+        final int length = val.length();
+        final boolean negative = val.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        int start = i;
+        for (; i < length && isDigit(val.charAt(i)); i++) {
+            unscaled = unscaled * 10 + (val.charAt(i) - '0');
+            digits++;
+        }
+        if (i == start) {
+            return null;
+        }
+        if (i < length && val.charAt(i) == '.') {
+            start = ++i;
+            for (; i < length && isDigit(val.charAt(i)); i++) {
+                unscaled = unscaled * 10 + (val.charAt(i) - '0');
+                digits++;
+            }
+            if (i == start) {
+                return null;
+            }
+            scale = i - start;
+        }
+        if (digits > MAX_LONG_DIGITS) {
+            return null;
+        }
+        if (i < length && (val.charAt(i) == 'e' || val.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (val.charAt(i) == '+' || val.charAt(i) == '-')) {
+                negativeExponent = val.charAt(i) == '-';
+                i++;
+            }
+            start = i;
+            int exponent = 0;
+            for (; i < length && isDigit(val.charAt(i)); i++) {
+                exponent = exponent * 10 + (val.charAt(i) - '0');
+            }
+            if (i == start || i - start > MAX_EXPONENT_DIGITS) {
+                return null;
+            }
+            scale = negativeExponent ? scale + exponent : scale - exponent;
+        }
+        if (i != length) {
+            return null;
+        }
+        if (unscaled == 0 && negative) {
+            return Double.valueOf(-0.0);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Checks if a character is an ASCII digit.
+     *
+     * @param c A character.
+     * @return true if c is between '0' and '9'.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
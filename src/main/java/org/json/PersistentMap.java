@@ -0,0 +1,526 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The immutable map of a persistent {@link JSONObject}: a hash array mapped
+ * trie. Each node holds the members and child nodes for one group of five
+ * bits of the hash codes of the keys, and a bitmap of which groups it
+ * holds. {@link #with(String, Object)} and {@link #without(String)} make a
+ * new map that copies only the nodes on the path to the key, at most seven,
+ * and shares all the others with this one. Every method of the Map
+ * interface that would change the map throws an
+ * UnsupportedOperationException. The order of the members is unspecified.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class PersistentMap extends AbstractMap<String, Object> {
+
+    /** The map without members. */
+    static final PersistentMap EMPTY = new PersistentMap(null, 0);
+
+    /** The number of bits of the hash code used by each level. */
+    private static final int BITS = 5;
+
+    /** The most nodes on a path from the root: seven levels and a collision node. */
+    private static final int MAX_DEPTH = 8;
+
+    /** The root node, or null if the map is empty. */
+    private final Node root;
+
+    /** The number of members. */
+    private final int size;
+
+    /**
+     * Construct a PersistentMap.
+     *
+     * @param root The root node.
+     * @param size The number of members.
+     */
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Make a map with the members of another map.
+     *
+     * @param map The members. Values kept as text are parsed.
+     * @return The map.
+     */
+    static PersistentMap of(Map<String, Object> map) {
+        PersistentMap result = EMPTY;
+        for (Entry<String, Object> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof LazyValue) {
+                value = ((LazyValue) value).parse();
+            }
+            result = result.with(entry.getKey(), value);
+        }
+        return result;
+    }
+
+    /**
+     * Make a map with the members of this one, and a key set to a value.
+     *
+     * @param key The key.
+     * @param value The value, not null.
+     * @return The new map, or this map if the key already has the value.
+     */
+    PersistentMap with(String key, Object value) {
+        final int hash = key.hashCode();
+        final boolean[] added = new boolean[1];
+        final Node node = this.root == null
+                ? new BitmapNode(0, new Object[0]).with(key, hash, value, 0, added)
+                : this.root.with(key, hash, value, 0, added);
+        if (node == this.root) {
+            return this;
+        }
+        return new PersistentMap(node, added[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Make a map with the members of this one except a key.
+     *
+     * @param key The key.
+     * @return The new map, or this map if it does not have the key.
+     */
+    PersistentMap without(String key) {
+        if (this.root == null) {
+            return this;
+        }
+        final Node node = this.root.without(key, key.hashCode(), 0);
+        if (node == this.root) {
+            return this;
+        }
+        return node == null ? EMPTY : new PersistentMap(node, this.size - 1);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.root == null || !(key instanceof String)) {
+            return null;
+        }
+        return this.root.get((String) key, key.hashCode(), 0);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        throw persistent();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw persistent();
+    }
+
+    @Override
+    public void clear() {
+        throw persistent();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public int size() {
+                return PersistentMap.this.size;
+            }
+
+            @Override
+            public void clear() {
+                throw persistent();
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator(PersistentMap.this.root);
+            }
+        };
+    }
+
+    /**
+     * Make the exception thrown by the methods that would change the map.
+     *
+     * @return An UnsupportedOperationException.
+     */
+    private static UnsupportedOperationException persistent() {
+        return new UnsupportedOperationException("JSONObject is persistent: use with or without.");
+    }
+
+    /**
+     * Copy an array, setting one element.
+     *
+     * @param array The array.
+     * @param i The index of the element.
+     * @param value The new element.
+     * @return The copy.
+     */
+    private static Object[] set(Object[] array, int i, Object value) {
+        Object[] copy = array.clone();
+        copy[i] = value;
+        return copy;
+    }
+
+    /**
+     * Copy an array of pairs, leaving one pair out.
+     *
+     * @param array The array.
+     * @param pair The index of the pair.
+     * @return The copy.
+     */
+    private static Object[] removePair(Object[] array, int pair) {
+        Object[] copy = new Object[array.length - 2];
+        System.arraycopy(array, 0, copy, 0, 2 * pair);
+        System.arraycopy(array, 2 * pair + 2, copy, 2 * pair, copy.length - 2 * pair);
+        return copy;
+    }
+
+    /**
+     * Copy an array of pairs, inserting a pair.
+     *
+     * @param array The array.
+     * @param pair The index of the new pair.
+     * @param key The key, or null for a child node.
+     * @param value The value or child node.
+     * @return The copy.
+     */
+    private static Object[] insertPair(Object[] array, int pair, Object key, Object value) {
+        Object[] copy = new Object[array.length + 2];
+        System.arraycopy(array, 0, copy, 0, 2 * pair);
+        copy[2 * pair] = key;
+        copy[2 * pair + 1] = value;
+        System.arraycopy(array, 2 * pair, copy, 2 * pair + 2, array.length - 2 * pair);
+        return copy;
+    }
+
+    /**
+     * A node of the trie. Its array holds pairs of a key and its value, or
+     * of null and a child node.
+     */
+    private abstract static class Node {
+
+        /** The pairs. */
+        final Object[] array;
+
+        /**
+         * Construct a Node.
+         *
+         * @param array The pairs.
+         */
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        /**
+         * Find the value of a key.
+         *
+         * @param key The key.
+         * @param hash The hash code of the key.
+         * @param shift The position of the bits of the hash code used by
+         *  this node.
+         * @return The value, or null.
+         */
+        abstract Object get(String key, int hash, int shift);
+
+        /**
+         * Make a node with the members of this one, and a key set to a value.
+         *
+         * @param key The key.
+         * @param hash The hash code of the key.
+         * @param value The value.
+         * @param shift The position of the bits of the hash code used by
+         *  this node.
+         * @param added Set to true if the key is new.
+         * @return The new node, or this node if the key already has the value.
+         */
+        abstract Node with(String key, int hash, Object value, int shift, boolean[] added);
+
+        /**
+         * Make a node with the members of this one except a key.
+         *
+         * @param key The key.
+         * @param hash The hash code of the key.
+         * @param shift The position of the bits of the hash code used by
+         *  this node.
+         * @return The new node, this node if it does not have the key, or
+         *  null if the key was its only member.
+         */
+        abstract Node without(String key, int hash, int shift);
+    }
+
+    /**
+     * A node holding a pair for each group of bits in its bitmap, in the
+     * order of the bits.
+     */
+    private static final class BitmapNode extends Node {
+
+        /** The groups of bits that the node has a pair for. */
+        private final int bitmap;
+
+        /**
+         * Construct a BitmapNode.
+         *
+         * @param bitmap The groups of bits that the node has a pair for.
+         * @param array The pairs.
+         */
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object get(String key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            final int i = 2 * Integer.bitCount(this.bitmap & (bit - 1));
+            final Object k = this.array[i];
+            if (k == null) {
+                return ((Node) this.array[i + 1]).get(key, hash, shift + BITS);
+            }
+            return key.equals(k) ? this.array[i + 1] : null;
+        }
+
+        @Override
+        Node with(String key, int hash, Object value, int shift, boolean[] added) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+            final int pair = Integer.bitCount(this.bitmap & (bit - 1));
+            if ((this.bitmap & bit) == 0) {
+                added[0] = true;
+                return new BitmapNode(this.bitmap | bit, insertPair(this.array, pair, key, value));
+            }
+            final Object k = this.array[2 * pair];
+            final Object v = this.array[2 * pair + 1];
+            if (k == null) {
+                Node child = ((Node) v).with(key, hash, value, shift + BITS, added);
+                return child == v ? this : new BitmapNode(this.bitmap, set(this.array, 2 * pair + 1, child));
+            }
+            if (key.equals(k)) {
+                return value == v ? this : new BitmapNode(this.bitmap, set(this.array, 2 * pair + 1, value));
+            }
+            added[0] = true;
+            Node child = split((String) k, v, key, hash, value, shift + BITS);
+            Object[] copy = set(this.array, 2 * pair, null);
+            copy[2 * pair + 1] = child;
+            return new BitmapNode(this.bitmap, copy);
+        }
+
+        @Override
+        Node without(String key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            final int pair = Integer.bitCount(this.bitmap & (bit - 1));
+            final Object k = this.array[2 * pair];
+            final Object v = this.array[2 * pair + 1];
+            if (k == null) {
+                Node child = ((Node) v).without(key, hash, shift + BITS);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return new BitmapNode(this.bitmap, set(this.array, 2 * pair + 1, child));
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (this.bitmap == bit) {
+                return null;
+            }
+            return new BitmapNode(this.bitmap ^ bit, removePair(this.array, pair));
+        }
+
+        /**
+         * Make a node holding two members whose keys fall in the same group
+         * of bits of the node above it.
+         *
+         * @param key1 The first key.
+         * @param value1 The value of the first key.
+         * @param key2 The second key.
+         * @param hash2 The hash code of the second key.
+         * @param value2 The value of the second key.
+         * @param shift The position of the bits of the hash code used by
+         *  the new node.
+         * @return The new node.
+         */
+        private static Node split(String key1, Object value1, String key2, int hash2, Object value2, int shift) {
+            final int hash1 = key1.hashCode();
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            final boolean[] added = new boolean[1];
+            return new BitmapNode(0, new Object[0]).with(key1, hash1, value1, shift, added)
+                    .with(key2, hash2, value2, shift, added);
+        }
+    }
+
+    /**
+     * A node holding the members whose keys all have the same hash code.
+     */
+    private static final class CollisionNode extends Node {
+
+        /** The hash code of the keys. */
+        private final int hash;
+
+        /**
+         * Construct a CollisionNode.
+         *
+         * @param hash The hash code of the keys.
+         * @param array The pairs.
+         */
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        /**
+         * Find the pair of a key.
+         *
+         * @param key The key.
+         * @return The index of the pair, or -1.
+         */
+        private int indexOf(String key) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                if (key.equals(this.array[i])) {
+                    return i / 2;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(String key, int hash, int shift) {
+            final int pair = hash == this.hash ? this.indexOf(key) : -1;
+            return pair >= 0 ? this.array[2 * pair + 1] : null;
+        }
+
+        @Override
+        Node with(String key, int hash, Object value, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // Put this node under a node that tells the hash codes apart.
+                Node parent = new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[] {null, this});
+                return parent.with(key, hash, value, shift, added);
+            }
+            final int pair = this.indexOf(key);
+            if (pair < 0) {
+                added[0] = true;
+                return new CollisionNode(hash, insertPair(this.array, this.array.length / 2, key, value));
+            }
+            if (this.array[2 * pair + 1] == value) {
+                return this;
+            }
+            return new CollisionNode(hash, set(this.array, 2 * pair + 1, value));
+        }
+
+        @Override
+        Node without(String key, int hash, int shift) {
+            final int pair = hash == this.hash ? this.indexOf(key) : -1;
+            if (pair < 0) {
+                return this;
+            }
+            if (this.array.length == 2) {
+                return null;
+            }
+            return new CollisionNode(hash, removePair(this.array, pair));
+        }
+    }
+
+    /**
+     * Iterates over the members of a trie, depth first.
+     */
+    private static final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        /** The arrays of the nodes on the path to the next member. */
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+        /** The position of the next pair in each array. */
+        private final int[] positions = new int[MAX_DEPTH];
+
+        /** The index of the deepest array, or -1 at the end. */
+        private int depth = -1;
+
+        /** The next entry, or null at the end. */
+        private Entry<String, Object> next;
+
+        /**
+         * Construct an EntryIterator.
+         *
+         * @param root The root node, or null.
+         */
+        EntryIterator(Node root) {
+            if (root != null) {
+                this.depth = 0;
+                this.arrays[0] = root.array;
+            }
+            this.advance();
+        }
+
+        /**
+         * Find the next member.
+         */
+        private void advance() {
+            this.next = null;
+            while (this.depth >= 0) {
+                final Object[] a = this.arrays[this.depth];
+                final int p = this.positions[this.depth];
+                if (p >= a.length) {
+                    this.arrays[this.depth] = null;
+                    this.depth--;
+                    continue;
+                }
+                this.positions[this.depth] = p + 2;
+                if (a[p] == null) {
+                    this.depth++;
+                    this.arrays[this.depth] = ((Node) a[p + 1]).array;
+                    this.positions[this.depth] = 0;
+                } else {
+                    this.next = new SimpleImmutableEntry<String, Object>((String) a[p], a[p + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = this.next;
+            this.advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw persistent();
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A map that keeps its keys in a {@link Shape} shared with the other maps
+ * that have the same keys in the same order, and its values in an array
+ * indexed by the slots of the shape. It is made by a
+ * {@link JSONShapedMapFactory}. Putting a new key or removing one moves the
+ * map to another shape. When the map would have more than
+ * {@link Shape#MAX_WIDTH} keys, or the factory will not keep more keys in its
+ * shapes, the map moves its members to a LinkedHashMap. The members are kept in the order
+ * they were first put. Keys can not be null.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class ShapedMap extends AbstractMap<String, Object> {
+
+    /** The values of an empty map. */
+    private static final Object[] NO_VALUES = new Object[0];
+
+    /** The shape of the map, or null once the members are moved. */
+    private Shape shape;
+
+    /** The values, in the order of the keys of the shape. */
+    private Object[] values;
+
+    /** The map the members are moved to when no shape can be made. */
+    private Map<String, Object> map;
+
+    /** The view of the entries, made when it is first asked for. */
+    private Set<Entry<String, Object>> entries;
+
+    /**
+     * Construct an empty ShapedMap.
+     *
+     * @param root The shape without keys of the factory.
+     * @param expectedSize The number of members the map is expected to hold,
+     *  or 0 if it is not known.
+     */
+    ShapedMap(Shape root, int expectedSize) {
+        if (expectedSize > Shape.MAX_WIDTH) {
+            this.map = new LinkedHashMap<String, Object>(expectedSize);
+            this.values = NO_VALUES;
+        } else {
+            this.shape = root;
+            this.values = expectedSize > 0 ? new Object[expectedSize] : NO_VALUES;
+        }
+    }
+
+    /**
+     * Get the shape of the map.
+     *
+     * @return The shape, or null if the members have been moved to a
+     *  LinkedHashMap.
+     */
+    Shape getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Move the members to a LinkedHashMap.
+     */
+    private void moveToMap() {
+        final String[] keys = this.shape.keys;
+        final int size = this.shape.size;
+        Map<String, Object> moved = new LinkedHashMap<String, Object>(2 * size + 2);
+        for (int i = 0; i < size; i++) {
+            moved.put(keys[i], this.values[i]);
+        }
+        this.map = moved;
+        this.shape = null;
+        this.values = NO_VALUES;
+    }
+
+    @Override
+    public int size() {
+        return this.map != null ? this.map.size() : this.shape.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.map != null ? this.map.containsKey(key) : this.shape.slot(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (this.map != null) {
+            return this.map.get(key);
+        }
+        int i = this.shape.slot(key);
+        return i >= 0 ? this.values[i] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (key == null) {
+            throw new NullPointerException("Null key.");
+        }
+        if (this.map != null) {
+            return this.map.put(key, value);
+        }
+        int i = this.shape.slot(key);
+        if (i >= 0) {
+            Object old = this.values[i];
+            this.values[i] = value;
+            return old;
+        }
+        Shape next = this.shape.with(key);
+        if (next == null) {
+            this.moveToMap();
+            return this.map.put(key, value);
+        }
+        i = this.shape.size;
+        if (i == this.values.length) {
+            this.values = Arrays.copyOf(this.values, Math.max(i + 1, next.width));
+        }
+        this.values[i] = value;
+        this.shape = next;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (this.map != null) {
+            return this.map.remove(key);
+        }
+        int i = this.shape.slot(key);
+        if (i < 0) {
+            return null;
+        }
+        final Object old = this.values[i];
+        final int size = this.shape.size;
+        this.shape = this.shape.without(i);
+        System.arraycopy(this.values, i + 1, this.values, i, size - i - 1);
+        this.values[size - 1] = null;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        if (this.map != null) {
+            this.map.clear();
+        } else {
+            Arrays.fill(this.values, null);
+            this.shape = this.shape.root;
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (this.entries == null) {
+            this.entries = new EntrySet();
+        }
+        return this.entries;
+    }
+
+    /**
+     * The keys of a ShapedMap, in the order they were put. A shape is
+     * immutable, and is shared by all the maps that have its keys. Each
+     * shape remembers the shapes made from it by adding a key, so that maps
+     * that are given the same keys in the same order end up with the same
+     * shape.
+     * <p>
+     * The first shape made from a shape shares its array of keys and its
+     * table of slots, and only adds its key to them. A shape only reads
+     * the first {@link #size} keys, so the keys added after them by its
+     * descendants do not change it. A line of shapes made one key after
+     * another therefore keeps each key once. The other shapes made from a
+     * shape copy its keys.
+     */
+    static final class Shape {
+
+        /**
+         * Shapes with more keys than this find them with a table of slots.
+         */
+        private static final int MAX_SCANNED_KEYS = 8;
+
+        /**
+         * No shape has more keys than this. Wider objects are usually used as
+         * dictionaries, whose keys are not shared with other objects, so
+         * their maps keep them in a LinkedHashMap.
+         */
+        static final int MAX_WIDTH = 64;
+
+        /** The shape without keys that all the others are made from. */
+        final Shape root;
+
+        /** The shape this one was made from, or null. */
+        private final Shape parent;
+
+        /**
+         * The keys, in the order of the slots of the values. Only the first
+         * {@link #size} belong to this shape.
+         */
+        final String[] keys;
+
+        /** The number of keys. */
+        final int size;
+
+        /**
+         * The slots of the keys, when there are too many to scan, or null.
+         * Slots of {@link #size} or more belong to other shapes.
+         */
+        private final Map<String, Integer> slots;
+
+        /** The shapes made by adding a key to this one. */
+        private final ConcurrentMap<String, Shape> transitions;
+
+        /** true once a shape made from this one shares its keys. */
+        private final AtomicBoolean shared;
+
+        /** The number of keys the factory may still keep. */
+        private final AtomicInteger budget;
+
+        /**
+         * The most keys that a map has had after passing through this shape.
+         * It is used to size the values of maps that reach this shape.
+         */
+        volatile int width;
+
+        /**
+         * Construct a root Shape.
+         *
+         * @param maxKeys The most keys that may be kept by the shapes made
+         *  from it.
+         */
+        Shape(int maxKeys) {
+            this(null, new String[0], new AtomicInteger(maxKeys));
+        }
+
+        /**
+         * Construct a Shape with keys of its own.
+         *
+         * @param root The root shape, or null to make a root shape.
+         * @param keys The keys.
+         * @param budget The number of keys the factory may still keep.
+         */
+        private Shape(Shape root, String[] keys, AtomicInteger budget) {
+            this.root = root != null ? root : this;
+            this.parent = null;
+            this.keys = keys;
+            this.size = keys.length;
+            this.slots = keys.length > MAX_SCANNED_KEYS ? slotsOf(keys, keys.length) : null;
+            this.budget = budget;
+            this.width = keys.length;
+            this.transitions = new ConcurrentHashMap<String, Shape>(4);
+            this.shared = new AtomicBoolean();
+        }
+
+        /**
+         * Construct a Shape with the keys of another followed by a key.
+         *
+         * @param parent The shape this one is made from.
+         * @param key A key that is not in the parent.
+         * @param share true to add the key to the keys and slots of the
+         *  parent, false to copy them.
+         */
+        private Shape(Shape parent, String key, boolean share) {
+            final int n = parent.size;
+            String[] k;
+            Map<String, Integer> s;
+            if (share) {
+                k = parent.keys;
+                if (n == k.length) {
+                    k = Arrays.copyOf(k, Math.min(MAX_WIDTH, Math.max(4, 2 * n)));
+                }
+                s = parent.slots;
+            } else {
+                k = Arrays.copyOf(parent.keys, n + 1);
+                s = null;
+            }
+            k[n] = key;
+            if (n + 1 > MAX_SCANNED_KEYS) {
+                if (s == null) {
+                    s = slotsOf(k, n);
+                }
+                s.put(key, Integer.valueOf(n));
+            }
+            this.root = parent.root;
+            this.parent = parent;
+            this.keys = k;
+            this.size = n + 1;
+            this.slots = s;
+            this.budget = parent.budget;
+            this.width = n + 1;
+            this.transitions = new ConcurrentHashMap<String, Shape>(4);
+            this.shared = new AtomicBoolean();
+        }
+
+        /**
+         * Make a table of the slots of keys.
+         *
+         * @param keys The keys.
+         * @param size The number of keys to put in the table.
+         * @return The table, which may be read while a key is added.
+         */
+        private static Map<String, Integer> slotsOf(String[] keys, int size) {
+            Map<String, Integer> s = new ConcurrentHashMap<String, Integer>(2 * size + 2);
+            for (int i = 0; i < size; i++) {
+                s.put(keys[i], Integer.valueOf(i));
+            }
+            return s;
+        }
+
+        /**
+         * Find the slot of a key.
+         *
+         * @param key The key.
+         * @return The slot, or -1 if the shape does not have the key.
+         */
+        int slot(Object key) {
+            if (key == null) {
+                return -1;
+            }
+            if (this.slots != null) {
+                Integer slot = this.slots.get(key);
+                return slot != null && slot.intValue() < this.size ? slot.intValue() : -1;
+            }
+            final String[] k = this.keys;
+            for (int i = 0; i < this.size; i++) {
+                if (key.equals(k[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Get the shape with the keys of this one followed by another key.
+         * The keys that the new shape does not share are charged to the
+         * budget of the factory.
+         *
+         * @param key A key that is not in this shape.
+         * @return The shape, or null if this shape has {@link #MAX_WIDTH}
+         *  keys or the factory will not keep more keys.
+         */
+        Shape with(String key) {
+            Shape next = this.transitions.get(key);
+            if (next != null) {
+                return next;
+            }
+            if (this.size >= MAX_WIDTH) {
+                return null;
+            }
+            final boolean share = this.shared.compareAndSet(false, true);
+            final int cost = share ? 1 : this.size + 1;
+            if (this.budget.addAndGet(-cost) < 0) {
+                this.budget.addAndGet(cost);
+                if (share) {
+                    this.shared.set(false);
+                }
+                return null;
+            }
+            Shape made = new Shape(this, key, share);
+            next = this.transitions.putIfAbsent(key, made);
+            if (next != null) {
+                this.budget.addAndGet(cost);
+                return next;
+            }
+            for (Shape s = this; s != null && s.width < made.size; s = s.parent) {
+                s.width = made.size;
+            }
+            return made;
+        }
+
+        /**
+         * Get the shape with the keys of this one except one. It is made
+         * from the root by adding the other keys in order, so it is the
+         * shape shared by the maps given those keys. If the factory will not
+         * make the shapes needed, a shape of its own is made.
+         *
+         * @param slot The slot of the key to leave out.
+         * @return The shape.
+         */
+        Shape without(int slot) {
+            Shape s = this.root;
+            for (int i = 0; i < this.size && s != null; i++) {
+                if (i != slot) {
+                    s = s.with(this.keys[i]);
+                }
+            }
+            if (s != null) {
+                return s;
+            }
+            String[] k = new String[this.size - 1];
+            System.arraycopy(this.keys, 0, k, 0, slot);
+            System.arraycopy(this.keys, slot + 1, k, slot, k.length - slot);
+            return new Shape(this.root, k, this.budget);
+        }
+    }
+
+    /**
+     * The entries of the map. Once the members have been moved, the entries
+     * are those of the map they were moved to.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return ShapedMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ShapedMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            if (ShapedMap.this.map != null) {
+                return ShapedMap.this.map.entrySet().iterator();
+            }
+            return new SlotIterator();
+        }
+    }
+
+    /**
+     * Iterates over the entries of the slots.
+     */
+    private final class SlotIterator implements Iterator<Entry<String, Object>> {
+
+        /** The next slot. */
+        private int next;
+
+        /** The last slot returned, or -1. */
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < ShapedMap.this.size();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            return new SlotEntry(ShapedMap.this.shape.keys[this.last], this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            ShapedMap.this.remove(ShapedMap.this.shape.keys[this.last]);
+            this.next = this.last;
+            this.last = -1;
+        }
+    }
+
+    /**
+     * An entry of a slot. Setting its value writes through to the values.
+     */
+    private final class SlotEntry implements Entry<String, Object> {
+
+        /** The key. */
+        private final String key;
+
+        /** The slot of the key. */
+        private final int slot;
+
+        /**
+         * Construct a SlotEntry.
+         *
+         * @param key The key.
+         * @param slot The slot of the key.
+         */
+        SlotEntry(String key, int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return ShapedMap.this.values[this.slot];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = ShapedMap.this.values[this.slot];
+            ShapedMap.this.values[this.slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) other;
+            Object value = this.getValue();
+            return this.key.equals(e.getKey())
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = this.getValue();
+            return this.key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.getValue();
+        }
+    }
+}
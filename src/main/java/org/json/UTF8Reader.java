@@ -0,0 +1,325 @@
+package org.json;
+
+/*
+Public Domain.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * A Reader that decodes UTF-8 bytes from a byte array, a ByteBuffer or an
+ * InputStream. It is used by the byte oriented {@link JSONTokener}
+ * constructors, which fill their character buffer straight from the bytes
+ * instead of going through an InputStreamReader and its charset decoder.
+ * <p>
+ * Malformed or truncated byte sequences are replaced by U+FFFD, and a leading
+ * byte order mark is skipped.
+ *
+ * @author JSON.org
+ * @version 2026-10-18
+ */
+final class UTF8Reader extends Reader {
+    /** The Unicode replacement character. */
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /** The Unicode byte order mark. */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /** Offset from a supplementary code point shifted right by 10 to its high surrogate. */
+    private static final int HIGH_SURROGATE_OFFSET =
+            Character.MIN_HIGH_SURROGATE - (Character.MIN_SUPPLEMENTARY_CODE_POINT >>> 10);
+
+    /** Size of the byte window when reading from a stream or direct buffer. */
+    private static final int BYTE_BUFFER_SIZE = 8192;
+
+    /** Stream the bytes are read from, or null. */
+    private InputStream inputStream;
+
+    /** Direct ByteBuffer the bytes are copied from, or null. */
+    private ByteBuffer byteBuffer;
+
+    /** Byte window owned by this reader, kept for reuse, or null. */
+    private byte[] window;
+
+    /** Bytes being decoded. */
+    private byte[] bytes;
+
+    /** Position of the next byte to decode. */
+    private int position;
+
+    /** Position after the last valid byte. */
+    private int limit;
+
+    /** true when all of the input is in the byte window. */
+    private boolean complete;
+
+    /** Low surrogate waiting to be returned, or 0. */
+    private char pendingLowSurrogate;
+
+    /** true until the first character has been decoded. */
+    private boolean atStart;
+
+    /**
+     * Decode a range of a byte array. The array is read in place.
+     *
+     * @param bytes The UTF-8 bytes.
+     * @param offset Position of the first byte.
+     * @param length Number of bytes.
+     */
+    UTF8Reader(byte[] bytes, int offset, int length) {
+        this.inputStream = null;
+        this.byteBuffer = null;
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        this.complete = true;
+        this.atStart = true;
+    }
+
+    /**
+     * Decode the bytes from the position to the limit of a ByteBuffer. The
+     * position of the buffer is not changed. A buffer backed by an array is
+     * read in place.
+     *
+     * @param buffer The UTF-8 bytes.
+     */
+    UTF8Reader(ByteBuffer buffer) {
+        this.inputStream = null;
+        this.atStart = true;
+        if (buffer.hasArray()) {
+            this.byteBuffer = null;
+            this.bytes = buffer.array();
+            this.position = buffer.arrayOffset() + buffer.position();
+            this.limit = buffer.arrayOffset() + buffer.limit();
+            this.complete = true;
+        } else {
+            this.byteBuffer = buffer.duplicate();
+            this.window = new byte[BYTE_BUFFER_SIZE];
+            this.bytes = this.window;
+        }
+    }
+
+    /**
+     * Decode the bytes of an InputStream. The caller must close the stream.
+     *
+     * @param inputStream The UTF-8 bytes.
+     */
+    UTF8Reader(InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.byteBuffer = null;
+        this.window = new byte[BYTE_BUFFER_SIZE];
+        this.bytes = this.window;
+        this.atStart = true;
+    }
+
+    /**
+     * Start decoding a range of a byte array, as if newly constructed.
+     *
+     * @param bytes The UTF-8 bytes.
+     * @param offset Position of the first byte.
+     * @param length Number of bytes.
+     */
+    void reset(byte[] bytes, int offset, int length) {
+        this.reset(bytes, offset, length, true);
+    }
+
+    /**
+     * Start decoding a range of a byte array.
+     *
+     * @param bytes The UTF-8 bytes.
+     * @param offset Position of the first byte.
+     * @param length Number of bytes.
+     * @param atStart true to skip a byte order mark at the start of the
+     *  range, false if the range is part of a larger text.
+     */
+    void reset(byte[] bytes, int offset, int length, boolean atStart) {
+        this.inputStream = null;
+        this.byteBuffer = null;
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        this.complete = true;
+        this.pendingLowSurrogate = 0;
+        this.atStart = atStart;
+    }
+
+    /**
+     * Start decoding the bytes of another InputStream, as if newly
+     * constructed. The byte window of this reader is reused.
+     *
+     * @param inputStream The UTF-8 bytes.
+     */
+    void reset(InputStream inputStream) {
+        if (this.window == null) {
+            this.window = new byte[BYTE_BUFFER_SIZE];
+        }
+        this.inputStream = inputStream;
+        this.byteBuffer = null;
+        this.bytes = this.window;
+        this.position = 0;
+        this.limit = 0;
+        this.complete = false;
+        this.pendingLowSurrogate = 0;
+        this.atStart = true;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final int end = off + len;
+        int n = off;
+        if (this.pendingLowSurrogate != 0) {
+            cbuf[n++] = this.pendingLowSurrogate;
+            this.pendingLowSurrogate = 0;
+        }
+        while (n < end) {
+            if (this.position >= this.limit && !this.refill()) {
+                break;
+            }
+            final byte[] buf = this.bytes;
+
+            // ASCII runs are by far the most common, so copy them in a tight loop.
+            int max = Math.min(end - n, this.limit - this.position);
+            int b;
+            while (max > 0 && (b = buf[this.position]) >= 0) {
+                cbuf[n++] = (char) b;
+                this.position++;
+                max--;
+            }
+            if (max == 0) {
+                continue;
+            }
+            final int codePoint = this.decodeMultiByte();
+            if (codePoint < 0) {
+                // more bytes are needed and the window was refilled.
+                continue;
+            }
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                cbuf[n++] = (char) codePoint;
+            } else {
+                cbuf[n++] = (char) ((codePoint >>> 10) + HIGH_SURROGATE_OFFSET);
+                final char low = (char) ((codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE);
+                if (n < end) {
+                    cbuf[n++] = low;
+                } else {
+                    this.pendingLowSurrogate = low;
+                }
+            }
+        }
+        if (this.atStart && n > off) {
+            this.atStart = false;
+            if (cbuf[off] == BYTE_ORDER_MARK) {
+                System.arraycopy(cbuf, off + 1, cbuf, off, n - off - 1);
+                n--;
+                if (n == off) {
+                    return this.read(cbuf, off, len);
+                }
+            }
+        }
+        return n == off ? -1 : n - off;
+    }
+
+    /**
+     * Decode the multi-byte sequence at the current position.
+     *
+     * @return The code point, the replacement character for a malformed
+     *  sequence, or -1 if the window was refilled to complete the sequence.
+     * @throws IOException if the stream can not be read.
+     */
+    private int decodeMultiByte() throws IOException {
+        final byte[] buf = this.bytes;
+        final int lead = buf[this.position] & 0xFF;
+        int needed;
+        int codePoint;
+        int min = 0x80;
+        int max = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            needed = 1;
+            codePoint = lead & 0x1F;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            needed = 2;
+            codePoint = lead & 0x0F;
+            if (lead == 0xE0) {
+                min = 0xA0;
+            } else if (lead == 0xED) {
+                max = 0x9F;
+            }
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            needed = 3;
+            codePoint = lead & 0x07;
+            if (lead == 0xF0) {
+                min = 0x90;
+            } else if (lead == 0xF4) {
+                max = 0x8F;
+            }
+        } else {
+            this.position++;
+            return REPLACEMENT;
+        }
+        if (this.limit - this.position <= needed && !this.complete) {
+            if (this.refill()) {
+                return -1;
+            }
+        }
+        int i = this.position + 1;
+        for (int k = 0; k < needed; k++, i++) {
+            if (i >= this.limit) {
+                this.position = i;
+                return REPLACEMENT;
+            }
+            final int b = buf[i] & 0xFF;
+            if (b < min || b > max) {
+                this.position = i;
+                return REPLACEMENT;
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+            min = 0x80;
+            max = 0xBF;
+        }
+        this.position = i;
+        return codePoint;
+    }
+
+    /**
+     * Move the undecoded bytes to the front of the window and read more bytes
+     * after them.
+     *
+     * @return true if more bytes were read.
+     * @throws IOException if the stream can not be read.
+     */
+    private boolean refill() throws IOException {
+        if (this.complete) {
+            return false;
+        }
+        final int keep = this.limit - this.position;
+        System.arraycopy(this.bytes, this.position, this.bytes, 0, keep);
+        this.position = 0;
+        this.limit = keep;
+        int count;
+        if (this.inputStream != null) {
+            count = this.inputStream.read(this.bytes, keep, this.bytes.length - keep);
+        } else {
+            count = Math.min(this.byteBuffer.remaining(), this.bytes.length - keep);
+            this.byteBuffer.get(this.bytes, keep, count);
+            if (count == 0) {
+                count = -1;
+            }
+        }
+        if (count < 0) {
+            this.complete = true;
+            return false;
+        }
+        this.limit += count;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // the caller owns the underlying stream or buffer.
+    }
+}
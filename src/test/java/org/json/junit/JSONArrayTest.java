@@ -9,6 +9,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -25,10 +26,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
 import org.json.JSONPointerException;
 import org.json.JSONString;
 import org.json.JSONTokener;
@@ -1358,4 +1362,122 @@ public class JSONArrayTest {
                 .put(2);
         assertFalse(ja1.similar(ja3));
     }
+
+    /**
+     * Parsing the elements in parallel gives the same array, and the same
+     * errors, as parsing them in order, whatever the configuration.
+     */
+    @Test
+    public void parallelParse() {
+        StringBuilder sb = new StringBuilder(" [");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("{\"id\":").append(i)
+                .append(",\"s\":\"a,]\\\"}\",'t':'x\\'[',u:it's,\"a\":[1,[2],{}]},\n");
+            sb.append(i % 2 == 0 ? "unquoted 'text'" : "-1.5e3").append(" , \"\\u005d\", [ ] ,");
+        }
+        sb.append("null ] trailing");
+        String source = sb.toString();
+        JSONParserConfiguration[] configurations = {JSONParserConfiguration.ORIGINAL,
+                new JSONParserConfiguration().withKeyCacheSize(256),
+                new JSONParserConfiguration().withDecimalsAsDouble(true),
+                new JSONParserConfiguration().withMaxNestingDepth(3),
+                new JSONParserConfiguration().withMaxNestingDepth(2)};
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            JSONArray expected = new JSONArray(source);
+            JSONArray actual = new JSONArray(source, JSONParserConfiguration.ORIGINAL, executor);
+            assertEquals(12001, actual.length());
+            assertTrue(expected.similar(actual));
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals("it's", actual.getJSONObject(2999 * 4).getString("u"));
+
+            JSONArray cached = new JSONArray(source, configurations[1], executor);
+            assertSame(cached.getJSONObject(0).keySet().iterator().next(),
+                    cached.getJSONObject(4).keySet().iterator().next());
+
+            String[] sources = {"[]", " [ ] ", "[1,,2]", "[1,2,]", "[1]", "[\"a\"", "[1,2", "{\"a\":1}",
+                    "[1 2]", "[1,\"2\" 3]", "[{\"a\" 1}]", "[\"a\nb\"]", "[1]]", "[1}", "", "[0.5,[[1]]]",
+                    source,
+                    source.replace("\"id\":2999", "\"id\"::2999"),
+                    source.replace("\"id\":1500", "\"id\":1500,\"id\":1")};
+            for (JSONParserConfiguration configuration : configurations) {
+                for (String text : sources) {
+                    String message = null;
+                    JSONArray sequential = null;
+                    try {
+                        sequential = new JSONArray(text, configuration);
+                    } catch (JSONException e) {
+                        message = e.getMessage();
+                    }
+                    try {
+                        JSONArray parallel = new JSONArray(text, configuration, executor);
+                        assertNull(text, message);
+                        assertTrue(text, sequential.similar(parallel));
+                        assertEquals(text, sequential.toString(), parallel.toString());
+                    } catch (JSONException e) {
+                        assertEquals(text, message, e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Arrays of only ints, longs or doubles give back the values and types
+     * they were given, and become ordinary arrays when another kind of
+     * value is added.
+     */
+    @Test
+    public void primitiveElements() {
+        JSONArray ints = new JSONArray("[1, -2, 2147483647]");
+        assertEquals(Integer.valueOf(-2), ints.get(1));
+        assertEquals(2147483647L, ints.getLong(2));
+        assertEquals(-2.0, ints.getDouble(1), 0);
+        assertEquals(1, ints.optInt(0, 9));
+        assertEquals(9, ints.optInt(3, 9));
+
+        JSONArray longs = new JSONArray().put(5000000000L).put(-1L);
+        assertEquals(Long.valueOf(-1), longs.get(1));
+        assertEquals((int) 5000000000L, longs.getInt(0));
+        assertEquals(5000000000L, longs.optLong(0));
+
+        JSONArray doubles = new JSONArray("[1.5, -0.0, 3e300]",
+                new JSONParserConfiguration().withDecimalsAsDouble(true));
+        assertEquals(Double.valueOf(1.5), doubles.get(0));
+        assertEquals(Double.valueOf(-0.0), doubles.get(1));
+        assertEquals(3e300, doubles.getDouble(2), 0);
+        assertEquals(Integer.MAX_VALUE, doubles.getInt(2));
+        assertEquals(1L, doubles.optLong(0));
+        assertEquals("[1.5,-0,3.0E300]", doubles.toString());
+        assertTrue(Double.isNaN(doubles.optDouble(3)));
+
+        // Copies, inserts, removals and a value of another kind.
+        JSONArray copy = new JSONArray(ints);
+        copy.put(1, 7);
+        copy.remove(0);
+        copy.put(3, 8);
+        assertEquals("[7,2147483647,null,8]", copy.toString());
+        assertEquals("[1,-2,2147483647]", ints.toString());
+        ints.put(1, "two");
+        assertEquals("[1,\"two\",2147483647]", ints.toString());
+        assertEquals(2147483647, ints.getInt(2));
+        ints.put(3L);
+        assertEquals(Long.valueOf(3), ints.get(3));
+        ints.clear();
+        ints.put(4.5);
+        assertEquals(4.5, ints.getDouble(0), 0);
+        assertTrue(new JSONArray("[1,-2,2147483647]").similar(new JSONArray(new JSONArray("[1,-2,2147483647]"))));
+
+        JSONArray joined = new JSONArray("[1,2]");
+        joined.putAll(new JSONArray("[3]"));
+        joined.putAll(new JSONArray("[4.5]"));
+        assertEquals("[1,2,3,4.5]", joined.toString());
+        Iterator<Object> it = joined.iterator();
+        it.next();
+        it.remove();
+        assertEquals(Integer.valueOf(2), joined.get(0));
+        assertEquals(3, joined.length());
+    }
 }
@@ -0,0 +1,171 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONFeedParser;
+import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONFeedParser}.
+ */
+public class JSONFeedParserTest {
+
+    private static final String TEXT = " {\"a\":\"x}]\\\"{\",'b':[1,,{\"c\":it's}],\"d\":{}}\n"
+            + "[\"\\u00e9\\\\\", 'q\"]', -1.5e3] \"top\" 'single'  true 42\t{}[]\r\n  12.5 unquoted text";
+
+    /**
+     * Values split at every position are the same as values parsed whole.
+     */
+    @Test
+    public void feedChars() {
+        List<Object> expected = parseWhole(TEXT);
+        assertEquals(8, expected.size());
+        char[] chars = TEXT.toCharArray();
+        for (int split = 1; split <= chars.length; split++) {
+            JSONFeedParser parser = new JSONFeedParser();
+            List<Object> values = new ArrayList<Object>();
+            for (int i = 0; i < chars.length; i += split) {
+                parser.feed(chars, i, Math.min(split, chars.length - i));
+                while (parser.hasNext()) {
+                    values.add(parser.next());
+                }
+            }
+            parser.close();
+            while (parser.hasNext()) {
+                values.add(parser.next());
+            }
+            assertSame(expected, values);
+        }
+    }
+
+    /**
+     * A value is available as soon as it closes.
+     */
+    @Test
+    public void valuesCompleteEarly() {
+        JSONFeedParser parser = new JSONFeedParser();
+        parser.feed("{\"a\":[1,");
+        assertFalse(parser.hasNext());
+        parser.feed("2]}{\"b\"");
+        assertEquals(2, ((JSONObject) parser.next()).getJSONArray("a").getInt(1));
+        assertFalse(parser.hasNext());
+        parser.feed(":true} 12");
+        assertTrue(((JSONObject) parser.next()).getBoolean("b"));
+        assertFalse(parser.hasNext());
+        parser.feed("3 ");
+        assertFalse(parser.hasNext());
+        parser.close();
+        assertEquals(Integer.valueOf(123), parser.next());
+        assertFalse(parser.hasNext());
+    }
+
+    /**
+     * UTF-8 characters may be split between feeds of bytes.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void feedBytes() throws UnsupportedEncodingException {
+        String text = "\ufeff[\"\u00e9\u20ac\ud83d\ude00\"] {\"k\":\"\u20ac\"}";
+        byte[] bytes = text.getBytes("UTF-8");
+        for (int split = 1; split <= bytes.length; split++) {
+            JSONFeedParser parser = new JSONFeedParser();
+            for (int i = 0; i < bytes.length; i += split) {
+                parser.feed(ByteBuffer.wrap(bytes, i, Math.min(split, bytes.length - i)));
+            }
+            parser.close();
+            assertEquals("\u00e9\u20ac\ud83d\ude00", ((JSONArray) parser.next()).getString(0));
+            assertEquals("\u20ac", ((JSONObject) parser.next()).getString("k"));
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    /**
+     * Errors give the position in the value and the position of the value.
+     */
+    @Test
+    public void errors() {
+        JSONFeedParser parser = new JSONFeedParser();
+        parser.feed("{\"a\":1}\n{\"a\":1 \"b\"");
+        assertEquals(1, ((JSONObject) parser.next()).getInt("a"));
+        try {
+            parser.feed(":2}");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Expected a ',' or '}' at 8 [character 9 line 1] in the value at character 8",
+                    e.getMessage());
+        }
+
+        parser = new JSONFeedParser();
+        parser.feed("  [\"abc");
+        try {
+            parser.feed("\ndef\"]");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Unterminated string at 6 [character 0 line 2] in the value at character 2",
+                    e.getMessage());
+        }
+
+        parser = new JSONFeedParser();
+        parser.feed("[1, {\"a\":");
+        try {
+            parser.close();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Missing value at 9 [character 10 line 1] in the value at character 0", e.getMessage());
+        }
+
+        parser = new JSONFeedParser(new JSONParserConfiguration().withMaxNestingDepth(2));
+        parser.feed("[[]] [[");
+        try {
+            parser.feed("[");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON Array or Object depth exceeds the limit of 2 at 7", e.getMessage());
+        }
+    }
+
+    private static List<Object> parseWhole(String text) {
+        List<Object> values = new ArrayList<Object>();
+        JSONTokener x = new JSONTokener(text);
+        while (x.more()) {
+            if (x.nextClean() == 0) {
+                break;
+            }
+            x.back();
+            values.add(x.nextValue());
+        }
+        return values;
+    }
+
+    private static void assertSame(List<Object> expected, List<Object> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Object e = expected.get(i);
+            if (e instanceof JSONObject) {
+                assertTrue(((JSONObject) e).similar(actual.get(i)));
+            } else if (e instanceof JSONArray) {
+                assertTrue(((JSONArray) e).similar(actual.get(i)));
+            } else {
+                assertEquals(e, actual.get(i));
+            }
+        }
+    }
+}
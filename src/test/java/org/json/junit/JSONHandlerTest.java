@@ -0,0 +1,209 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONHandler;
+import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.JSONReader;
+import org.json.JSONTokener;
+import org.json.JSONTreeBuilder;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONHandler}, {@link JSONReader#parse(JSONHandler)} and
+ * {@link JSONTreeBuilder}.
+ */
+public class JSONHandlerTest {
+
+    /**
+     * A handler that counts values without keeping them.
+     */
+    private static class CountingHandler implements JSONHandler {
+        int objects;
+        int arrays;
+        int keys;
+        int primitives;
+
+        @Override
+        public void startObject() {
+            this.objects++;
+        }
+
+        @Override
+        public void endObject() {
+            // nothing to count
+        }
+
+        @Override
+        public void startArray() {
+            this.arrays++;
+        }
+
+        @Override
+        public void endArray() {
+            // nothing to count
+        }
+
+        @Override
+        public void key(String key) {
+            this.keys++;
+        }
+
+        @Override
+        public void primitive(Object value) {
+            this.primitives++;
+        }
+    }
+
+    /**
+     * Build a value with a JSONTreeBuilder.
+     * @param source the JSON text
+     * @return the value
+     */
+    private static Object build(String source) {
+        JSONTokener x = new JSONTokener(source);
+        JSONTreeBuilder builder = new JSONTreeBuilder(x);
+        assertTrue(new JSONReader(x).parse(builder));
+        return builder.getResult();
+    }
+
+    /**
+     * The tree builder gives the same values as the constructors.
+     */
+    @Test
+    public void treeBuilderMatchesConstructors() {
+        String source = "{\"a\":[1,,2.5,{\"b\":null}],c:'d',\"e\":{\"f\":[[],{}]},g:true;"
+                + "\"h\":12345678901234567890}";
+        Object built = build(source);
+        assertTrue(built instanceof JSONObject);
+        assertTrue(new JSONObject(source).similar(built));
+        Util.checkJSONObjectMaps((JSONObject) built);
+
+        String array = "[\"x\", -0, [null], {}]";
+        assertTrue(new JSONArray(array).similar(build(array)));
+        assertEquals("text", build("\"text\""));
+    }
+
+    /**
+     * Duplicate keys fail at the same position as in the constructor.
+     */
+    @Test
+    public void treeBuilderRejectsDuplicateKeys() {
+        String source = "{\"a\":{\"b\":1,\"b\":2}}";
+        String expected = null;
+        try {
+            new JSONObject(source);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            expected = e.getMessage();
+        }
+        try {
+            build(source);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    /**
+     * The tree builder keeps to the limits of the configuration of its
+     * tokener, with the same errors as the constructors.
+     */
+    @Test
+    public void treeBuilderUsesConfiguration() {
+        JSONParserConfiguration configuration = new JSONParserConfiguration()
+                .withMaxNestingDepth(3).withMaxObjectKeys(2);
+        String[] sources = {"{\"a\":[[[1]]]}", "{\"a\":1,\"b\":2,\"c\":3}"};
+        for (String source : sources) {
+            String expected = null;
+            try {
+                new JSONObject(new JSONTokener(source, configuration));
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                expected = e.getMessage();
+            }
+            try {
+                JSONTokener x = new JSONTokener(source, configuration);
+                new JSONReader(x).parse(new JSONTreeBuilder(x));
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                assertEquals(expected, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A handler sees every value in order without anything being built.
+     */
+    @Test
+    public void countsValues() {
+        CountingHandler handler = new CountingHandler();
+        JSONReader reader = new JSONReader(new JSONTokener(
+                "{\"a\":[1,2,{\"b\":[true,null]}],\"c\":{}} [\"d\"]"));
+        assertTrue(reader.parse(handler));
+        assertTrue(reader.parse(handler));
+        assertFalse(reader.parse(handler));
+        assertEquals(3, handler.objects);
+        assertEquals(3, handler.arrays);
+        assertEquals(3, handler.keys);
+        assertEquals(5, handler.primitives);
+    }
+
+    /**
+     * parse() reads one element or member at a time inside a container.
+     */
+    @Test
+    public void parsesOneMemberOrElement() {
+        JSONTokener x = new JSONTokener("[{\"id\":1},{\"id\":2},3]");
+        JSONReader reader = new JSONReader(x);
+        assertEquals(JSONReader.Event.START_ARRAY, reader.next());
+        int count = 0;
+        JSONTreeBuilder builder = new JSONTreeBuilder(x);
+        while (reader.parse(builder)) {
+            count++;
+            if (count < 3) {
+                assertEquals(count, ((JSONObject) builder.getResult()).getInt("id"));
+            } else {
+                assertEquals(Integer.valueOf(3), builder.getResult());
+            }
+        }
+        assertEquals(3, count);
+        assertEquals(JSONReader.Event.END_ARRAY, reader.getEvent());
+        assertFalse(reader.hasNext());
+
+        x = new JSONTokener("{\"a\":1,\"b\":[2]}");
+        reader = new JSONReader(x);
+        reader.next();
+        CountingHandler handler = new CountingHandler();
+        assertTrue(reader.parse(handler));
+        assertEquals(1, handler.keys);
+        assertEquals(1, handler.primitives);
+        assertTrue(reader.parse(handler));
+        assertEquals(2, handler.keys);
+        assertEquals(1, handler.arrays);
+        assertFalse(reader.parse(handler));
+        assertEquals(0, reader.getDepth());
+    }
+
+    /**
+     * Nothing is built for empty input.
+     */
+    @Test
+    public void emptyInput() {
+        JSONTokener x = new JSONTokener(" ");
+        JSONTreeBuilder builder = new JSONTreeBuilder(x);
+        assertFalse(new JSONReader(x).parse(builder));
+        assertNull(builder.getResult());
+    }
+}
@@ -9,6 +9,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -29,6 +30,8 @@ import org.json.CDL;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.JSONPointer;
 import org.json.JSONPointerException;
 import org.json.JSONString;
 import org.json.JSONTokener;
@@ -3509,4 +3512,275 @@ public class JSONObjectTest {
                 .put("b", 2);
         assertFalse(jo1.similar(jo3));
     }
+
+    /**
+     * Only the named members are kept, and the others are skipped.
+     */
+    @Test
+    public void projectionByNames() {
+        String source = "{\"id\":7,\"skip\":{\"a\":[1,\"x}\",{\"b\":null}]},\"name\":\"n\","
+                + "big:123456789012345678901234567890,'quoted':'it\"s',\"tags\":[\"t\"],\"missing2\":it's}";
+        Set<String> names = new HashSet<String>(Arrays.asList("id", "name", "tags", "absent"));
+        JSONObject projected = new JSONObject(new JSONTokener(source), names);
+        Util.checkJSONObjectMaps(projected);
+        assertEquals(3, projected.length());
+        assertEquals(7, projected.getInt("id"));
+        assertEquals("n", projected.getString("name"));
+        assertTrue(new JSONArray("[\"t\"]").similar(projected.get("tags")));
+        assertFalse(projected.has("absent"));
+
+        JSONObject full = new JSONObject(source);
+        assertTrue(new JSONObject(full, "id", "name", "tags").similar(projected));
+    }
+
+    /**
+     * Errors in skipped members are still reported.
+     */
+    @Test
+    public void projectionErrors() {
+        Set<String> names = Collections.singleton("a");
+        String[] sources = {"{\"a\":1,\"b\":[1,2}", "{\"a\":1,\"b\":\"open}", "{\"b\":,\"a\":1}",
+                "{\"a\":1,\"a\":2}", "{\"a\":1 \"b\":2}"};
+        for (String source : sources) {
+            try {
+                new JSONObject(new JSONTokener(source), names);
+                fail("Expected an exception for " + source);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+        // the members that are skipped are not checked for duplicates
+        assertEquals(1, new JSONObject(new JSONTokener("{\"b\":1,\"b\":2,\"a\":1}"), names).length());
+    }
+
+    /**
+     * The values JSON Pointers refer to are kept along with their parents.
+     */
+    @Test
+    public void projectionByPointers() {
+        String source = "{\"id\":1,\"user\":{\"name\":\"x\",\"age\":3,\"address\":{\"city\":\"c\",\"zip\":1}},"
+                + "\"items\":[{\"id\":1},{\"id\":2}],\"scalar\":5,\"a/b\":2,\"rest\":{\"deep\":[[]]}}";
+        JSONObject projected = new JSONObject(new JSONTokener(source),
+                new JSONPointer("/id"), new JSONPointer("/user/name"), new JSONPointer("/user/address"),
+                new JSONPointer("/user/address/zip"), new JSONPointer("/items/0/id"),
+                new JSONPointer("/scalar/x"), new JSONPointer("/a~1b"));
+        Util.checkJSONObjectMaps(projected);
+        assertTrue(new JSONObject("{\"id\":1,\"user\":{\"name\":\"x\",\"address\":{\"city\":\"c\",\"zip\":1}},"
+                + "\"items\":[{\"id\":1},{\"id\":2}],\"a/b\":2}").similar(projected));
+
+        JSONObject whole = new JSONObject(new JSONTokener(source), new JSONPointer(""));
+        assertTrue(new JSONObject(source).similar(whole));
+        assertEquals(0, new JSONObject(new JSONTokener(source), new JSONPointer[0]).length());
+    }
+
+    /**
+     * Integers and decimals read directly give the same type and value as
+     * BigInteger and BigDecimal, in JSONObject and XML.
+     */
+    @Test
+    public void stringToValueMatchesBigNumbers() {
+        String[] integers = {"0", "7", "-7", "2147483647", "2147483648", "-2147483648", "-2147483649",
+                "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+                "999999999999999999", "1000000000000000000", "123456789012345678901234567890"};
+        for (String integer : integers) {
+            BigInteger bi = new BigInteger(integer);
+            Object expected = bi.bitLength() <= 31 ? Integer.valueOf(bi.intValue())
+                    : bi.bitLength() <= 63 ? Long.valueOf(bi.longValue()) : bi;
+            assertEquals(integer, expected, JSONObject.stringToValue(integer));
+            assertEquals(integer, expected, XML.stringToValue(integer));
+        }
+        String[] decimals = {"1.5", "1.50", "0.05", "1e3", "1E+3", "1.25e-2", "-1.5", "0e5", "12.",
+                "123456789.123456789", "1.2345678901234567890", "1e999999999", "-.5", "01.5"};
+        for (String decimal : decimals) {
+            BigDecimal expected = new BigDecimal(decimal);
+            Object actual = JSONObject.stringToValue(decimal);
+            assertEquals(decimal, expected, actual);
+            assertEquals(decimal, expected.scale(), ((BigDecimal) actual).scale());
+            assertEquals(decimal, expected, XML.stringToValue(decimal));
+        }
+        String[] negativeZeros = {"-0", "-0.0", "-0e3", "-0.000"};
+        for (String negativeZero : negativeZeros) {
+            assertEquals(negativeZero, Double.valueOf(-0.0), JSONObject.stringToValue(negativeZero));
+        }
+        String[] strings = {"-", "00", "-01", "1.5.5", "1e", "1-2", "\u0661"};
+        for (String string : strings) {
+            assertEquals(string, string, JSONObject.stringToValue(string));
+            assertEquals(string, string, XML.stringToValue(string));
+        }
+        assertEquals(Double.valueOf(1.5), JSONObject.stringToValue("1.5f"));
+        assertEquals(Integer.valueOf(11), JSONObject.stringToValue("\u0661\u0661".replace('\u0661', '1')));
+    }
+
+    /**
+     * A frozen copy has the same members, can not be changed at any depth,
+     * and leaves the original free to change.
+     */
+    @Test
+    public void freeze() {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            keys.append(",\"k").append(i).append("\":").append(i);
+        }
+        String text = "{\"a\":{\"b\":[1,{\"c\":true},[2.5,\"x\"]]},\"n\":null" + keys + "}";
+        JSONObject original = new JSONObject(text, new JSONParserConfiguration().withLazyValues(true));
+        final JSONObject frozen = original.freeze();
+        assertTrue(frozen.isFrozen());
+        assertFalse(original.isFrozen());
+        assertTrue(new JSONObject(text).similar(frozen));
+        assertEquals(19, frozen.getInt("k19"));
+        assertFalse(frozen.has("k20"));
+        assertEquals(JSONObject.NULL, frozen.get("n"));
+        assertSame(frozen, frozen.freeze());
+
+        JSONObject a = frozen.getJSONObject("a");
+        final JSONArray b = a.getJSONArray("b");
+        assertTrue(a.isFrozen());
+        assertTrue(b.isFrozen());
+        assertTrue(b.getJSONObject(1).isFrozen());
+        assertTrue(b.getJSONArray(2).isFrozen());
+        assertEquals(1, b.getInt(0));
+        assertSame(b, b.freeze());
+
+        assertFrozen("put", new Runnable() {
+            @Override
+            public void run() {
+                frozen.put("k0", 1);
+            }
+        });
+        assertFrozen("remove", new Runnable() {
+            @Override
+            public void run() {
+                frozen.remove("k0");
+            }
+        });
+        assertFrozen("clear", new Runnable() {
+            @Override
+            public void run() {
+                frozen.clear();
+            }
+        });
+        assertFrozen("keys", new Runnable() {
+            @Override
+            public void run() {
+                Iterator<String> it = frozen.keys();
+                it.next();
+                it.remove();
+            }
+        });
+        assertFrozen("array put", new Runnable() {
+            @Override
+            public void run() {
+                b.put(3);
+            }
+        });
+        assertFrozen("array set", new Runnable() {
+            @Override
+            public void run() {
+                b.put(0, 3);
+            }
+        });
+        assertFrozen("array remove", new Runnable() {
+            @Override
+            public void run() {
+                b.remove(0);
+            }
+        });
+        assertFrozen("nested put", new Runnable() {
+            @Override
+            public void run() {
+                b.getJSONObject(1).put("d", 1);
+            }
+        });
+        assertTrue(new JSONObject(text).similar(frozen));
+
+        original.getJSONObject("a").getJSONArray("b").put(3);
+        original.put("k0", "changed");
+        assertEquals(3, b.length());
+        assertEquals(0, frozen.getInt("k0"));
+        assertFalse(new JSONArray().freeze().iterator().hasNext());
+    }
+
+    /**
+     * Persistent JSONObjects leave the objects they are made from as they
+     * were, and have the same members as a map changed in the same way.
+     */
+    @Test
+    public void persistent() {
+        JSONObject base = new JSONObject("{\"a\":1,\"b\":{\"c\":[true]}}",
+                new JSONParserConfiguration().withLazyValues(true));
+        JSONObject first = base.with("d", "x");
+        assertFalse(base.isPersistent());
+        assertTrue(first.isPersistent());
+        assertFalse(base.has("d"));
+        assertEquals("x", first.get("d"));
+        assertTrue(first.getJSONObject("b").getJSONArray("c").getBoolean(0));
+        JSONObject second = first.with("a", 2).without("b").with("e", null);
+        assertTrue(new JSONObject("{\"a\":1,\"b\":{\"c\":[true]},\"d\":\"x\"}").similar(first));
+        assertTrue(new JSONObject("{\"a\":2,\"d\":\"x\"}").similar(second));
+        assertSame(second, second.without("b"));
+        assertSame(second, second.with("d", "x"));
+        assertSame(second, second.toPersistent());
+        try {
+            second.put("f", 1);
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("JSONObject is persistent: use with or without.", e.getMessage());
+        }
+        try {
+            second.with("f", Double.NaN);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON does not allow non-finite numbers.", e.getMessage());
+        }
+
+        // Random changes, with keys whose hash codes are the same.
+        String[] keys = new String[200];
+        for (int i = 0; i < 64; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int bit = 0; bit < 6; bit++) {
+                sb.append((i & (1 << bit)) != 0 ? "Aa" : "BB");
+            }
+            keys[i] = sb.toString();
+        }
+        for (int i = 64; i < keys.length; i++) {
+            keys[i] = "key" + i;
+        }
+        Random random = new Random(42);
+        Map<String, Object> expected = new HashMap<String, Object>();
+        JSONObject actual = new JSONObject().toPersistent();
+        List<JSONObject> versions = new ArrayList<JSONObject>();
+        List<Map<String, Object>> snapshots = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 5000; i++) {
+            String key = keys[random.nextInt(keys.length)];
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.without(key);
+            } else {
+                Integer value = Integer.valueOf(random.nextInt(10));
+                expected.put(key, value);
+                actual = actual.with(key, value);
+            }
+            if (i % 500 == 0) {
+                versions.add(actual);
+                snapshots.add(new HashMap<String, Object>(expected));
+            }
+        }
+        assertEquals(expected, actual.toMap());
+        assertEquals(expected.size(), actual.length());
+        for (String key : keys) {
+            assertEquals(expected.get(key), actual.opt(key));
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(snapshots.get(i), versions.get(i).toMap());
+        }
+    }
+
+    private static void assertFrozen(String change, Runnable runnable) {
+        try {
+            runnable.run();
+            fail("Expected an exception for " + change);
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage().endsWith("is frozen."));
+        }
+    }
 }
@@ -0,0 +1,598 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONMapFactory;
+import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.JSONPointer;
+import org.json.JSONStructuralIndex;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONParserConfiguration}.
+ */
+public class JSONParserConfigurationTest {
+
+    private static final JSONParserConfiguration LAZY =
+            new JSONParserConfiguration().withLazyNumbers(true);
+
+    /**
+     * The with methods make a new configuration.
+     */
+    @Test
+    public void withMethodsCopy() {
+        assertFalse(JSONParserConfiguration.ORIGINAL.isLazyNumbers());
+        assertTrue(LAZY.isLazyNumbers());
+        assertFalse(LAZY.withLazyNumbers(false).isLazyNumbers());
+        assertTrue(LAZY.isLazyNumbers());
+        assertSame(JSONParserConfiguration.ORIGINAL,
+                new JSONTokener("{}").getParserConfiguration());
+        assertSame(LAZY, new JSONTokener("{}", LAZY).getParserConfiguration());
+    }
+
+    /**
+     * Lazy numbers read the same values as eager ones.
+     */
+    @Test
+    public void lazyNumbersMatchEagerNumbers() {
+        String[] numbers = {"0", "-0", "7", "-42", "2147483647", "2147483648", "-9223372036854775808",
+                "9223372036854775808", "123456789012345678901234567890", "1.5", "-0.0", "1.50", "1e3",
+                "1E+3", "2.5e-3", "-1.25E10", "0.1", "1e400", "00", "0x1.0P-1074", "1.", "-", ".5",
+                "1e12345678901", "true", "null", "abc"};
+        for (String number : numbers) {
+            String source = "{\"n\":" + number + ",\"a\":[" + number + "]}";
+            JSONObject eager = new JSONObject(source);
+            JSONObject lazy = new JSONObject(source, LAZY);
+            Util.checkJSONObjectMaps(lazy);
+            assertTrue(number, eager.similar(lazy));
+            assertEquals(number, eager.toString(), lazy.toString());
+            assertEquals(number, eager.opt("n").toString(), lazy.opt("n").toString());
+            if (eager.opt("n") instanceof Number) {
+                assertTrue(number, lazy.opt("n") instanceof Number);
+                assertEquals(number, eager.getInt("n"), lazy.getInt("n"));
+                assertEquals(number, eager.getLong("n"), lazy.getLong("n"));
+                assertEquals(number, Double.valueOf(eager.getDouble("n")), Double.valueOf(lazy.getDouble("n")));
+                assertEquals(number, Float.valueOf(eager.getFloat("n")), Float.valueOf(lazy.getFloat("n")));
+                assertEquals(number, eager.getBigDecimal("n"), lazy.getBigDecimal("n"));
+                assertEquals(number, eager.getBigInteger("n"), lazy.getBigInteger("n"));
+                assertEquals(number, eager.getJSONArray("a").getBigDecimal(0),
+                        lazy.getJSONArray("a").getBigDecimal(0));
+                assertEquals(number, eager.getJSONArray("a").getLong(0), lazy.getJSONArray("a").getLong(0));
+            } else {
+                assertEquals(number, eager.opt("n"), lazy.opt("n"));
+            }
+        }
+    }
+
+    /**
+     * Lazy numbers are kept as their own class until they are used.
+     */
+    @Test
+    public void lazyNumbersAreNotConverted() {
+        JSONObject lazy = new JSONObject("{\"i\":12,\"d\":1.5}", LAZY);
+        assertFalse(lazy.opt("i") instanceof Integer);
+        assertFalse(lazy.opt("d") instanceof BigDecimal);
+        assertEquals(12, ((Number) lazy.opt("i")).intValue());
+        assertEquals(lazy.opt("i"), new JSONObject("{\"i\":12}", LAZY).opt("i"));
+        assertNotEquals(lazy.opt("i"), lazy.opt("d"));
+        assertEquals(new BigDecimal("1.5"), lazy.getBigDecimal("d"));
+        assertEquals(BigInteger.ONE, lazy.getBigInteger("d"));
+        assertEquals(new JSONArray("[12,1.5]").toString(),
+                new JSONArray("[12,1.5]", LAZY).toString());
+    }
+
+    /**
+     * increment() converts a lazy number first.
+     */
+    @Test
+    public void incrementLazyNumbers() {
+        JSONObject lazy = new JSONObject("{\"i\":2147483647,\"l\":5000000000,\"d\":1.5}", LAZY);
+        lazy.increment("i").increment("l").increment("d");
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), lazy.get("i"));
+        assertEquals(Long.valueOf(5000000001L), lazy.get("l"));
+        assertEquals(new BigDecimal("2.5"), lazy.get("d"));
+    }
+
+    /**
+     * JSONObject.wrap() keeps lazy numbers.
+     */
+    @Test
+    public void wrapLazyNumbers() {
+        JSONObject lazy = new JSONObject("{\"a\":[1,2.5]}", LAZY);
+        JSONArray copy = new JSONArray(lazy.getJSONArray("a").toList());
+        assertEquals("[1,2.5]", copy.toString());
+        assertTrue(copy.similar(new JSONArray("[1,2.5]")));
+    }
+
+    /**
+     * Decimals can be read as Double.
+     */
+    @Test
+    public void decimalsAsDouble() {
+        JSONParserConfiguration doubles = new JSONParserConfiguration().withDecimalsAsDouble(true);
+        assertTrue(doubles.isDecimalsAsDouble());
+        assertFalse(doubles.withLazyNumbers(true).withDecimalsAsDouble(false).isDecimalsAsDouble());
+        String source = "{\"d\":1.5,\"e\":-2.5e-3,\"z\":-0,\"i\":12,\"big\":1e400,\"l\":5000000000}";
+        JSONObject jo = new JSONObject(source, doubles);
+        assertEquals(Double.valueOf(1.5), jo.get("d"));
+        assertEquals(Double.valueOf(-2.5e-3), jo.get("e"));
+        assertEquals(Double.valueOf(-0.0), jo.get("z"));
+        assertEquals(Integer.valueOf(12), jo.get("i"));
+        assertEquals(new BigDecimal("1e400"), jo.get("big"));
+        assertEquals(Long.valueOf(5000000000L), jo.get("l"));
+
+        JSONObject lazy = new JSONObject(source, doubles.withLazyNumbers(true));
+        assertEquals("1.5", lazy.get("d").toString());
+        assertTrue(jo.similar(lazy));
+        lazy.increment("d");
+        assertEquals(Double.valueOf(2.5), lazy.get("d"));
+    }
+
+    /**
+     * With a key cache, repeated keys are the same String.
+     */
+    @Test
+    public void keyCacheSharesKeys() {
+        JSONParserConfiguration cached = new JSONParserConfiguration().withKeyCacheSize(16);
+        assertEquals(16, cached.getKeyCacheSize());
+        assertEquals(0, cached.withKeyCacheSize(-1).getKeyCacheSize());
+        assertEquals(0, JSONParserConfiguration.ORIGINAL.getKeyCacheSize());
+
+        String source = "[{\"id\":1,\"n\\u0061me\":\"a\",\"t\":true},"
+                + "{\"id\":2,\"name\":\"b\",'t':false},{id:3,name:c,\"\":0}]";
+        JSONArray plain = new JSONArray(source);
+        JSONArray fromString = new JSONArray(source, cached);
+        JSONArray fromReader = new JSONArray(new JSONTokener(new StringReader(source), cached));
+        assertTrue(plain.similar(fromString));
+        assertTrue(plain.similar(fromReader));
+        for (JSONArray array : new JSONArray[] {fromString, fromReader}) {
+            Util.checkJSONArrayMaps(array);
+            for (String key : new String[] {"id", "name", "t"}) {
+                assertSame(key, keyOf(array.getJSONObject(0), key), keyOf(array.getJSONObject(1), key));
+            }
+            assertSame(keyOf(array.getJSONObject(0), "id"), keyOf(array.getJSONObject(2), "id"));
+            assertSame(keyOf(array.getJSONObject(1), "name"), keyOf(array.getJSONObject(2), "name"));
+        }
+        assertNotSame(keyOf(plain.getJSONObject(0), "id"), keyOf(plain.getJSONObject(1), "id"));
+    }
+
+    /**
+     * Keys that collide in a small key cache are still read correctly.
+     */
+    @Test
+    public void keyCacheCollisions() {
+        JSONParserConfiguration tiny = new JSONParserConfiguration().withKeyCacheSize(1);
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            sb.append("\"k").append(i).append("\":").append(i).append(',');
+        }
+        sb.append("\"Aa\":\"x\",\"BB\":\"y\"}");
+        JSONObject jo = new JSONObject(sb.toString(), tiny);
+        assertEquals(102, jo.length());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, jo.getInt("k" + i));
+        }
+        assertEquals("x", jo.get("Aa"));
+        assertEquals("y", jo.get("BB"));
+    }
+
+    /**
+     * A JSONObject with lazy values is the same as one parsed eagerly.
+     */
+    @Test
+    public void lazyValues() {
+        JSONParserConfiguration lazy = new JSONParserConfiguration().withLazyValues(true);
+        assertTrue(lazy.isLazyValues());
+        assertFalse(JSONParserConfiguration.ORIGINAL.isLazyValues());
+        String source = "{\"a\":1, \"b\" : {\"c\":[1,{\"d\":\"x\\\"}\"},null]} , \"e\":'q',"
+                + "\"f\":true,\"g\":-1.5e3,\"h\":unquoted text,\"i\":\"\\u0041\"}";
+        JSONObject eager = new JSONObject(source);
+        JSONObject jo = new JSONObject(source, lazy);
+        assertEquals(1, jo.getInt("a"));
+        assertEquals("x\"}", jo.getJSONObject("b").getJSONArray("c").getJSONObject(1).getString("d"));
+        assertEquals("unquoted text", jo.getString("h"));
+        assertTrue(eager.similar(jo));
+        assertTrue(new JSONObject(source, lazy).similar(eager));
+        assertEquals(eager.toString(), new JSONObject(source, lazy).toString());
+        assertEquals(eager.toMap(), new JSONObject(source, lazy).toMap());
+        assertEquals("A", new JSONObject(source, lazy).remove("i"));
+
+        JSONObject reader = new JSONObject(new JSONTokener(new StringReader(source), lazy));
+        assertTrue(eager.similar(reader));
+    }
+
+    /**
+     * Errors inside a lazy value are thrown when the value is read by get, at
+     * the same position as in an eager parse. The opt methods return their
+     * default instead.
+     */
+    @Test
+    public void lazyValueErrors() {
+        JSONParserConfiguration lazy = new JSONParserConfiguration().withLazyValues(true);
+        JSONObject jo = new JSONObject("{\"ok\":1,\"bad\":{\"x\":1,\"x\":2}}", lazy);
+        assertEquals(1, jo.getInt("ok"));
+        assertEquals(2, jo.length());
+        try {
+            jo.get("bad");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Duplicate key \"x\" at 25 [character 26 line 1]", e.getMessage());
+        }
+        String[] sources = {"{\"a\":1,\"b\":{\"x\" 1}}", "{\"a\":1,\r\n\"b\":\n [1,\n{\"x\":1,\"x\":2}]}"};
+        for (String source : sources) {
+            String expected = null;
+            try {
+                new JSONObject(source);
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                expected = e.getMessage();
+            }
+            JSONObject object = new JSONObject(source, lazy);
+            assertEquals("dflt", object.optString("b", "dflt"));
+            assertNull(object.opt("b"));
+            assertTrue(object.has("b"));
+            try {
+                object.get("b");
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                assertEquals(expected, e.getMessage());
+            }
+            try {
+                object.toString(0);
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                assertEquals(expected, e.getMessage());
+            }
+        }
+        try {
+            new JSONObject("{\"a\":[1,2}", lazy);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            // expected
+        }
+        try {
+            new JSONObject("{\"a\":1,\"a\":2}", lazy);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Duplicate key \"a\" at 11 [character 12 line 1]", e.getMessage());
+        }
+    }
+
+    /**
+     * Nesting deeper than the limit is rejected, and any depth can be parsed
+     * without a limit.
+     */
+    @Test
+    public void maxNestingDepth() {
+        assertEquals(JSONParserConfiguration.DEFAULT_MAXIMUM_NESTING_DEPTH,
+                JSONParserConfiguration.ORIGINAL.getMaxNestingDepth());
+        assertEquals(0, new JSONParserConfiguration().withMaxNestingDepth(-1).getMaxNestingDepth());
+        JSONArray ja = new JSONArray(nested(512));
+        assertEquals(1, ja.length());
+        try {
+            new JSONArray(nested(513));
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON Array or Object depth exceeds the limit of 512 at 1537 [character 1538 line 1]",
+                    e.getMessage());
+        }
+        JSONParserConfiguration three = new JSONParserConfiguration().withMaxNestingDepth(3);
+        new JSONObject("{\"a\":[{\"b\":1}],\"c\":[[]]}", three);
+        try {
+            new JSONObject("{\"a\":[{\"b\":[]}]}", three);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSON Array or Object depth exceeds the limit of 3 at 12 [character 13 line 1]",
+                    e.getMessage());
+        }
+
+        int depth = 100000;
+        JSONParserConfiguration unlimited = new JSONParserConfiguration().withMaxNestingDepth(0);
+        Object value = new JSONTokener(nested(depth), unlimited).nextValue();
+        for (int i = 1; i < depth; i++) {
+            value = value instanceof JSONArray ? ((JSONArray) value).get(0) : ((JSONObject) value).get("a");
+        }
+        assertEquals(1, ((JSONObject) value).getInt("a"));
+    }
+
+    /**
+     * The nesting limit counts the objects and arrays that enclose projected
+     * members, lazy values and the elements of arrays parsed in parallel.
+     */
+    @Test
+    public void maxNestingDepthOfParts() {
+        JSONParserConfiguration three = new JSONParserConfiguration().withMaxNestingDepth(3);
+        String deep = "{\"a\":[[[1]]],\"b\":{\"c\":{\"d\":[1]}}}";
+        String message = "JSON Array or Object depth exceeds the limit of 3";
+        assertDepthError(message + " at 8 [character 9 line 1]", deep, three, null);
+        assertDepthError(message + " at 8 [character 9 line 1]", deep, three, Collections.singleton("a"));
+        assertDepthError(message + " at 8 [character 9 line 1]", deep, three, new JSONPointer("/a"));
+        assertDepthError(message + " at 28 [character 29 line 1]", deep, three, new JSONPointer("/b/c/d"));
+        assertEquals(1, new JSONObject(new JSONTokener(deep, three), new JSONPointer("/b/c/x")).length());
+        assertEquals(0, new JSONObject(new JSONTokener(deep, three), Collections.singleton("x")).length());
+
+        JSONObject lazy = new JSONObject(deep, three.withLazyValues(true));
+        assertNull(lazy.opt("a"));
+        try {
+            lazy.get("a");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+        try {
+            lazy.getJSONObject("b").getJSONObject("c").get("d");
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+        assertEquals(1, new JSONObject("{\"a\":[[1]]}", three.withLazyValues(true))
+                .getJSONArray("a").getJSONArray(0).getInt(0));
+
+        StringBuilder elements = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            elements.append(i == 0 ? "" : ",").append(i == 4000 ? "[[[1]]]" : "[[1]]");
+        }
+        String text = elements.append(']').toString();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            String expected = null;
+            try {
+                new JSONArray(text, three);
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                expected = e.getMessage();
+                assertTrue(expected, expected.startsWith(message));
+            }
+            try {
+                new JSONArray(text, three, executor);
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                assertEquals(expected, e.getMessage());
+            }
+            String shallow = text.replace("[[[1]]]", "[[1]]");
+            assertTrue(new JSONArray(shallow, three).similar(new JSONArray(shallow, three, executor)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * An object or array used as a key counts toward the nesting depth, and
+     * one nested too deeply for the stack is rejected with a JSONException.
+     *
+     * @throws InterruptedException never
+     */
+    @Test
+    public void maxNestingDepthOfKeys() throws InterruptedException {
+        assertEquals(1, new JSONObject(arrayKeys(1), new JSONParserConfiguration().withMaxNestingDepth(2))
+                .getInt("[1]"));
+        String message = "JSON Array or Object depth exceeds the limit of ";
+        assertDepthError(message + "1 at 8 [character 9 line 1]", arrayKeys(1),
+                new JSONParserConfiguration().withMaxNestingDepth(1), null);
+        assertDepthError(message + "3 at 16 [character 17 line 1]", arrayKeys(10),
+                new JSONParserConfiguration().withMaxNestingDepth(3), null);
+        assertDepthError(message + "3 at 16 [character 17 line 1]", arrayKeys(10),
+                new JSONParserConfiguration().withMaxNestingDepth(3).withLazyValues(true), null);
+
+        final String deep = arrayKeys(200000);
+        final Throwable[] thrown = new Throwable[1];
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new JSONObject(deep, new JSONParserConfiguration().withMaxNestingDepth(0));
+                } catch (Throwable e) {
+                    thrown[0] = e;
+                }
+            }
+        }, "deep keys", 1 << 18);
+        thread.start();
+        thread.join();
+        assertTrue(String.valueOf(thrown[0]), thrown[0] instanceof JSONException);
+        assertEquals("JSON Array or Object depth too large to process.", thrown[0].getMessage());
+    }
+
+    /**
+     * Make an object whose second key is an array holding an object like it,
+     * nested a number of times.
+     *
+     * @param n The number of objects.
+     * @return The text.
+     */
+    private static String arrayKeys(int n) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            text.append("{\"a\":1,[");
+        }
+        text.append('1');
+        for (int i = 0; i < n; i++) {
+            text.append("]:1}");
+        }
+        return text.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertDepthError(String expected, String source, JSONParserConfiguration configuration,
+            Object projection) {
+        try {
+            JSONTokener x = new JSONTokener(source, configuration);
+            if (projection == null) {
+                new JSONObject(x);
+            } else if (projection instanceof JSONPointer) {
+                new JSONObject(x, (JSONPointer) projection);
+            } else {
+                new JSONObject(x, (Set<String>) projection);
+            }
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    /**
+     * Texts past the length and key limits are rejected, from a String, a
+     * Reader and an InputStream alike.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void parserLimits() throws UnsupportedEncodingException {
+        String text = "{\"key\":\"a\\u0062c\",\"n\":-12.5,\"o\":{\"x\":1,\"y\":[true]}}";
+        JSONObject expected = new JSONObject(text);
+        JSONParserConfiguration atLimit = new JSONParserConfiguration().withMaxSourceLength(text.length())
+                .withMaxStringLength(3).withMaxNumberLength(5).withMaxObjectKeys(3);
+        assertTrue(expected.similar(parseAll(text, atLimit)));
+
+        assertLimit(text, atLimit.withMaxSourceLength(text.length() - 1),
+                "JSON text is longer than 50 characters");
+        assertLimit(text, atLimit.withMaxStringLength(2), "String is longer than 2 characters at ");
+        assertLimit(text, atLimit.withMaxNumberLength(4), "Unquoted value is longer than 4 characters at ");
+        assertLimit(text, atLimit.withMaxObjectKeys(2), "JSONObject has more than 2 keys at ");
+    }
+
+    private static Object parseAll(String text, JSONParserConfiguration configuration)
+            throws UnsupportedEncodingException {
+        Object fromString = new JSONTokener(text, configuration).nextValue();
+        Object fromReader = new JSONTokener(new StringReader(text), configuration).nextValue();
+        Object fromStream = new JSONTokener(new ByteArrayInputStream(text.getBytes("UTF-8")), configuration)
+                .nextValue();
+        assertTrue(((JSONObject) fromString).similar(fromReader));
+        assertTrue(((JSONObject) fromString).similar(fromStream));
+        return fromString;
+    }
+
+    private static void assertLimit(String text, JSONParserConfiguration configuration, String message)
+            throws UnsupportedEncodingException {
+        for (int i = 0; i < 3; i++) {
+            try {
+                switch (i) {
+                case 0:
+                    new JSONObject(text, configuration);
+                    break;
+                case 1:
+                    new JSONObject(new JSONTokener(new StringReader(text), configuration));
+                    break;
+                default:
+                    new JSONStructuralIndex(text.getBytes("UTF-8"), configuration).toValue();
+                }
+                fail("Expected an exception");
+            } catch (JSONException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+            }
+        }
+    }
+
+    /**
+     * Map factories set the kind of map of the parsed objects, and the
+     * compact map behaves like any other.
+     */
+    @Test
+    public void mapFactories() {
+        String text = "{\"z\":1,\"a\":{\"y\":true,\"b\":[{\"x\":null}]},\"m\":\"s\"}";
+        JSONObject hashed = new JSONObject(text);
+        assertEquals(HashMap.class, hashed.getMapType());
+
+        JSONObject linked = new JSONObject(text,
+                new JSONParserConfiguration().withMapFactory(JSONMapFactory.LINKED_HASH_MAP));
+        assertEquals(LinkedHashMap.class, linked.getMapType());
+        assertEquals(LinkedHashMap.class, linked.getJSONObject("a").getJSONArray("b").getJSONObject(0).getMapType());
+        assertEquals(text, linked.toString());
+
+        JSONParserConfiguration compact = new JSONParserConfiguration().withMapFactory(JSONMapFactory.COMPACT);
+        JSONObject small = new JSONObject(text, compact);
+        assertEquals(text, small.toString());
+        assertTrue(hashed.similar(small));
+        assertTrue(small.similar(hashed));
+        assertEquals(hashed.toMap(), small.toMap());
+        assertEquals(small.getMapType(), ((JSONObject) new JSONTokener(text, compact).nextValue()).getMapType());
+
+        // Replace, remove while iterating, and grow past the array.
+        small.put("z", 2);
+        assertEquals(3, small.length());
+        for (Iterator<String> keys = small.keys(); keys.hasNext();) {
+            if ("a".equals(keys.next())) {
+                keys.remove();
+            }
+        }
+        assertEquals("{\"z\":2,\"m\":\"s\"}", small.toString());
+        for (int i = 0; i < 10; i++) {
+            small.put("k" + i, i);
+        }
+        assertEquals(12, small.length());
+        assertEquals(9, small.getInt("k9"));
+        assertEquals("z", small.keys().next());
+        assertEquals(Integer.valueOf(2), small.remove("z"));
+        assertEquals("m", small.keys().next());
+        assertFalse(small.has("z"));
+
+        // Lazy values are written back into the compact map.
+        JSONObject lazy = new JSONObject(text, compact.withLazyValues(true));
+        assertEquals(text, lazy.toString());
+        assertTrue(lazy.getJSONObject("a").getBoolean("y"));
+
+        try {
+            JSONObject.setDefaultMapFactory(JSONMapFactory.LINKED_HASH_MAP);
+            assertEquals(LinkedHashMap.class, new JSONObject().getMapType());
+            assertEquals(LinkedHashMap.class, new JSONObject(text).getMapType());
+            assertEquals(HashMap.class, new JSONObject(text,
+                    new JSONParserConfiguration().withMapFactory(JSONMapFactory.HASH_MAP)).getMapType());
+        } finally {
+            JSONObject.setDefaultMapFactory(null);
+        }
+        assertSame(JSONMapFactory.HASH_MAP, JSONObject.getDefaultMapFactory());
+    }
+
+    /**
+     * Make a text of objects and arrays nested in turn, starting with an
+     * array, with a number in the innermost one.
+     */
+    private static String nested(int depth) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append(i % 2 == 0 ? "[" : "{\"a\":");
+        }
+        sb.append('1');
+        for (int i = depth - 1; i >= 0; i--) {
+            sb.append(i % 2 == 0 ? ']' : '}');
+        }
+        return sb.toString();
+    }
+
+    private static String keyOf(JSONObject jo, String key) {
+        for (Iterator<String> keys = jo.keys(); keys.hasNext();) {
+            String k = keys.next();
+            if (k.equals(key)) {
+                return k;
+            }
+        }
+        return null;
+    }
+}
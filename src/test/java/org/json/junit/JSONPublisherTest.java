@@ -0,0 +1,156 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONPublisher;
+import org.json.JSONTokener;
+import org.json.NDJSONReader;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONPublisher}.
+ */
+public class JSONPublisherTest {
+
+    /**
+     * Records are only read when they are requested.
+     */
+    @Test
+    public void backpressure() {
+        JSONTokener x = new JSONTokener("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n{\"id\"}");
+        Recorder<JSONObject> recorder = new Recorder<JSONObject>();
+        new JSONPublisher<JSONObject>(new NDJSONReader(x)).subscribe(recorder);
+        assertEquals(0, recorder.items.size());
+        recorder.subscription.request(1);
+        assertEquals(1, recorder.items.size());
+        assertEquals(1, recorder.items.get(0).getInt("id"));
+        recorder.subscription.request(2);
+        assertEquals(3, recorder.items.size());
+        assertEquals(3, recorder.items.get(2).getInt("id"));
+        assertNull(recorder.error);
+        recorder.subscription.request(1);
+        assertEquals(3, recorder.items.size());
+        assertTrue(recorder.error instanceof JSONException);
+        assertTrue(!recorder.completed);
+
+        recorder = new Recorder<JSONObject>();
+        new JSONPublisher<JSONObject>(new NDJSONReader(new StringReader("{}\n{}\n"))).subscribe(recorder);
+        recorder.subscription.request(2);
+        assertTrue(recorder.completed);
+    }
+
+    /**
+     * Requests made while values are being delivered do not nest.
+     */
+    @Test
+    public void requestFromOnNext() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 100000; i++) {
+            sb.append(i).append(',');
+        }
+        sb.append("{\"a\":[1,,2]},,\"end\"]");
+        Recorder<Object> recorder = new Recorder<Object>() {
+            @Override
+            public void onNext(Object item) {
+                super.onNext(item);
+                this.subscription.request(1);
+            }
+        };
+        JSONPublisher.elements(new JSONTokener(sb.toString())).subscribe(recorder);
+        recorder.subscription.request(1);
+        assertEquals(100003, recorder.items.size());
+        assertEquals(Integer.valueOf(99999), recorder.items.get(99999));
+        assertTrue(new JSONObject("{\"a\":[1,null,2]}").similar(recorder.items.get(100000)));
+        assertEquals(JSONObject.NULL, recorder.items.get(100001));
+        assertEquals("end", recorder.items.get(100002));
+        assertTrue(recorder.completed);
+    }
+
+    /**
+     * Errors, cancellation, bad requests and second subscribers.
+     */
+    @Test
+    public void errorsAndCancel() {
+        Recorder<Object> recorder = new Recorder<Object>();
+        JSONPublisher.elements(new JSONTokener("[1, {\"a\" 2}]")).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(1, recorder.items.size());
+        assertTrue(recorder.error instanceof JSONException);
+        assertEquals("Expected a ':' after a key at 10 [character 11 line 1]", recorder.error.getMessage());
+
+        recorder = new Recorder<Object>();
+        JSONPublisher.elements(new JSONTokener("{}")).subscribe(recorder);
+        recorder.subscription.request(1);
+        assertEquals("A JSONArray text must start with '[' at 1 [character 2 line 1]", recorder.error.getMessage());
+
+        Recorder<JSONObject> records = new Recorder<JSONObject>();
+        JSONPublisher<JSONObject> publisher = new JSONPublisher<JSONObject>(
+                new NDJSONReader(new StringReader("{}\n{}\n{}")));
+        publisher.subscribe(records);
+        records.subscription.request(1);
+        records.subscription.cancel();
+        records.subscription.request(5);
+        assertEquals(1, records.items.size());
+        assertTrue(!records.completed && records.error == null);
+
+        Recorder<JSONObject> second = new Recorder<JSONObject>();
+        publisher.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+
+        records = new Recorder<JSONObject>();
+        new JSONPublisher<JSONObject>(new NDJSONReader(new StringReader("{}"))).subscribe(records);
+        records.subscription.request(0);
+        assertTrue(records.error instanceof IllegalArgumentException);
+        records.subscription.request(1);
+        assertEquals(0, records.items.size());
+
+        Recorder<Object> empty = new Recorder<Object>();
+        JSONPublisher<Object> elements = new JSONPublisher<Object>(new JSONArray().iterator());
+        elements.subscribe(empty);
+        empty.subscription.request(1);
+        assertTrue(empty.completed);
+    }
+
+    /**
+     * A subscriber that records what it receives.
+     */
+    private static class Recorder<T> implements JSONPublisher.Subscriber<T> {
+        JSONPublisher.Subscription subscription;
+        final List<T> items = new ArrayList<T>();
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(JSONPublisher.Subscription s) {
+            this.subscription = s;
+        }
+
+        @Override
+        public void onNext(T item) {
+            this.items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
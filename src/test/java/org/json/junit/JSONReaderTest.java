@@ -0,0 +1,264 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.NoSuchElementException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONReader;
+import org.json.JSONReader.Event;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link JSONReader} pull parser.
+ */
+public class JSONReaderTest {
+
+    /**
+     * Read all of the events of a source, writing each value after its event.
+     * @param source the JSON text
+     * @return the events, such as "KEY:a VALUE_NUMBER:1"
+     */
+    private static String events(String source) {
+        JSONReader reader = new JSONReader(new JSONTokener(source));
+        StringBuilder sb = new StringBuilder();
+        while (reader.hasNext()) {
+            Event event = reader.next();
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(event);
+            if (reader.getValue() != null) {
+                sb.append(':').append(reader.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the message of the exception thrown while reading all events.
+     * @param source the JSON text
+     * @return the message
+     */
+    private static String readerError(String source) {
+        try {
+            events(source);
+        } catch (JSONException e) {
+            return e.getMessage();
+        }
+        fail("Expected an exception for " + source);
+        return null;
+    }
+
+    /**
+     * Get the message of the exception thrown by JSONTokener.nextValue().
+     * @param source the JSON text
+     * @return the message
+     */
+    private static String treeError(String source) {
+        try {
+            new JSONTokener(source).nextValue();
+        } catch (JSONException e) {
+            return e.getMessage();
+        }
+        fail("Expected an exception for " + source);
+        return null;
+    }
+
+    /**
+     * The events of an object with every kind of value.
+     */
+    @Test
+    public void readsEvents() {
+        assertEquals("START_OBJECT KEY:s VALUE_STRING:x KEY:n VALUE_NUMBER:12 "
+                + "KEY:d VALUE_NUMBER:1.5 KEY:t VALUE_TRUE:true KEY:f VALUE_FALSE:false "
+                + "KEY:z VALUE_NULL:null KEY:a START_ARRAY START_OBJECT END_OBJECT "
+                + "START_ARRAY END_ARRAY END_ARRAY END_OBJECT",
+                events("{\"s\":\"x\",\"n\":12,\"d\":1.5,\"t\":true,\"f\":false,"
+                        + "\"z\":null,\"a\":[{},[]]}"));
+    }
+
+    /**
+     * The reader accepts the non-standard forms of the JSONObject and
+     * JSONArray constructors.
+     */
+    @Test
+    public void readsLenientText() {
+        assertEquals("START_OBJECT KEY:a VALUE_STRING:b c KEY:d VALUE_NUMBER:1 END_OBJECT",
+                events("{a: b c ; 'd' : 1 , }"));
+        assertEquals("START_ARRAY VALUE_NUMBER:1 VALUE_NULL:null VALUE_NUMBER:2 END_ARRAY",
+                events("[1,,2,]"));
+        assertEquals("START_ARRAY VALUE_NULL:null VALUE_STRING:it's END_ARRAY",
+                events("[,it's]"));
+    }
+
+    /**
+     * Values and objects read by the reader match the tree parser.
+     */
+    @Test
+    public void matchesTreeParser() {
+        String source = "{\"id\":7,\"tags\":[\"a\",\"b\"],\"big\":123456789012345678901234567890,"
+                + "\"nested\":{\"x\":-0.5e3,\"y\":[null,true]}}";
+        JSONReader reader = new JSONReader(new JSONTokener(new StringReader(source)));
+        assertEquals(Event.START_OBJECT, reader.next());
+        assertEquals(Event.KEY, reader.next());
+        assertEquals(Event.VALUE_NUMBER, reader.next());
+        assertEquals(Integer.valueOf(7), reader.getNumber());
+        assertEquals(Event.KEY, reader.next());
+        assertEquals("tags", reader.getString());
+        assertEquals(Event.START_ARRAY, reader.next());
+        Object tags = reader.readValue();
+        assertEquals(Event.END_ARRAY, reader.getEvent());
+        assertEquals(1, reader.getDepth());
+        assertTrue(new JSONArray("[\"a\",\"b\"]").similar(tags));
+        assertEquals(Event.KEY, reader.next());
+        assertEquals(Event.VALUE_NUMBER, reader.next());
+        assertEquals(new JSONObject(source).get("big"), reader.getValue());
+        assertEquals(Event.KEY, reader.next());
+        assertEquals(Event.START_OBJECT, reader.next());
+        assertTrue(new JSONObject(source).getJSONObject("nested").similar(reader.readValue()));
+        assertEquals(Event.END_OBJECT, reader.next());
+        assertEquals(0, reader.getDepth());
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * skipChildren() moves past the current container.
+     */
+    @Test
+    public void skipsChildren() {
+        String source = "{\"skip\":{\"a\":[1,{\"b\":\"}]\\\"\"},'c\\u0041]'],it's:x},\"keep\":[{}, 2]}";
+        JSONReader reader = new JSONReader(new JSONTokener(source));
+        assertEquals(Event.START_OBJECT, reader.next());
+        assertEquals(Event.KEY, reader.next());
+        assertEquals(Event.START_OBJECT, reader.next());
+        reader.skipChildren();
+        assertEquals(Event.END_OBJECT, reader.getEvent());
+        assertEquals(1, reader.getDepth());
+        assertEquals(Event.KEY, reader.next());
+        assertEquals("keep", reader.getString());
+        assertEquals(Event.START_ARRAY, reader.next());
+        assertEquals(Event.START_OBJECT, reader.next());
+        reader.skipChildren();
+        assertEquals(Event.VALUE_NUMBER, reader.next());
+        reader.skipChildren();
+        assertEquals(Event.VALUE_NUMBER, reader.getEvent());
+        assertEquals(Event.END_ARRAY, reader.next());
+        assertEquals(Event.END_OBJECT, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Skipping reports unbalanced brackets and bad strings.
+     */
+    @Test
+    public void skipChildrenErrors() {
+        String[] sources = {"[{]", "[\"abc", "{\"a\":\"\\x\"}", "[1,2"};
+        for (String source : sources) {
+            JSONReader reader = new JSONReader(new JSONTokener(source));
+            reader.next();
+            try {
+                reader.skipChildren();
+                fail("Expected an exception for " + source);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Malformed text gives the same error as the tree parser.
+     */
+    @Test
+    public void errorsMatchTreeParser() {
+        String[] sources = {"{", "{\"a\"}", "{\"a\":1 \"b\":2}", "{{}}", "{\"a\":}",
+                "[1 \"2\"]", "[1,", "[", "{\"a\":[1,2}", "{\"a\":\"b", "[\"\\q\"]", "{,}",
+                "{\"a\":1,{\"b\":2}:3}"};
+        for (String source : sources) {
+            assertEquals(source, treeError(source), readerError(source));
+        }
+    }
+
+    /**
+     * Several texts in one source are read one after another.
+     */
+    @Test
+    public void readsSequenceOfTexts() {
+        assertEquals("START_OBJECT KEY:a VALUE_NUMBER:1 END_OBJECT START_ARRAY END_ARRAY "
+                + "VALUE_STRING:x VALUE_NUMBER:3",
+                events(" {\"a\":1}\n[]\n\"x\" 3 "));
+        assertEquals("", events("  \n "));
+        JSONReader reader = new JSONReader(new JSONTokener(""));
+        try {
+            reader.next();
+            fail("Expected an exception");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Nesting depth is only limited by memory.
+     */
+    @Test
+    public void readsDeepNesting() {
+        int depth = 100000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append("{\"a\":[");
+        }
+        for (int i = 0; i < depth; i++) {
+            sb.append("]}");
+        }
+        JSONReader reader = new JSONReader(new JSONTokener(sb.toString()));
+        int events = 0;
+        int maxDepth = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            maxDepth = Math.max(maxDepth, reader.getDepth());
+            events++;
+        }
+        assertEquals(depth * 5, events);
+        assertEquals(depth * 2, maxDepth);
+    }
+
+    /**
+     * getString() and getNumber() check the event.
+     */
+    @Test
+    public void accessorsCheckEvent() {
+        JSONReader reader = new JSONReader(new JSONTokener("[1]"));
+        reader.next();
+        try {
+            reader.getString();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSONReader event START_ARRAY is not a string.", e.getMessage());
+        }
+        reader.next();
+        try {
+            reader.getString();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSONReader event VALUE_NUMBER is not a string.", e.getMessage());
+        }
+        reader.next();
+        try {
+            reader.getNumber();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("JSONReader event END_ARRAY is not a number.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.JSONShapedMapFactory;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONShapedMapFactory}.
+ */
+public class JSONShapedMapFactoryTest {
+
+    private static final String RECORDS = "[{\"id\":1,\"name\":\"a\",\"tags\":[\"x\"],\"at\":{\"t\":1}},"
+            + "{\"id\":2,\"name\":\"b\",\"tags\":[],\"at\":{\"t\":2}},"
+            + "{\"name\":\"c\",\"id\":3},"
+            + "{\"id\":4,\"name\":\"d\",\"tags\":null,\"at\":{\"t\":4,\"u\":5}}]";
+
+    /**
+     * Parsed objects behave like those kept in a HashMap, in the order of
+     * the text.
+     */
+    @Test
+    public void parsedRecords() {
+        JSONArray records = parse(new JSONShapedMapFactory(), RECORDS);
+        assertTrue(new JSONArray(RECORDS).similar(records));
+        assertEquals(RECORDS, records.toString());
+        JSONObject third = records.getJSONObject(2);
+        assertEquals("c", third.getString("name"));
+        assertEquals(3, third.getInt("id"));
+        assertFalse(third.has("tags"));
+        assertEquals(records.getJSONObject(0).getMapType(), third.getMapType());
+        assertEquals(new JSONArray(RECORDS).toList(), records.toList());
+    }
+
+    /**
+     * Members can be added, replaced and removed, and the order is kept.
+     */
+    @Test
+    public void changeMembers() {
+        JSONArray records = parse(new JSONShapedMapFactory(), RECORDS);
+        JSONObject first = records.getJSONObject(0);
+        first.put("id", 10);
+        first.remove("tags");
+        first.put("extra", true);
+        assertEquals("{\"id\":10,\"name\":\"a\",\"at\":{\"t\":1},\"extra\":true}", first.toString());
+        JSONObject second = records.getJSONObject(1);
+        for (Iterator<String> keys = second.keys(); keys.hasNext();) {
+            String key = keys.next();
+            if (!"name".equals(key)) {
+                keys.remove();
+            }
+        }
+        assertEquals("{\"name\":\"b\"}", second.toString());
+        for (Map.Entry<String, Object> entry : records.getJSONObject(2).toMap().entrySet()) {
+            assertTrue(records.getJSONObject(2).has(entry.getKey()));
+        }
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            second.put("k" + i, i);
+            keys.append(",\"k").append(i).append("\":").append(i);
+        }
+        assertEquals("{\"name\":\"b\"" + keys + "}", second.toString());
+        assertEquals(19, second.getInt("k19"));
+        second.clear();
+        assertTrue(second.isEmpty());
+        second.put("z", 1);
+        assertEquals("{\"z\":1}", second.toString());
+    }
+
+    /**
+     * Past the most keys, maps still keep their members and their order.
+     */
+    @Test
+    public void shapeLimit() {
+        JSONShapedMapFactory factory = new JSONShapedMapFactory(3);
+        JSONArray records = parse(factory, "[{\"a\":1,\"b\":2},{\"a\":3,\"b\":4},{\"c\":5},{\"d\":6,\"e\":7}]");
+        assertEquals("{\"d\":6,\"e\":7}", records.getJSONObject(3).toString());
+
+        JSONObject second = records.getJSONObject(1);
+        second.remove("a");
+        second.put("a", 8);
+        assertEquals("{\"b\":4,\"a\":8}", second.toString());
+        assertEquals(4, second.getInt("b"));
+        assertEquals("{\"a\":1,\"b\":2}", parse(factory, "[{\"a\":1,\"b\":2}]").getJSONObject(0).toString());
+    }
+
+    /**
+     * Records whose keys begin the same way share the keys of their shapes,
+     * and only find their own keys.
+     */
+    @Test
+    public void sharedKeys() {
+        StringBuilder text = new StringBuilder("[");
+        appendRecord(text, 0, 20, null).append(',');
+        appendRecord(text, 0, 10, null).append(',');
+        appendRecord(text, 0, 12, "x").append(',');
+        appendRecord(text, 0, 20, null).append(']');
+        JSONArray records = parse(new JSONShapedMapFactory(), text.toString());
+        assertEquals(new JSONArray(text.toString()).toList(), records.toList());
+        assertEquals(20, records.getJSONObject(0).length());
+        assertTrue(records.getJSONObject(0).has("k15"));
+        assertFalse(records.getJSONObject(1).has("k15"));
+        assertFalse(records.getJSONObject(1).has("x"));
+        assertEquals(12, records.getJSONObject(2).getInt("x"));
+        assertFalse(records.getJSONObject(2).has("k12"));
+        assertEquals(records.getJSONObject(0).toString(), records.getJSONObject(3).toString());
+    }
+
+    /**
+     * Wide objects keep all their members, in order, and do not use up the
+     * keys of the factory.
+     */
+    @Test
+    public void wideObject() {
+        JSONShapedMapFactory factory = new JSONShapedMapFactory(100);
+        StringBuilder text = new StringBuilder();
+        appendRecord(text, 0, 4000, null);
+        for (int i = 0; i < 3; i++) {
+            JSONObject wide = parse(factory, "[" + text + "]").getJSONObject(0);
+            assertEquals(4000, wide.length());
+            assertEquals(text.toString(), wide.toString());
+            assertEquals(3999, wide.getInt("k3999"));
+            assertEquals(Integer.valueOf(1234), wide.remove("k1234"));
+            assertFalse(wide.has("k1234"));
+            wide.put("k1234", 1);
+            assertEquals(4000, wide.length());
+            assertTrue(wide.toString().endsWith(",\"k1234\":1}"));
+        }
+        JSONObject object = new JSONObject(new JSONTokener(text.toString(),
+                new JSONParserConfiguration().withMapFactory(factory)));
+        assertEquals(text.toString(), object.toString());
+        assertEquals("{\"a\":1,\"b\":2}", parse(factory, "[{\"a\":1,\"b\":2}]").getJSONObject(0).toString());
+    }
+
+    private static StringBuilder appendRecord(StringBuilder text, int from, int to, String last) {
+        text.append('{');
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                text.append(',');
+            }
+            text.append("\"k").append(i).append("\":").append(i);
+        }
+        if (last != null) {
+            text.append(",\"").append(last).append("\":").append(to);
+        }
+        return text.append('}');
+    }
+
+    private static JSONArray parse(JSONShapedMapFactory factory, String text) {
+        return new JSONArray(new JSONTokener(text, new JSONParserConfiguration().withMapFactory(factory)));
+    }
+}
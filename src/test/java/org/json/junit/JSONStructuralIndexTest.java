@@ -0,0 +1,142 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.UnsupportedEncodingException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONPointer;
+import org.json.JSONPointerException;
+import org.json.JSONStructuralIndex;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JSONStructuralIndex}.
+ */
+public class JSONStructuralIndexTest {
+
+    /**
+     * The index builds the same value as the tokener.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void toValueMatchesTokener() throws UnsupportedEncodingException {
+        StringBuilder sb = new StringBuilder("\ufeff {\"items\":[");
+        for (int i = 0; i < 300; i++) {
+            sb.append("{\"id\":").append(i)
+                .append(",\"s\":\"a,]}:[{\\\"").append(repeat('\\', i % 5 * 2)).append("\\\"\"")
+                .append(",\"u\":\"\u00e9\u20ac\ud83d\ude00 \\u0041\",\"n\":null,\"t\":true,\"f\":-1.5e")
+                .append(i % 3).append(",\"e\":{},\"a\":[ ],\"z\":[1,,2,],\"w\":unquoted text")
+                .append(",\"k\":{\"\":[[[]]]},}");
+            sb.append(i % 2 == 0 ? ",\n" : " , ");
+        }
+        sb.append("\"last\"]}  trailing");
+        assertSameValue(sb.toString());
+
+        for (int pad = 0; pad < 70; pad++) {
+            assertSameValue(repeat(' ', pad) + "[\"" + repeat('\\', 2 * (pad % 4)) + "\\\"\\\\\",\"]\"]");
+            assertSameValue(repeat(' ', pad) + "{\"a\":[\"x\\\\\",{\"b\":\"" + repeat('y', pad) + "\"}]}");
+        }
+    }
+
+    /**
+     * Texts the index does not follow give the same value or error as the
+     * tokener.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void fallbackMatchesTokener() throws UnsupportedEncodingException {
+        String[] texts = {"{'a':1}", "[it's]", "{\"a\":1,\"a\":2}", "{\"a\":[1}", "[\"abc", "[1 \"2\"]",
+                "{\"a\" 1}", "{{}}", "[1]]", "{\"a\":\"b\nc\"}", "42", "\"s\"", "", "  ", "[\u0000]",
+                "{\"a\":1;\"b\":2}", "{,}", "[{}{}]", "{\"a\":{}\"b\":1}", "{a:b:c}"};
+        for (String text : texts) {
+            assertSameValue(text);
+        }
+    }
+
+    /**
+     * Queries give the same value or error as a JSONPointer on the whole value.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void queryMatchesPointer() throws UnsupportedEncodingException {
+        String text = "{\"a\":{\"b\":[10,{\"c\":\"d\"},[1,2],null,,\"x\"],\"e~f\":1,\"g/h\":2},"
+                + "\"p\":\"str\",\"q\":{}, \"r\":[ ], \"\":0}";
+        byte[] bytes = text.getBytes("UTF-8");
+        JSONStructuralIndex index = new JSONStructuralIndex(bytes);
+        JSONObject document = new JSONObject(text);
+        String[] pointers = {"", "/a", "/a/b", "/a/b/0", "/a/b/1", "/a/b/1/c", "/a/b/2/1", "/a/b/3", "/a/b/4",
+                "/a/b/5", "/a/b/6", "/a/b/-1", "/a/b/x", "/a/e~0f", "/a/g~1h", "/p", "/p/x", "/q", "/q/x",
+                "/r", "/r/0", "/missing", "/missing/x", "/", "/a/b/1/c/d"};
+        for (String pointer : pointers) {
+            JSONPointer jsonPointer = new JSONPointer(pointer);
+            Object expected;
+            try {
+                expected = jsonPointer.queryFrom(document);
+            } catch (JSONPointerException e) {
+                try {
+                    index.query(jsonPointer);
+                    fail(pointer);
+                } catch (JSONPointerException actual) {
+                    assertEquals(pointer, e.getMessage(), actual.getMessage());
+                }
+                continue;
+            }
+            Object actual = index.query(jsonPointer);
+            if (expected instanceof JSONObject) {
+                assertTrue(pointer, ((JSONObject) expected).similar(actual));
+            } else if (expected instanceof JSONArray) {
+                assertTrue(pointer, ((JSONArray) expected).similar(actual));
+            } else {
+                assertEquals(pointer, expected, actual);
+            }
+        }
+        assertNull(new JSONStructuralIndex("{'a':1}".getBytes("UTF-8")).query(new JSONPointer("/b")));
+    }
+
+    private static void assertSameValue(String text) throws UnsupportedEncodingException {
+        byte[] bytes = text.getBytes("UTF-8");
+        Object expected;
+        try {
+            expected = new JSONTokener(bytes).nextValue();
+        } catch (JSONException e) {
+            try {
+                new JSONStructuralIndex(bytes).toValue();
+                fail(text);
+            } catch (JSONException actual) {
+                assertEquals(text, e.getMessage(), actual.getMessage());
+            }
+            return;
+        }
+        Object actual = new JSONStructuralIndex(bytes).toValue();
+        if (expected instanceof JSONObject) {
+            assertTrue(text, ((JSONObject) expected).similar(actual));
+            Util.checkJSONObjectMaps((JSONObject) actual);
+        } else if (expected instanceof JSONArray) {
+            assertTrue(text, ((JSONArray) expected).similar(actual));
+        } else {
+            assertEquals(text, expected, actual);
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
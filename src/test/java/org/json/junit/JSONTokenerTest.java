@@ -12,9 +12,12 @@ import static org.junit.Assert.fail;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -313,4 +316,308 @@ public class JSONTokenerTest {
         assertEquals(0, t2.next());
         assertFalse(t2.more());
    }
+
+    /**
+     * Verify that a Reader without mark support, which is read in blocks,
+     * yields the same values and positions as a String source, including
+     * strings and unquoted values that straddle block boundaries.
+     */
+    @Test
+    public void testBufferedReaderMatchesStringSource() {
+        final StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("{\"id\":").append(i)
+                .append(",\r\n\"name\":\"name \\\"").append(i).append("\\\" \\u00e9\"")
+                .append(", unquoted: value").append(i)
+                .append(", 'single': 'it\\'s'}");
+            sb.append(i % 7 == 0 ? ",\n" : ", ");
+        }
+        sb.append("true]");
+        final String source = sb.toString();
+
+        final JSONTokener expectedTokener = new JSONTokener(source);
+        final JSONArray expected = new JSONArray(expectedTokener);
+        final JSONTokener bufferedTokener = new JSONTokener(new ChunkedReader(source, 7));
+        final JSONArray actual = new JSONArray(bufferedTokener);
+        assertTrue(expected.similar(actual));
+        assertEquals(2001, actual.length());
+        assertEquals("name \"1999\" \u00e9", actual.getJSONObject(1999).getString("name"));
+        assertEquals("value1999", actual.getJSONObject(1999).getString("unquoted"));
+        assertEquals("it's", actual.getJSONObject(1999).getString("single"));
+        assertEquals(expectedTokener.toString(), bufferedTokener.toString());
+        assertFalse(bufferedTokener.more());
+    }
+
+    /**
+     * Verify that syntax errors found through a buffered Reader report the
+     * same position as the same text read from a String.
+     */
+    @Test
+    public void testBufferedReaderErrorPosition() {
+        final StringBuilder sb = new StringBuilder("{\"a\":[");
+        for (int i = 0; i < 5000; i++) {
+            sb.append(i).append(",\n");
+        }
+        sb.append("\"unterminated}");
+        final String source = sb.toString();
+        String expected = null;
+        try {
+            new JSONObject(new JSONTokener(source));
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            expected = e.getMessage();
+        }
+        try {
+            new JSONObject(new JSONTokener(new ChunkedReader(source, 100)));
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals(expected, e.getMessage());
+        }
+        assertEquals("Unterminated string at 28910 [character 14 line 5001]", expected);
+    }
+
+    /**
+     * Verify that back() and skipTo() work across buffer refills of a
+     * Reader without mark support.
+     */
+    @Test
+    public void testBufferedReaderBackAndSkipTo() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3 * 8192; i++) {
+            sb.append('A');
+        }
+        sb.append("BC");
+        final JSONTokener tokener = new JSONTokener(new ChunkedReader(sb.toString(), 8192));
+        assertEquals(0, tokener.skipTo('Z'));
+        assertEquals(" at 0 [character 1 line 1]", tokener.toString());
+        assertEquals('B', tokener.skipTo('B'));
+        assertEquals(" at 24576 [character 24577 line 1]", tokener.toString());
+        assertEquals('B', tokener.next());
+        tokener.back();
+        assertEquals('B', tokener.next());
+        assertEquals('C', tokener.next());
+        assertEquals(0, tokener.next());
+        assertTrue(tokener.end());
+    }
+
+    /**
+     * Verify that a CharSequence source is tokenized in place with the same
+     * results and positions as the equivalent String.
+     */
+    @Test
+    public void testCharSequenceSource() {
+        final StringBuilder source = new StringBuilder(
+                "{\"plain\":\"no escapes\",\n\"escaped\":\"tab\\there\", 'single':'a\"b', n: 12}");
+        final JSONTokener tokener = new JSONTokener(source);
+        final JSONObject actual = new JSONObject(tokener);
+        final JSONTokener stringTokener = new JSONTokener(source.toString());
+        assertTrue(new JSONObject(stringTokener).similar(actual));
+        assertEquals("no escapes", actual.getString("plain"));
+        assertEquals("tab\there", actual.getString("escaped"));
+        assertEquals("a\"b", actual.getString("single"));
+        assertEquals(12, actual.getInt("n"));
+        assertEquals(stringTokener.toString(), tokener.toString());
+        assertEquals(" at 68 [character 45 line 2]", tokener.toString());
+    }
+
+    /**
+     * Verify nextString() on a String source, with and without escapes, and
+     * that the position and previous character are maintained.
+     */
+    @Test
+    public void testNextStringFromString() {
+        final JSONTokener tokener = new JSONTokener("\"abc\" \"a\\u0041\\nb\" \"\" \"open");
+        assertEquals('"', tokener.next());
+        assertEquals("abc", tokener.nextString('"'));
+        assertEquals(" at 5 [character 6 line 1]", tokener.toString());
+        tokener.back();
+        assertEquals('"', tokener.next());
+        assertEquals('"', tokener.nextClean());
+        assertEquals("aA\nb", tokener.nextString('"'));
+        assertEquals('"', tokener.nextClean());
+        assertEquals("", tokener.nextString('"'));
+        assertEquals('"', tokener.nextClean());
+        try {
+            tokener.nextString('"');
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Unterminated string at 27 [character 28 line 1]", e.getMessage());
+        }
+    }
+
+    /**
+     * Verify that UTF-8 bytes from an array, heap and direct ByteBuffers, and a
+     * stream delivering one byte at a time all decode to the same values.
+     * @throws UnsupportedEncodingException if UTF-8 is not supported.
+     */
+    @Test
+    public void testUTF8ByteSources() throws UnsupportedEncodingException {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("{\"k\u00e9y\":\"caf\u00e9 \u20ac \ud83d\ude00 ").append(i).append("\"},");
+        }
+        sb.append("\"end\"]");
+        final String source = sb.toString();
+        final byte[] bytes = source.getBytes("UTF-8");
+        final JSONArray expected = new JSONArray(source);
+
+        assertTrue(expected.similar(new JSONArray(new JSONTokener(bytes))));
+        assertTrue(expected.similar(new JSONArray(new JSONTokener(ByteBuffer.wrap(bytes)))));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+        assertTrue(expected.similar(new JSONArray(new JSONTokener(direct))));
+        assertEquals("the buffer position is not changed", 0, direct.position());
+        final InputStream oneByteAtATime = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        final JSONArray actual = new JSONArray(new JSONTokener(oneByteAtATime));
+        assertTrue(expected.similar(actual));
+        assertEquals("caf\u00e9 \u20ac \ud83d\ude00 2999", actual.getJSONObject(2999).getString("k\u00e9y"));
+    }
+
+    /**
+     * Verify that a leading byte order mark is skipped and that malformed
+     * UTF-8 is replaced with U+FFFD.
+     */
+    @Test
+    public void testUTF8BomAndMalformedBytes() {
+        final byte[] bytes = new byte[] {
+            (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '{', '"', 'a', '"', ':', '"',
+            (byte) 0xC3, '"', ',', '"', 'b', '"', ':', '"', (byte) 0xE2, (byte) 0x82, '"', '}'
+        };
+        final JSONObject jsonObject = new JSONObject(new JSONTokener(bytes));
+        assertEquals("\ufffd", jsonObject.getString("a"));
+        assertEquals("\ufffd", jsonObject.getString("b"));
+    }
+
+    /**
+     * Unicode escapes decode the same from a String, and from a Reader where
+     * they cross the end of the buffer, and surrogate pairs combine.
+     */
+    @Test
+    public void testUnicodeEscapes() {
+        assertEquals("A\u00e9\uffff\ud83d\ude00\u0000z",
+                new JSONTokener("\"\\u0041\\u00E9\\uFFFF\\ud83d\\uDE00\\u0000z\"").nextValue());
+        assertEquals(0x1F600, ((String) new JSONTokener("\"\\ud83d\\ude00\"").nextValue()).codePointAt(0));
+        StringBuilder sb = new StringBuilder("[\"");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("\\u00e9x");
+        }
+        sb.append("\"]");
+        String text = sb.toString();
+        String expected = new JSONArray(text).getString(0);
+        assertEquals(6000, expected.length());
+        assertEquals(expected, new JSONArray(new JSONTokener(new StringReader(text))).getString(0));
+        assertEquals(expected, new JSONArray(new JSONTokener(new BufferedReader(new StringReader(text)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        })).getString(0));
+
+        String[] bad = {"\"\\u00g1\"", "\"\\u-001\"", "\"\\u12\"", "\"\\u12", "{\"a\\u00\n1\":1}"};
+        String[] messages = {"Illegal escape. at 7 [character 8 line 1]",
+                "Illegal escape. at 7 [character 8 line 1]",
+                "Substring bounds error at 6 [character 7 line 1]",
+                "Substring bounds error at 5 [character 6 line 1]",
+                "Illegal escape. at 9 [character 1 line 2]"};
+        for (int i = 0; i < bad.length; i++) {
+            for (int j = 0; j < 2; j++) {
+                try {
+                    JSONTokener x = j == 0 ? new JSONTokener(bad[i]) : new JSONTokener(new StringReader(bad[i]));
+                    x.nextValue();
+                    fail("Expected an exception");
+                } catch (JSONException e) {
+                    assertEquals(bad[i], messages[i], e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A reset tokener reads each new input as a new tokener would, whatever
+     * the previous input was and however its parse ended.
+     */
+    @Test
+    public void testReset() throws UnsupportedEncodingException {
+        final JSONTokener x = new JSONTokener("{\"a\":1}");
+        assertEquals(1, new JSONObject(x).getInt("a"));
+
+        final StringBuilder longValue = new StringBuilder("\"");
+        for (int i = 0; i < 20000; i++) {
+            longValue.append("x\\n");
+        }
+        longValue.append('"');
+        x.reset(new ChunkedReader("[" + longValue + ", unquoted text ]", 7));
+        final JSONArray array = new JSONArray(x);
+        assertEquals(40000, array.getString(0).length());
+        assertEquals("unquoted text", array.getString(1));
+
+        x.reset("{\"a\":\n[1,,}");
+        try {
+            new JSONObject(x);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Missing value at 10 [character 4 line 2]", e.getMessage());
+        }
+
+        x.reset("{\"a\":\n[1,,}".getBytes("UTF-8"));
+        try {
+            new JSONObject(x);
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Missing value at 10 [character 4 line 2]", e.getMessage());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            x.reset(new ByteArrayInputStream(("{\"\u00e9\":" + i + "}").getBytes("UTF-8")));
+            assertEquals(i, new JSONObject(x).getInt("\u00e9"));
+            assertTrue(x.end() || x.nextClean() == 0);
+        }
+
+        final StringReader reader = new StringReader("[true] rest");
+        x.reset(reader);
+        assertTrue(new JSONArray(x).getBoolean(0));
+        x.reset(reader);
+        assertEquals("rest", x.nextValue());
+
+        x.reset(new ChunkedReader("{\"b\":2}", 3));
+        assertEquals(2, new JSONObject(x).getInt("b"));
+        x.reset("");
+        assertFalse(x.more());
+    }
+
+    /**
+     * A Reader without mark support that returns at most a fixed number of
+     * characters per read.
+     */
+    private static class ChunkedReader extends Reader {
+        private final String source;
+        private final int chunk;
+        private int position;
+
+        ChunkedReader(String source, int chunk) {
+            this.source = source;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (this.position >= this.source.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(len, this.chunk), this.source.length() - this.position);
+            this.source.getChars(this.position, this.position + count, cbuf, off);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package org.json.junit;
+
+/*
+Public Domain.
+*/
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONParserConfiguration;
+import org.json.NDJSONReader;
+import org.json.NDJSONWriter;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NDJSONReader} and {@link NDJSONWriter}.
+ */
+public class NDJSONTest {
+
+    /**
+     * Records are read one per line, skipping blank lines.
+     */
+    @Test
+    public void readRecords() {
+        String source = "{\"id\":1,\"s\":\"a\\nb\"}\n\n  {\"id\":2}  \r\n{\"id\":3,\"a\":[1,\n2]}";
+        NDJSONReader records = new NDJSONReader(new BufferedReader(new StringReader(source)));
+        assertTrue(records.hasNext());
+        assertTrue(records.hasNext());
+        JSONObject first = records.next();
+        assertEquals(1, first.getInt("id"));
+        assertEquals("a\nb", first.getString("s"));
+        assertEquals(2, records.next().getInt("id"));
+        assertEquals(2, records.next().getJSONArray("a").getInt(1));
+        assertFalse(records.hasNext());
+        try {
+            records.next();
+            fail("Expected an exception");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertFalse(new NDJSONReader(new StringReader(" \n\n")).hasNext());
+    }
+
+    /**
+     * Records are decoded from UTF-8 bytes.
+     *
+     * @throws UnsupportedEncodingException never
+     */
+    @Test
+    public void readRecordsFromBytes() throws UnsupportedEncodingException {
+        byte[] bytes = "{\"k\":\"\u00e9\"}\n{\"k\":\"\u20ac\"}\n".getBytes("UTF-8");
+        NDJSONReader records = new NDJSONReader(new ByteArrayInputStream(bytes));
+        assertEquals("\u00e9", records.next().getString("k"));
+        assertEquals("\u20ac", records.next().getString("k"));
+        assertFalse(records.hasNext());
+    }
+
+    /**
+     * Errors report the line of the bad record.
+     */
+    @Test
+    public void readErrors() {
+        NDJSONReader records = new NDJSONReader(new StringReader("{\"a\":1}\n{\"a\":2} {\"a\":3}\n"));
+        records.next();
+        try {
+            records.next();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Expected a newline after a record at 17 [character 9 line 2]", e.getMessage());
+        }
+        records = new NDJSONReader(new StringReader("{\"a\":1}\n[2]\n"));
+        records.next();
+        try {
+            records.next();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("A JSONObject text must begin with '{' at 9 [character 1 line 2]", e.getMessage());
+        }
+    }
+
+    /**
+     * Written records read back the same.
+     */
+    @Test
+    public void writeRecords() {
+        StringWriter writer = new StringWriter();
+        NDJSONWriter records = new NDJSONWriter(writer);
+        records.write(new JSONObject("{\"id\":1,\"s\":\"line\\nbreak\"}"))
+                .write(new JSONObject("{\"id\":2,\"o\":{\"a\":[1,2]}}"));
+        records.flush();
+        String[] lines = writer.toString().split("\n", -1);
+        assertEquals(3, lines.length);
+        assertTrue(new JSONObject("{\"id\":1,\"s\":\"line\\nbreak\"}").similar(new JSONObject(lines[0])));
+        assertEquals("{\"id\":2,\"o\":{\"a\":[1,2]}}", lines[1]);
+        assertEquals("", lines[2]);
+        NDJSONReader reader = new NDJSONReader(new StringReader(writer.toString()));
+        assertEquals("line\nbreak", reader.next().getString("s"));
+        assertEquals(2, reader.next().getJSONObject("o").getJSONArray("a").getInt(1));
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Parallel reading returns the same records as sequential reading.
+     *
+     * @throws IOException if the temporary file can not be written
+     */
+    @Test
+    public void readParallel() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"r\u00e9cord ").append(i).append("\"}\n");
+            if (i % 7 == 0) {
+                sb.append('\n');
+            }
+        }
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+        File file = File.createTempFile("records", ".ndjson");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            JSONParserConfiguration configuration = JSONParserConfiguration.ORIGINAL;
+            List<Integer> ordered = ids(NDJSONReader.parallel(ByteBuffer.wrap(bytes), executor, true, 100,
+                    configuration));
+            List<Integer> fromFile = ids(NDJSONReader.parallel(file, executor, true, 333, configuration));
+            List<Integer> unordered = ids(NDJSONReader.parallel(ByteBuffer.wrap(bytes), executor, false, 64,
+                    configuration));
+            List<Integer> oneChunk = ids(NDJSONReader.parallel(file, executor, false));
+            List<Integer> expected = ids(new NDJSONReader(new ByteArrayInputStream(bytes)));
+            assertEquals(500, expected.size());
+            assertEquals(expected, ordered);
+            assertEquals(expected, fromFile);
+            assertEquals(expected, oneChunk);
+            Collections.sort(unordered);
+            assertEquals(expected, unordered);
+
+            Iterator<JSONObject> records = NDJSONReader.parallel(ByteBuffer.wrap(bytes), executor, true);
+            assertEquals("r\u00e9cord 0", records.next().getString("name"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Parallel reading reports errors with the position of their chunk, and
+     * returns no more records after them.
+     *
+     * @throws IOException if the temporary file can not be written
+     */
+    @Test
+    public void readParallelErrors() throws IOException {
+        byte[] bytes = "{\"a\":1}\n{\"a\":2}\n{\"a\":3\n{\"a\":4}\n".getBytes("UTF-8");
+        File file = File.createTempFile("errors", ".ndjson");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertChunkError(NDJSONReader.parallel(ByteBuffer.wrap(bytes), executor, true, 8,
+                    JSONParserConfiguration.ORIGINAL));
+            assertChunkError(NDJSONReader.parallel(file, executor, true, 8, JSONParserConfiguration.ORIGINAL));
+            for (int chunkSize = -1; chunkSize <= 0; chunkSize++) {
+                try {
+                    NDJSONReader.parallel(ByteBuffer.wrap(bytes), executor, true, chunkSize,
+                            JSONParserConfiguration.ORIGINAL);
+                    fail("Expected an exception");
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Chunk size " + chunkSize + " is not a positive number.", e.getMessage());
+                }
+                try {
+                    NDJSONReader.parallel(file, executor, true, chunkSize, JSONParserConfiguration.ORIGINAL);
+                    fail("Expected an exception");
+                } catch (IllegalArgumentException e) {
+                    assertEquals("Chunk size " + chunkSize + " is not a positive number.", e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertChunkError(Iterator<JSONObject> records) {
+        assertEquals(1, records.next().getInt("a"));
+        assertEquals(2, records.next().getInt("a"));
+        try {
+            records.next();
+            fail("Expected an exception");
+        } catch (JSONException e) {
+            assertEquals("Expected a ',' or '}' at 8 [character 1 line 2] in the chunk at byte 16",
+                    e.getMessage());
+        }
+        assertFalse(records.hasNext());
+    }
+
+    private static List<Integer> ids(Iterator<JSONObject> records) {
+        List<Integer> ids = new ArrayList<Integer>();
+        while (records.hasNext()) {
+            ids.add(Integer.valueOf(records.next().getInt("id")));
+        }
+        return ids;
+    }
+}